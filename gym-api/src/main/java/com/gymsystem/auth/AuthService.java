@@ -59,7 +59,7 @@ public class AuthService {
         userRepository.save(user);
 
         // Issue a JWT so the app can log the user in immediately.
-        return jwtService.generateToken(user.getEmail(), user.getRole().name());
+        return jwtService.generateToken(user.getId(), user.getEmail(), user.getRole().name());
     }
 
     /**
@@ -72,6 +72,6 @@ public class AuthService {
 
         // Load user to embed role/claims in the token.
         var user = userRepository.findByEmail(request.getEmail()).orElseThrow();
-        return jwtService.generateToken(user.getEmail(), user.getRole().name());
+        return jwtService.generateToken(user.getId(), user.getEmail(), user.getRole().name());
     }
 }
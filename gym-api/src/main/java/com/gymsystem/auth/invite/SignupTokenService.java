@@ -4,11 +4,10 @@ package com.gymsystem.auth.invite;
 import com.gymsystem.auth.invite.dto.CreateTokenRequest;
 import com.gymsystem.auth.invite.dto.SignupTokenResponse;
 import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.RandomStringUtils;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -20,12 +19,12 @@ import java.util.List;
 public class SignupTokenService {
 
     private final SignupTokenRepository repository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     /** Admin creates a new token; default single-use, 15-day expiry if not provided. */
     @Transactional
     public SignupTokenResponse create(CreateTokenRequest req) {
-        User admin = currentUser();
+        User admin = currentUser.reference();
 
         int maxUses = req.getMaxUses() == null ? 1 : req.getMaxUses();
         Instant expiresAt = req.getExpiresInDays() == null
@@ -87,10 +86,4 @@ public class SignupTokenService {
                 t.isActive(), t.getCreatedAt(), t.getExpiresAt()
         );
     }
-
-    private User currentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
-    }
 }
@@ -1,13 +1,12 @@
 // src/main/java/com/gymsystem/booking/AdminBookingPolicyService.java
 package com.gymsystem.booking;
 
+import com.gymsystem.booking.config.BookingSettingsCache;
 import com.gymsystem.booking.dto.AdminUpdatePolicyRequest;
 import com.gymsystem.booking.dto.BookingPolicyResponse;
-import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -20,7 +19,8 @@ import java.time.Instant;
 public class AdminBookingPolicyService {
 
     private final BookingPolicyRepository policyRepository; // Repository to load/save policy
-    private final UserRepository userRepository; // Repository to resolve the current admin
+    private final CurrentUser currentUser; // Resolves the current admin from the JWT
+    private final BookingSettingsCache settingsCache; // In-memory snapshot to refresh after changes
 
     /**
      * Retrieves the current policy (if none exists, creates a default one).
@@ -45,7 +45,7 @@ public class AdminBookingPolicyService {
     @Transactional
     public BookingPolicyResponse updatePolicy(AdminUpdatePolicyRequest request) {
         var now = Instant.now(); // Captures current timestamp
-        var admin = getCurrentUser(); // Resolves the current authenticated admin
+        var admin = currentUser.reference(); // Resolves the current authenticated admin
 
         BookingPolicy policy = policyRepository.findTopByOrderByIdAsc() // Finds existing policy if present
                 .orElseGet(() -> BookingPolicy.builder() // Otherwise starts building a new one
@@ -61,6 +61,7 @@ public class AdminBookingPolicyService {
 
         // If policy didn't exist before, createdByAdminId is set above. If it existed, we keep the original creator.
         var saved = policyRepository.save(policy); // Persists the policy (insert or update)
+        settingsCache.reloadAfterCommit(); // Publishes the new horizon once committed
         return new BookingPolicyResponse( // Builds and returns a response DTO
                 saved.getOpenDaysInAdvance(), // Maps openDaysInAdvance
                 saved.getCreatedAt(), // Maps createdAt
@@ -80,16 +81,8 @@ public class AdminBookingPolicyService {
                 .createdAt(now) // Sets creation timestamp
                 .updatedAt(now) // Sets update timestamp
                 .build(); // Finishes building
-        return policyRepository.save(policy); // Persists and returns the default policy
-    }
-
-    /**
-     * Resolves the current authenticated user (admin) from the security context.
-     * @return the User entity for the current principal
-     */
-    private User getCurrentUser() {
-        var email = SecurityContextHolder.getContext().getAuthentication().getName(); // Extracts principal email
-        return userRepository.findByEmail(email) // Loads the user by email
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email)); // Throws if missing
+        var saved = policyRepository.save(policy); // Persists the default policy
+        settingsCache.reloadAfterCommit(); // Publishes it once committed
+        return saved;
     }
 }
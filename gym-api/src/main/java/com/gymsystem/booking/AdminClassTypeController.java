@@ -1,10 +1,12 @@
 // src/main/java/com/gymsystem/booking/AdminClassTypeController.java
 package com.gymsystem.booking;
 
+import com.gymsystem.booking.calendar.ClassTypesChangedEvent;
 import com.gymsystem.booking.dto.CreateClassTypeRequest;
 import com.gymsystem.booking.dto.UpdateClassTypeRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +21,7 @@ import java.util.List;
 public class AdminClassTypeController {
 
     private final ClassTypeRepository repo;
+    private final ApplicationEventPublisher events;
 
     @PostMapping
     public ResponseEntity<ClassType> create(@Valid @RequestBody CreateClassTypeRequest req) {
@@ -37,7 +40,9 @@ public class AdminClassTypeController {
                 .active(req.getActive() == null ? true : req.getActive())
                 .build();
 
-        return ResponseEntity.ok(repo.save(ct));
+        var saved = repo.save(ct);
+        events.publishEvent(new ClassTypesChangedEvent()); // Calendar snapshots carry the names: rebuilt
+        return ResponseEntity.ok(saved);
     }
 
     @GetMapping
@@ -54,6 +59,8 @@ public class AdminClassTypeController {
         if (req.getName() != null) ct.setName(req.getName());
         if (req.getDescription() != null) ct.setDescription(req.getDescription());
         if (req.getActive() != null) ct.setActive(req.getActive());
-        return ResponseEntity.ok(repo.save(ct));
+        var saved = repo.save(ct);
+        events.publishEvent(new ClassTypesChangedEvent()); // Calendar snapshots carry the names: rebuilt
+        return ResponseEntity.ok(saved);
     }
 }
@@ -2,12 +2,13 @@
 package com.gymsystem.booking;
 
 import com.gymsystem.booking.dto.GenerateMonthRequest;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.booking.dto.GenerateScheduleRequest;
+import com.gymsystem.booking.dto.GenerateScheduleResult;
+import com.gymsystem.security.CurrentUser;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 /** Admin helper to generate monthly class sessions automatically. */
@@ -18,13 +19,17 @@ import org.springframework.web.bind.annotation.*;
 public class AdminScheduleGeneratorController {
 
     private final MonthlyScheduleGenerator generator;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @PostMapping("/month")
     public ResponseEntity<String> generate(@Valid @RequestBody GenerateMonthRequest req) {
-        var email = SecurityContextHolder.getContext().getAuthentication().getName();
-        var admin = userRepository.findByEmail(email).orElseThrow();
-        int created = generator.generate(req, admin.getId());
+        int created = generator.generate(req, currentUser.id());
         return ResponseEntity.ok("Created sessions: " + created);
     }
+
+    /** Several class types and months at once; existing slots are skipped and reported. */
+    @PostMapping("/bulk")
+    public ResponseEntity<GenerateScheduleResult> generateBulk(@Valid @RequestBody GenerateScheduleRequest req) {
+        return ResponseEntity.ok(generator.generate(req, currentUser.id()));
+    }
 }
@@ -0,0 +1,64 @@
+// src/main/java/com/gymsystem/booking/BookedCountReconciler.java
+package com.gymsystem.booking;
+
+import com.gymsystem.booking.calendar.SessionsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Periodically compares class_sessions.booked_count with the BOOKED rows in bookings.
+ * Drift should never happen; if it does (manual SQL, partial restores) it is logged and,
+ * when auto-fix is enabled, corrected under a row lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookedCountReconciler {
+
+    private final ClassSessionRepository classSessionRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+
+    @Value("${booking.booked-count.lookback-days:7}")
+    private long lookbackDays;
+
+    @Value("${booking.booked-count.auto-fix:true}")
+    private boolean autoFix;
+
+    @Scheduled(cron = "${booking.booked-count.reconcile-cron:0 */15 * * * *}")
+    public void run() {
+        Instant since = Instant.now().minus(lookbackDays, ChronoUnit.DAYS);
+        var drift = classSessionRepository.findBookedCountDrift(since);
+        if (drift.isEmpty()) return;
+
+        for (var d : drift) {
+            log.warn("booked_count drift: sessionId={} bookedCount={} actual={}",
+                    d.getSessionId(), d.getBookedCount(), d.getActualCount());
+            if (autoFix) {
+                reconcile(d.getSessionId(), d.getStartAt());
+            }
+        }
+    }
+
+    /**
+     * Recounts one session while holding its row lock: in-flight bookings that already
+     * took a seat finish first, and the recount runs in a fresh statement that sees them.
+     */
+    private void reconcile(Long sessionId, Instant startAt) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (classSessionRepository.lockBookedCount(sessionId, startAt) == null) return;
+            long actual = bookingRepository.countActiveBySession(sessionId, startAt);
+            classSessionRepository.overwriteBookedCount(sessionId, startAt, (int) actual);
+            events.publishEvent(SessionsChangedEvent.of(sessionId));
+        });
+    }
+}
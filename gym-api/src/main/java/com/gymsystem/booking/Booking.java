@@ -25,6 +25,10 @@ public class Booking {
     @JoinColumn(name = "session_id", nullable = false)
     private ClassSession session; // The class session that was booked
 
+    /** Copy of the session start: partition key of bookings and keyset order of "my bookings". Must be set on insert. */
+    @Column(name = "session_start_at", nullable = false, updatable = false)
+    private Instant sessionStartAt;
+
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user; // The user who made the booking
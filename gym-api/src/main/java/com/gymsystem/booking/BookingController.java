@@ -3,6 +3,10 @@ package com.gymsystem.booking;
 
 import com.gymsystem.booking.dto.AvailabilityItem; 
 import com.gymsystem.booking.dto.BookingResponse; 
+import com.gymsystem.booking.dto.SeriesBookingItem;
+import com.gymsystem.booking.dto.SeriesBookingRequest;
+import com.gymsystem.security.CurrentUser;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor; 
 import org.springframework.format.annotation.DateTimeFormat; 
 import org.springframework.http.ResponseEntity; 
@@ -13,6 +17,7 @@ import java.util.List;
 
 /**
  * User-facing endpoints for class availability and bookings.
+ * Rate limits are checked here, before the booking transaction starts (see {@link BookingRateLimits}).
  */
 @RestController
 @RequestMapping("/api/v1")
@@ -20,6 +25,8 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService; // Injects the booking service
+    private final BookingRateLimits rateLimits;
+    private final CurrentUser currentUser;
 
     /**
      * Lists available sessions between two ISO-8601 instants (inclusive).
@@ -44,10 +51,41 @@ public class BookingController {
      */
     @PostMapping("/classes/{sessionId}/book") // Maps to POST /api/v1/classes/{sessionId}/book
     public ResponseEntity<BookingResponse> book(@PathVariable Long sessionId) { // Declares the book endpoint
+        rateLimits.checkBook(currentUser.id());
         var response = bookingService.bookSession(sessionId); // Delegates to service
         return ResponseEntity.ok(response); // Returns 200 OK with booking data
     }
 
+    /**
+     * Books a slot of a recurring template that has no session id yet (calendar/availability
+     * items with a templateId). The session is created on first booking.
+     * @param templateId the template the slot belongs to
+     * @param startAt start of the slot (ISO-8601)
+     * @return a booking response with details, including the new session id
+     */
+    @PostMapping("/classes/templates/{templateId}/book") // Maps to POST /api/v1/classes/templates/{templateId}/book
+    public ResponseEntity<BookingResponse> bookTemplateSlot(
+            @PathVariable Long templateId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startAt
+    ) {
+        rateLimits.checkBook(currentUser.id());
+        var response = bookingService.bookTemplateSlot(templateId, startAt); // Delegates to service
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Books several sessions (e.g., the same weekly slot for a month) in one transaction.
+     * Sessions that cannot be booked are reported individually; the others are still booked.
+     * @param request the session ids to book
+     * @return one result per session
+     */
+    @PostMapping("/classes/series/book") // Maps to POST /api/v1/classes/series/book
+    public ResponseEntity<List<SeriesBookingItem>> bookSeries(@Valid @RequestBody SeriesBookingRequest request) {
+        rateLimits.checkBook(currentUser.id());
+        var results = bookingService.bookSeries(request.getSessionIds()); // Delegates to service
+        return ResponseEntity.ok(results); // Returns 200 OK with per-session results
+    }
+
     /**
      * Cancels a booking that belongs to the current user (idempotent).
      * @param bookingId the id of the booking to cancel
@@ -55,6 +93,7 @@ public class BookingController {
      */
     @DeleteMapping("/bookings/{bookingId}") // Maps to DELETE /api/v1/bookings/{bookingId}
     public ResponseEntity<Void> cancel(@PathVariable Long bookingId) {
+        rateLimits.checkCancel(currentUser.id());
         bookingService.cancelMyBooking(bookingId); // Delegates to service
         return ResponseEntity.noContent().build(); // Returns 204 No Content
     }
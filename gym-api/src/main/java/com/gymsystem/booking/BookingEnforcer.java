@@ -1,12 +1,19 @@
 // src/main/java/com/gymsystem/booking/BookingEnforcer.java
 package com.gymsystem.booking;
 
+import com.gymsystem.booking.calendar.SessionsChangedEvent;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /** Cancels user's future bookings when subscription becomes PAST_DUE (with optional grace). */
 @Component
@@ -14,6 +21,9 @@ import java.time.Instant;
 public class BookingEnforcer {
 
     private final BookingRepository bookingRepository;
+    private final SeatAdmissionStrategy seatAdmission;
+    private final WaitlistPromoter waitlistPromoter;
+    private final ApplicationEventPublisher events;
 
     @Value("${payments.past-due.cancel-future-bookings:true}")
     private boolean cancelFutureBookings;
@@ -21,12 +31,37 @@ public class BookingEnforcer {
     @Value("${payments.past-due.grace-hours:0}")
     private long graceHours;
 
-    /** Returns number of canceled bookings. */
+    /**
+     * Returns number of canceled bookings. Seats are released in the same statement and
+     * handed to waiting members before commit.
+     */
     @Transactional
     public int enforcePastDue(Long userId) {
-        if (!cancelFutureBookings) return 0;
+        return enforcePastDue(List.of(userId)).getOrDefault(userId, 0);
+    }
+
+    /**
+     * Bulk variant for billing runs: one statement cancels the future bookings of every given user.
+     * @return number of canceled bookings per user (users without bookings are absent)
+     */
+    @Transactional
+    public Map<Long, Integer> enforcePastDue(Collection<Long> userIds) {
+        if (!cancelFutureBookings || userIds.isEmpty()) return Map.of();
         Instant now = Instant.now();
         Instant cutoff = now.plusSeconds(graceHours * 3600);
-        return bookingRepository.cancelFutureActiveByUser(userId, cutoff, now);
+        var rows = bookingRepository.cancelFutureActiveByUsers(userIds, cutoff, now);
+
+        Map<Long, Integer> perUser = new HashMap<>();
+        List<Long> releasedSessionIds = new ArrayList<>(rows.size());
+        for (var r : rows) {
+            perUser.merge(r.getUserId(), 1, Integer::sum);
+            releasedSessionIds.add(r.getSessionId());
+        }
+        seatAdmission.releasedInBulk(releasedSessionIds);
+        waitlistPromoter.promote(releasedSessionIds);
+        if (!releasedSessionIds.isEmpty()) {
+            events.publishEvent(SessionsChangedEvent.of(releasedSessionIds));
+        }
+        return perUser;
     }
 }
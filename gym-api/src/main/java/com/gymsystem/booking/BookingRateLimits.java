@@ -0,0 +1,41 @@
+// src/main/java/com/gymsystem/booking/BookingRateLimits.java
+package com.gymsystem.booking;
+
+import com.gymsystem.common.ratelimit.RateLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-member rate limits of the booking endpoints. Checked by {@link BookingController} before
+ * the booking transaction starts: with the postgres backend a check runs in its own short
+ * transaction, which must not wait for a second connection while the booking holds one.
+ * A refused call throws IllegalStateException (409), like the booking rules.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingRateLimits {
+
+    private final RateLimiter rateLimiter;
+
+    @Value("${ratelimit.bookings.book-min-interval-ms:800}")
+    private long bookMinIntervalMs;
+
+    @Value("${ratelimit.bookings.book-burst:1}")
+    private int bookBurst;
+
+    @Value("${ratelimit.bookings.cancel-min-interval-ms:800}")
+    private long cancelMinIntervalMs;
+
+    /** Prevents accidental double-click bursts of /book (single, template slot and series). */
+    public void checkBook(Long userId) {
+        rateLimiter.enforce("book", userId, bookBurst, bookMinIntervalMs,
+                "Too many booking attempts; please wait a moment");
+    }
+
+    /** Prevents rapid duplicate cancels (UI hammering). */
+    public void checkCancel(Long userId) {
+        rateLimiter.enforceMinInterval("cancel", userId, cancelMinIntervalMs,
+                "Too many cancel attempts; please wait a moment");
+    }
+}
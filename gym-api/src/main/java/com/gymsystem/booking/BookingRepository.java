@@ -6,7 +6,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.util.List; 
+import java.util.Collection;
+import java.util.List;
 import java.time.Instant;
 import java.util.Optional;
 
@@ -22,9 +23,9 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("""
         SELECT COUNT(b)
         FROM Booking b
-        WHERE b.session.id = :sessionId AND b.status = 'BOOKED'
+        WHERE b.session.id = :sessionId AND b.sessionStartAt = :sessionStartAt AND b.status = 'BOOKED'
     """)
-    long countActiveBySessionId(@Param("sessionId") Long sessionId);
+    long countActiveBySession(@Param("sessionId") Long sessionId, @Param("sessionStartAt") Instant sessionStartAt);
 
     /**
      * Finds an active booking for a user in a given session (if any).
@@ -48,33 +49,124 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     """)
     Optional<Booking> findByIdAndUserId(@Param("bookingId") Long bookingId, @Param("userId") Long userId);
 
-    @Modifying(clearAutomatically = true, flushAutomatically = true)
-    @Query("""
-    update Booking b
-        set b.status = com.gymsystem.booking.BookingStatus.CANCELED,
-            b.canceledAt = :now
-        where b.user.id = :userId
-        and b.status = com.gymsystem.booking.BookingStatus.BOOKED
-        and b.session.startAt > :cutoff
-    """)
-    int cancelFutureActiveByUser(@Param("userId") Long userId,
-                                @Param("cutoff") Instant cutoff,
-                                @Param("now") Instant now);
+    /**
+     * Cancels one active booking of the user. The status check in the statement decides between
+     * concurrent cancels of the same booking: only one of them gets 1, the others 0.
+     * sessionStartAt restricts the update to the booking's month.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE bookings
+           SET status = 'CANCELED',
+               canceled_at = :now
+         WHERE id = :bookingId
+           AND user_id = :userId
+           AND session_start_at = :sessionStartAt
+           AND status = 'BOOKED'
+    """, nativeQuery = true)
+    int cancelIfBooked(@Param("bookingId") Long bookingId,
+                       @Param("userId") Long userId,
+                       @Param("sessionStartAt") Instant sessionStartAt,
+                       @Param("now") Instant now);
 
     /**
-     * Fetches all bookings for a user with session and class type eagerly loaded,
-     * sorted by session start date (newest first for convenience).
+     * Cancels every active booking of the given users for sessions starting after "cutoff" and
+     * gives the seats back to class_sessions.booked_count in the same statement.
+     * Returns one (user id, session id) row per canceled booking.
      */
-    @Query("""
-        select b
-          from Booking b
-          join fetch b.session s
-          join fetch s.classType t
-         where b.user.id = :userId
-         order by s.startAt desc
-    """)
-    List<Booking> findAllByUserIdWithSession(@Param("userId") Long userId);
-    
+    @Query(value = """
+        WITH canceled AS (
+            UPDATE bookings b
+               SET status = 'CANCELED',
+                   canceled_at = :now
+             WHERE b.user_id IN (:userIds)
+               AND b.status = 'BOOKED'
+               AND b.session_start_at > :cutoff
+            RETURNING b.user_id, b.session_id, b.session_start_at
+        ), released AS (
+            UPDATE class_sessions cs
+               SET booked_count = GREATEST(cs.booked_count - c.n, 0)
+              FROM (SELECT session_id, session_start_at, COUNT(*) AS n
+                      FROM canceled GROUP BY session_id, session_start_at) c
+             WHERE cs.id = c.session_id
+               AND cs.start_at = c.session_start_at
+            RETURNING cs.id
+        )
+        SELECT user_id AS "userId", session_id AS "sessionId" FROM canceled
+    """, nativeQuery = true)
+    List<CanceledBooking> cancelFutureActiveByUsers(@Param("userIds") Collection<Long> userIds,
+                                                    @Param("cutoff") Instant cutoff,
+                                                    @Param("now") Instant now);
+
+    /**
+     * Keyset page of the user's bookings in ascending (startAt, id) order, strictly after the
+     * given position, at most "limit" rows (null: all). The page is cut from bookings alone
+     * (idx_bookings_user_start; the redundant ">=" keeps the range usable by the index while the
+     * OR resolves ties on the same start); then each row looks up its session by primary key.
+     * The LATERAL lookup is deliberate: a plain join is planned against every month of
+     * class_sessions and tends to become a hash join over all of them.
+     */
+    @Query(value = """
+        WITH page AS MATERIALIZED (
+            SELECT b.id, b.session_id, b.session_start_at, b.status
+              FROM bookings b
+             WHERE b.user_id = :userId
+               AND b.session_start_at >= :afterStart
+               AND (b.session_start_at > :afterStart OR b.id > :afterId)
+             ORDER BY b.session_start_at ASC, b.id ASC
+             LIMIT :limit
+        )
+        SELECT p.id AS "bookingId",
+               s.id AS "sessionId",
+               t.code AS "classTypeCode",
+               t.name AS "classTypeName",
+               p.session_start_at AS "startAt",
+               s.end_at AS "endAt",
+               p.status AS "status"
+          FROM page p
+         CROSS JOIN LATERAL (SELECT cs.id, cs.end_at, cs.class_type_id
+                               FROM class_sessions cs
+                              WHERE cs.id = p.session_id AND cs.start_at = p.session_start_at
+                              LIMIT 1) s
+          JOIN class_types t ON t.id = s.class_type_id
+         ORDER BY p.session_start_at ASC, p.id ASC
+    """, nativeQuery = true)
+    List<MyBookingRow> findPageForUserAfter(@Param("userId") Long userId,
+                                            @Param("afterStart") Instant afterStart,
+                                            @Param("afterId") Long afterId,
+                                            @Param("limit") Integer limit);
+
+    /** Same as {@link #findPageForUserAfter}, descending and strictly before the given position. */
+    @Query(value = """
+        WITH page AS MATERIALIZED (
+            SELECT b.id, b.session_id, b.session_start_at, b.status
+              FROM bookings b
+             WHERE b.user_id = :userId
+               AND b.session_start_at <= :beforeStart
+               AND (b.session_start_at < :beforeStart OR b.id < :beforeId)
+             ORDER BY b.session_start_at DESC, b.id DESC
+             LIMIT :limit
+        )
+        SELECT p.id AS "bookingId",
+               s.id AS "sessionId",
+               t.code AS "classTypeCode",
+               t.name AS "classTypeName",
+               p.session_start_at AS "startAt",
+               s.end_at AS "endAt",
+               p.status AS "status"
+          FROM page p
+         CROSS JOIN LATERAL (SELECT cs.id, cs.end_at, cs.class_type_id
+                               FROM class_sessions cs
+                              WHERE cs.id = p.session_id AND cs.start_at = p.session_start_at
+                              LIMIT 1) s
+          JOIN class_types t ON t.id = s.class_type_id
+         ORDER BY p.session_start_at DESC, p.id DESC
+    """, nativeQuery = true)
+    List<MyBookingRow> findPageForUserBefore(@Param("userId") Long userId,
+                                             @Param("beforeStart") Instant beforeStart,
+                                             @Param("beforeId") Long beforeId,
+                                             @Param("limit") Integer limit);
+
     /**
      * Counts active (BOOKED) bookings for a user, for sessions of the same class type,
      * whose startAt lies in [dayStart, dayEnd).
@@ -83,15 +175,154 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("""
         select count(b)
           from Booking b
-          join b.session s
+          join b.session s on s.startAt = b.sessionStartAt
           join s.classType t
          where b.user.id = :userId
            and b.status = com.gymsystem.booking.BookingStatus.BOOKED
            and t.id = :classTypeId
+           and b.sessionStartAt >= :dayStart and b.sessionStartAt < :dayEnd
            and s.startAt >= :dayStart and s.startAt < :dayEnd
     """)
     long countActiveForUserByTypeAndDay(@Param("userId") Long userId,
                                         @Param("classTypeId") Long classTypeId,
                                         @Param("dayStart") Instant dayStart,
                                         @Param("dayEnd") Instant dayEnd);
+
+    /**
+     * Session ids, among the given ones, where the user already holds an active booking.
+     * Set-based duplicate check for series booking.
+     */
+    @Query("""
+        select b.session.id
+          from Booking b
+         where b.user.id = :userId
+           and b.session.id in :sessionIds
+           and b.status = com.gymsystem.booking.BookingStatus.BOOKED
+    """)
+    List<Long> findActiveSessionIdsForUser(@Param("userId") Long userId,
+                                           @Param("sessionIds") List<Long> sessionIds);
+
+    /**
+     * Class type and start of every active booking of the user whose session starts in [from, to).
+     * Set-based input for the "one booking per day per class type" rule. The range is repeated on
+     * s.startAt so only those months of class_sessions are joined.
+     */
+    @Query("""
+        select s.classType.id as classTypeId,
+               s.startAt as startAt
+          from Booking b
+          join b.session s on s.startAt = b.sessionStartAt
+         where b.user.id = :userId
+           and b.status = com.gymsystem.booking.BookingStatus.BOOKED
+           and b.sessionStartAt >= :from and b.sessionStartAt < :to
+           and s.startAt >= :from and s.startAt < :to
+    """)
+    List<BookedSlot> findActiveSlotsForUser(@Param("userId") Long userId,
+                                            @Param("from") Instant from,
+                                            @Param("to") Instant to);
+
+    /**
+     * Books the user into every given session that still has a seat, in one statement:
+     * takes the seats with a conditional UPDATE on booked_count and inserts one booking per
+     * seat taken. Full or canceled sessions are simply absent from the result.
+     * startAts are the starts of those sessions; they only restrict the months scanned.
+     * Returns the id and session id of each created booking.
+     */
+    @Query(value = """
+        WITH seated AS (
+            UPDATE class_sessions
+               SET booked_count = booked_count + 1
+             WHERE id IN (:sessionIds)
+               AND start_at IN (:startAts)
+               AND booked_count < capacity
+               AND NOT canceled
+            RETURNING id, start_at
+        )
+        INSERT INTO bookings (session_id, user_id, status, created_at, session_start_at)
+        SELECT id, :userId, 'BOOKED', :now, start_at FROM seated
+        RETURNING id AS "id", session_id AS "sessionId"
+    """, nativeQuery = true)
+    List<CreatedBooking> bookSeats(@Param("userId") Long userId,
+                                   @Param("sessionIds") List<Long> sessionIds,
+                                   @Param("startAts") List<Instant> startAts,
+                                   @Param("now") Instant now);
+
+    /**
+     * Everything bookSession needs to evaluate its rules, in one round trip: the session and the
+     * user's subscription and bookings (config and policy come from the in-memory settings).
+     * The same-day check only runs when onePerDay is set. Empty when the session does not exist.
+     * Day boundaries are UTC, like the rest of the rules. The start is looked up by id in
+     * class_session_starts first, so only that session's month is read (see V26); the day range
+     * is repeated on s2 so the same-day check reads that day of class_sessions by index.
+     */
+    @Query(value = """
+        SELECT s.id AS "sessionId",
+               s.canceled AS "canceled",
+               CAST(EXTRACT(EPOCH FROM s.start_at) * 1000000 AS BIGINT) AS "startAtMicros",
+               EXISTS (SELECT 1 FROM subscriptions sub
+                        WHERE sub.user_id = :userId AND sub.status = 'ACTIVE') AS "activeSubscription",
+               EXISTS (SELECT 1 FROM bookings b
+                        WHERE b.session_id = s.id AND b.session_start_at = s.start_at
+                          AND b.user_id = :userId AND b.status = 'BOOKED') AS "alreadyBooked",
+               (:onePerDay AND EXISTS (SELECT 1 FROM bookings b
+                         JOIN class_sessions s2 ON s2.id = b.session_id AND s2.start_at = b.session_start_at
+                        WHERE b.user_id = :userId
+                          AND b.status = 'BOOKED'
+                          AND s2.class_type_id = s.class_type_id
+                          AND b.session_start_at >= date_trunc('day', s.start_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'
+                          AND b.session_start_at < (date_trunc('day', s.start_at AT TIME ZONE 'UTC') + INTERVAL '1 day') AT TIME ZONE 'UTC'
+                          AND s2.start_at >= date_trunc('day', s.start_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'
+                          AND s2.start_at < (date_trunc('day', s.start_at AT TIME ZONE 'UTC') + INTERVAL '1 day') AT TIME ZONE 'UTC')) AS "sameTypeSameDay"
+          FROM class_sessions s
+         WHERE s.id = :sessionId
+           AND s.start_at = (SELECT k.start_at FROM class_session_starts k WHERE k.id = :sessionId)
+    """, nativeQuery = true)
+    Optional<BookingPrecheck> findBookingPrecheck(@Param("sessionId") Long sessionId,
+                                                  @Param("userId") Long userId,
+                                                  @Param("onePerDay") boolean onePerDay);
+
+    /** Row shape returned by {@link #findBookingPrecheck}. */
+    interface BookingPrecheck {
+        Long getSessionId();
+        boolean isCanceled();
+        long getStartAtMicros();
+        boolean isActiveSubscription();
+        boolean isAlreadyBooked();
+        boolean isSameTypeSameDay();
+
+        /** Exact to the microsecond, as stored: it is copied into bookings.session_start_at (FK). */
+        default Instant getStartAt() {
+            long micros = getStartAtMicros();
+            return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+        }
+    }
+
+    /** Row shape returned by {@link #findPageForUserAfter} and {@link #findPageForUserBefore}. */
+    interface MyBookingRow {
+        Long getBookingId();
+        Long getSessionId();
+        String getClassTypeCode();
+        String getClassTypeName();
+        Instant getStartAt();
+        Instant getEndAt();
+        BookingStatus getStatus();
+    }
+
+    /** Row shape returned by {@link #cancelFutureActiveByUsers}. */
+    interface CanceledBooking {
+        Long getUserId();
+        Long getSessionId();
+    }
+
+    /** Row shape returned by {@link #findActiveSlotsForUser}. */
+    interface BookedSlot {
+        Long getClassTypeId();
+        Instant getStartAt();
+    }
+
+    /** Row shape returned by {@link #bookSeats}. */
+    interface CreatedBooking {
+        Long getId();
+        Long getSessionId();
+    }
 }
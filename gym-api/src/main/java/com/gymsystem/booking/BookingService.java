@@ -1,25 +1,29 @@
 // src/main/java/com/gymsystem/booking/BookingService.java
 package com.gymsystem.booking;
 
+import com.gymsystem.booking.calendar.SessionsChangedEvent;
 import com.gymsystem.booking.dto.AdminCreateSessionRequest;
 import com.gymsystem.booking.dto.AvailabilityItem;
-import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.booking.dto.SeriesBookingItem;
+import com.gymsystem.booking.template.SessionTemplateService;
+import com.gymsystem.booking.waitingroom.WaitingRoomService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import com.gymsystem.payments.SubscriptionRepository;
 import com.gymsystem.payments.SubscriptionStatus;
 import com.gymsystem.i18n.I18n;
-import com.gymsystem.common.ratelimit.RateLimiter;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Set;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import com.gymsystem.booking.config.BookingConfigService;
+import com.gymsystem.booking.config.BookingSettings;
+import com.gymsystem.booking.config.BookingSettingsCache;
+import com.gymsystem.security.CurrentUser;
 import java.time.*;
 
 /**
@@ -33,18 +37,16 @@ public class BookingService {
     private final ClassTypeRepository classTypeRepository;
     private final ClassSessionRepository classSessionRepository;
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
-    private final BookingPolicyRepository policyRepository;
+    private final CurrentUser currentUser;
     private final SubscriptionRepository subscriptionRepository;
-    private final BookingConfigService bookingConfigService;
+    private final BookingSettingsCache bookingSettings;
     private final I18n i18n;
-    private final RateLimiter rateLimiter;
-
-    @Value("${ratelimit.bookings.book-min-interval-ms:800}")
-    private long bookMinIntervalMs;
-
-    @Value("${ratelimit.bookings.cancel-min-interval-ms:800}")
-    private long cancelMinIntervalMs;
+    private final SeatAdmissionStrategy seatAdmission;
+    private final WaitingRoomService waitingRoom;
+    private final WaitlistPromoter waitlistPromoter;
+    private final ApplicationEventPublisher events;
+    private final SessionTemplateService sessionTemplates;
+    private final SessionPartitions sessionPartitions;
 
     /**
      * Creates a class session on behalf of an admin.
@@ -53,7 +55,7 @@ public class BookingService {
      */
     @Transactional
     public Long createSession(AdminCreateSessionRequest request) {
-        var admin = getCurrentUser(); // Resolves the current authenticated admin user
+        var admin = currentUser.reference(); // Resolves the current authenticated admin user
         var classType = classTypeRepository.findByCodeAndActiveTrue(request.getClassTypeCode()) // Looks up active class type
                 .orElseThrow(() -> new IllegalArgumentException("Unknown or inactive class type code: " + request.getClassTypeCode())); // Throws if not found
 
@@ -81,7 +83,9 @@ public class BookingService {
                 .createdAt(now) // Creation timestamp
                 .build(); // Finishes building
 
+        sessionPartitions.ensure(session.getStartAt()); // Own committed transaction; nothing here has touched class_sessions yet
         var saved = classSessionRepository.save(session); // Persists the session
+        events.publishEvent(SessionsChangedEvent.of(saved.getId()));
         return saved.getId();
     }
 
@@ -91,17 +95,19 @@ public class BookingService {
      */
     @Transactional
     public void cancelSession(Long sessionId) {
-        getCurrentUser(); // Ensures the caller is authenticated (admin enforced at controller)
+        currentUser.id(); // Ensures the caller is authenticated (admin enforced at controller)
         var session = classSessionRepository.findById(sessionId) // Loads session
                 .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId)); // Throws if missing
 
-        long active = bookingRepository.countActiveBySessionId(sessionId); // Counts active bookings
-        if (active > 0) { // If there are active bookings
-            throw new IllegalStateException("Cannot cancel a session with active bookings"); // Refuse cancellation
+        if (session.isCanceled()) { // Already canceled
+            return; // Idempotent: do nothing
         }
 
-        session.setCanceled(true); // Soft-cancels the session
-        classSessionRepository.save(session); // Persists change
+        // Conditional update: only cancels while booked_count = 0, so no booking can race in
+        if (classSessionRepository.cancelIfEmpty(sessionId, session.getStartAt()) == 0) {
+            throw new IllegalStateException("Cannot cancel a session with active bookings"); // Refuse cancellation
+        }
+        events.publishEvent(SessionsChangedEvent.of(sessionId));
     }
 
     /**
@@ -120,10 +126,8 @@ public class BookingService {
         }
 
         var now = Instant.now();
-        var policy = policyRepository.findTopByOrderByIdAsc().orElse(null);
-        Instant policyUpper = (policy == null)
-                ? Instant.MAX
-                : now.plus(policy.getOpenDaysInAdvance(), ChronoUnit.DAYS);
+        var settings = bookingSettings.get(); // In-memory snapshot of config + policy
+        Instant policyUpper = settings.horizon(now);
 
         Instant effectiveTo = to.isBefore(policyUpper) ? to : policyUpper;
 
@@ -131,36 +135,46 @@ public class BookingService {
             return List.of();
         }
 
-        var sessions = classSessionRepository.findActiveSessionsBetween(from, effectiveTo);
+        // One statement: sessions + class type + denormalized booked_count
+        var sessions = classSessionRepository.findAvailabilityBetween(from, effectiveTo);
 
-        var cfg = bookingConfigService.get();
         var nowZ = ZonedDateTime.now(ZoneOffset.UTC);
 
-        List<AvailabilityItem> items = new ArrayList<>();
+        List<AvailabilityItem> items = new ArrayList<>(sessions.size());
         for (var s : sessions) {
 
             var z = s.getStartAt().atZone(ZoneOffset.UTC);
             var firstDay = z.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-            var openAt = firstDay.minusDays(cfg.getPublishDaysBeforeMonth());
+            var openAt = firstDay.minusDays(settings.publishDaysBeforeMonth());
 
             if (nowZ.isBefore(openAt)) {
                 continue;
             }
 
-            long booked = bookingRepository.countActiveBySessionId(s.getId());
-            long spotsLeft = Math.max(0, s.getCapacity() - booked);
+            long spotsLeft = Math.max(0, s.getCapacity() - s.getBooked());
 
             items.add(new AvailabilityItem(
-                    s.getId(),
-                    s.getClassType().getCode(),
-                    s.getClassType().getName(),
+                    s.getSessionId(),
+                    s.getClassTypeCode(),
+                    s.getClassTypeName(),
                     s.getStartAt(),
                     s.getEndAt(),
                     s.getCapacity(),
                     spotsLeft,
-                    s.getNotes()
+                    s.getNotes(),
+                    null
             ));
         }
+
+        // Template slots without a row yet are free by definition
+        for (var t : sessionTemplates.expandUnmaterialized(from, effectiveTo)) {
+            if (t.endAt().isAfter(effectiveTo) || nowZ.toInstant().isBefore(settings.monthOpensAt(t.startAt()))) {
+                continue;
+            }
+            items.add(new AvailabilityItem(null, t.classTypeCode(), t.classTypeName(), t.startAt(), t.endAt(),
+                    t.capacity(), t.capacity(), null, t.templateId()));
+        }
+        items.sort(Comparator.comparing(AvailabilityItem::getStartAt));
         return items;
     }
 
@@ -172,83 +186,60 @@ public class BookingService {
     @Transactional
     public com.gymsystem.booking.dto.BookingResponse bookSession(Long sessionId) {
         // Resolve current authenticated user (throws if missing)
-        var user = getCurrentUser();
-        // Prevent accidental double-click bursts for the same user
-        rateLimiter.enforceMinInterval(
-                "book:" + user.getId(),
-                bookMinIntervalMs,
-                "Too many booking attempts; please wait a moment"
-        );
+        var user = currentUser.reference();
+        // While a month is opening, only members admitted by the waiting room may book
+        waitingRoom.assertAdmitted(user.getId());
 
-        // Business gate: only ACTIVE subscribers can book
-        assertUserHasActiveSubscription(user.getId());
+        // Fail fast on sessions the admission strategy already knows are full
+        if (!seatAdmission.maySeat(sessionId)) {
+            throw new IllegalStateException(i18n.msg("booking.full"));
+        }
 
-        // Load target session or fail fast
-        var session = classSessionRepository.findById(sessionId)
+        // One statement returns every fact the rule chain needs; the rules run in memory below
+        var settings = bookingSettings.get();
+        var facts = bookingRepository.findBookingPrecheck(sessionId, user.getId(), settings.onePerDayPerType())
                 .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
 
-        var now = Instant.now();
-
-        // Reject bookings for canceled sessions
-        if (session.isCanceled()) {
-            throw new IllegalStateException(i18n.msg("booking.session.canceled"));
+        // Business gate: only ACTIVE subscribers can book
+        if (!facts.isActiveSubscription()) {
+            throw new IllegalStateException("User does not have an active subscription");
         }
 
-        // Booking must happen strictly before session start
-        if (!now.isBefore(session.getStartAt())) {
-            throw new IllegalStateException(i18n.msg("booking.already.started"));
-        }
+        var now = Instant.now();
 
-        // ---- Booking window enforcement (intersection of two rules) ----
-        // Rule A: global “open days in advance” (e.g., 15 days ahead)
-        var policy = policyRepository.findTopByOrderByIdAsc().orElse(null);
-        if (policy != null) {
-            Instant horizon = now.plus(policy.getOpenDaysInAdvance(), ChronoUnit.DAYS);
-            if (session.getStartAt().isAfter(horizon)) {
-                throw new IllegalStateException(i18n.msg("booking.horizon.exceeded"));
-            }
+        // Session-level rules: canceled, started, policy horizon, monthly publish window
+        var violation = sessionRuleViolation(facts.isCanceled(), facts.getStartAt(), settings, now);
+        if (violation != null) {
+            throw new IllegalStateException(i18n.msg(violation));
         }
 
-        // Rule B: monthly publish window (“open next month X days before the 1st”)
-        // Example: for a November session, booking is allowed only when now >= (Nov-01 - publishDaysBeforeMonth)
-        assertBookingWindowAllows(session.getStartAt());
-
-        var cfg = bookingConfigService.get();
-        if (cfg.isOnePerDayPerType()) {
-            var z = session.getStartAt().atZone(ZoneOffset.UTC);
-            var dayStart = z.toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
-            var dayEnd   = z.toLocalDate().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
-
-            long already =
-                bookingRepository.countActiveForUserByTypeAndDay(
-                    user.getId(), session.getClassType().getId(), dayStart, dayEnd
-                );
-            if (already > 0) {
-                throw new IllegalStateException(i18n.msg("booking.oneperday"));
-            }
+        // One booking per day per class type (when enabled)
+        if (facts.isSameTypeSameDay()) {
+            throw new IllegalStateException(i18n.msg("booking.oneperday"));
         }
 
         // Prevent duplicate active booking for the same session and user
-        var already = bookingRepository.findActiveBySessionIdAndUserId(sessionId, user.getId());
-        if (already.isPresent()) {
+        if (facts.isAlreadyBooked()) {
             throw new IllegalStateException(i18n.msg("booking.duplicate.session"));
         }
 
-        // Enforce capacity
-        long activeCount = bookingRepository.countActiveBySessionId(sessionId);
-        if (activeCount >= session.getCapacity()) {
+        // Seat admission: the strategy takes the seat (conditional UPDATE on booked_count) or
+        // reports the session full. It also closes the check-then-insert race between bookings.
+        if (!seatAdmission.tryAcquire(sessionId, facts.getStartAt())) {
             throw new IllegalStateException(i18n.msg("booking.full"));
         }
 
-        // Persist booking
+        // Persist booking (the session is only referenced, never loaded)
         var booking = Booking.builder()
-                .session(session)
+                .session(classSessionRepository.getReferenceById(sessionId))
+                .sessionStartAt(facts.getStartAt())
                 .user(user)
                 .status(BookingStatus.BOOKED)
                 .createdAt(now)
                 .build();
 
         var saved = bookingRepository.save(booking);
+        events.publishEvent(SessionsChangedEvent.of(sessionId));
 
         return new com.gymsystem.booking.dto.BookingResponse(
                 saved.getId(),
@@ -260,20 +251,152 @@ public class BookingService {
     }
 
 
+    /**
+     * Books a slot of a recurring template. The slot's session row is created on first booking,
+     * inside this transaction, so a booking that fails any rule leaves no row behind.
+     * @param templateId the template the slot belongs to
+     * @param startAt start of the slot
+     */
+    @Transactional
+    public com.gymsystem.booking.dto.BookingResponse bookTemplateSlot(Long templateId, Instant startAt) {
+        currentUser.id(); // Ensures the caller is authenticated before any row is written
+        var sessionId = sessionTemplates.materialize(templateId, startAt, null);
+        return bookSession(sessionId);
+    }
+
+    /**
+     * Books several sessions for the current user in one transaction (e.g., a weekly slot for a month).
+     * Subscription, policy and config are loaded once; duplicates, the one-per-day rule and capacity
+     * are checked with set-based queries. Sessions that fail a rule are reported, the others are booked.
+     * @param sessionIds the sessions to book (repeated ids are ignored)
+     * @return one result per distinct session id, in request order
+     */
+    @Transactional
+    public List<SeriesBookingItem> bookSeries(List<Long> sessionIds) {
+        var user = currentUser.reference();
+        waitingRoom.assertAdmitted(user.getId());
+        assertUserHasActiveSubscription(user.getId());
+
+        var ids = sessionIds.stream().distinct().toList();
+        var now = Instant.now();
+        var settings = bookingSettings.get();
+
+        var sessions = new HashMap<Long, ClassSession>();
+        for (var s : classSessionRepository.findAllWithTypeByIdIn(ids)) {
+            sessions.put(s.getId(), s);
+        }
+        var alreadyBooked = new HashSet<>(bookingRepository.findActiveSessionIdsForUser(user.getId(), ids));
+
+        // "classTypeId:day" slots the user already holds; grows as sessions of the series are accepted
+        var takenDays = new HashSet<String>();
+        if (settings.onePerDayPerType() && !sessions.isEmpty()) {
+            var first = sessions.values().stream().map(ClassSession::getStartAt).min(Instant::compareTo).orElseThrow();
+            var last = sessions.values().stream().map(ClassSession::getStartAt).max(Instant::compareTo).orElseThrow();
+            var from = first.atZone(ZoneOffset.UTC).toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
+            var to = last.atZone(ZoneOffset.UTC).toLocalDate().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            for (var slot : bookingRepository.findActiveSlotsForUser(user.getId(), from, to)) {
+                takenDays.add(dayKey(slot.getClassTypeId(), slot.getStartAt()));
+            }
+        }
+
+        // Evaluate every rule in memory; only sessions that pass are sent to the database
+        var errors = new HashMap<Long, String>();
+        var candidates = new ArrayList<Long>();
+        for (Long id : ids) {
+            var session = sessions.get(id);
+            if (session == null) {
+                errors.put(id, "Session not found: " + id);
+                continue;
+            }
+            String violation = sessionRuleViolation(session.isCanceled(), session.getStartAt(), settings, now);
+            if (violation == null && alreadyBooked.contains(id)) {
+                violation = "booking.duplicate.session";
+            }
+            if (violation == null && !seatAdmission.maySeat(id)) {
+                violation = "booking.full";
+            }
+            if (violation == null && settings.onePerDayPerType()
+                    && !takenDays.add(dayKey(session.getClassType().getId(), session.getStartAt()))) {
+                violation = "booking.oneperday";
+            }
+            if (violation != null) {
+                errors.put(id, i18n.msg(violation));
+            } else {
+                candidates.add(id);
+            }
+        }
+
+        // Seats and bookings for all accepted sessions in one statement; full sessions yield no row
+        var created = new HashMap<Long, Long>();
+        if (!candidates.isEmpty()) {
+            var starts = candidates.stream().map(id -> sessions.get(id).getStartAt()).distinct().toList();
+            for (var b : bookingRepository.bookSeats(user.getId(), candidates, starts, now)) {
+                created.put(b.getSessionId(), b.getId());
+            }
+            seatAdmission.acquiredInBulk(List.copyOf(created.keySet()));
+            events.publishEvent(SessionsChangedEvent.of(created.keySet()));
+        }
+
+        return ids.stream().map(id -> {
+            var bookingId = created.get(id);
+            if (bookingId != null) {
+                return new SeriesBookingItem(id, true, bookingId, null);
+            }
+            return new SeriesBookingItem(id, false, null, errors.getOrDefault(id, i18n.msg("booking.full")));
+        }).toList();
+    }
+
+    private static String dayKey(Long classTypeId, Instant startAt) {
+        return classTypeId + ":" + startAt.atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    /**
+     * Session-level booking rules shared by direct booking and the waitlist.
+     * Throws IllegalStateException with the i18n message of the first rule that fails.
+     */
+    void assertSessionBookable(ClassSession session, Instant now) {
+        var violation = sessionRuleViolation(session.isCanceled(), session.getStartAt(), bookingSettings.get(), now);
+        if (violation != null) {
+            throw new IllegalStateException(i18n.msg(violation));
+        }
+    }
+
+    /**
+     * Evaluates the session-level rules in memory against the settings snapshot.
+     * @return the i18n key of the first rule that fails, or null if the session can be booked
+     */
+    private String sessionRuleViolation(boolean canceled, Instant startAt, BookingSettings settings, Instant now) {
+        // Reject bookings for canceled sessions
+        if (canceled) {
+            return "booking.session.canceled";
+        }
+
+        // Booking must happen strictly before session start
+        if (!now.isBefore(startAt)) {
+            return "booking.already.started";
+        }
+
+        // ---- Booking window enforcement (intersection of two rules) ----
+        // Rule A: global “open days in advance” (e.g., 15 days ahead)
+        if (startAt.isAfter(settings.horizon(now))) {
+            return "booking.horizon.exceeded";
+        }
+
+        // Rule B: monthly publish window (“open next month X days before the 1st”)
+        // Example: for a November session, booking is allowed only when now >= (Nov-01 - publishDaysBeforeMonth)
+        if (now.isBefore(settings.monthOpensAt(startAt))) {
+            return "booking.month.not.open";
+        }
+        return null;
+    }
+
     /**
      * Cancels a booking owned by the current user (idempotent).
      * @param bookingId the id of the booking to cancel
      */
     @Transactional // Ensures atomic update
     public void cancelMyBooking(Long bookingId) {
-        var user = getCurrentUser(); // Resolves current user
-
-        // Prevent rapid duplicate cancels (UI hammering)
-        rateLimiter.enforceMinInterval(
-                "cancel:" + user.getId(),
-                cancelMinIntervalMs,
-                "Too many cancel attempts; please wait a moment"
-        );
+        var user = currentUser.reference(); // Resolves current user
         
         var booking = bookingRepository.findByIdAndUserId(bookingId, user.getId()) // Loads booking owned by user
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found for the current user: " + bookingId)); // Throws if not found
@@ -282,9 +405,8 @@ public class BookingService {
             return; // Idempotent: do nothing
         }   
 
-        var cfg = bookingConfigService.get();
-        int cutoff = Math.max(0, cfg.getCancelCutoffHours()); // guard against negative values
-        Instant sessionStart = booking.getSession().getStartAt();
+        int cutoff = Math.max(0, bookingSettings.get().cancelCutoffHours()); // guard against negative values
+        Instant sessionStart = booking.getSessionStartAt(); // Copy on the row: no lazy load of the session by id
         Instant latestAllowed = sessionStart.minusSeconds(cutoff * 3600L);
 
         // If now is after or equal the latest allowed cancellation instant, block the cancellation.
@@ -293,36 +415,19 @@ public class BookingService {
         }
         
         var now = Instant.now(); // Current time
-        booking.setStatus(BookingStatus.CANCELED); // Updates status
-        booking.setCanceledAt(now); // Sets cancellation time
-        bookingRepository.save(booking); // Persists change
-    }
-
-    /**
-     * Resolves the current authenticated user from the security context.
-     * @return the User entity for the current principal
-     */
-    private User getCurrentUser() {
-        var email = SecurityContextHolder.getContext().getAuthentication().getName(); // Reads principal email
-        return userRepository.findByEmail(email) // Loads user by email
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email)); // Throws if missing
+        // Guarded update: of concurrent cancels of this booking only one gives the seat back
+        if (bookingRepository.cancelIfBooked(bookingId, user.getId(), sessionStart, now) != 1) {
+            return; // Canceled meanwhile: idempotent
+        }
+        seatAdmission.release(booking.getSession().getId(), sessionStart); // Gives the seat back
+        waitlistPromoter.promote(List.of(booking.getSession().getId())); // First waiting member takes it
+        events.publishEvent(SessionsChangedEvent.of(booking.getSession().getId()));
     }
 
-    private void assertUserHasActiveSubscription(Long userId) {
+    void assertUserHasActiveSubscription(Long userId) {
         var sub = subscriptionRepository.findByUserIdAndStatusIn(userId, Set.of(SubscriptionStatus.ACTIVE));
         if (sub.isEmpty()) {
             throw new IllegalStateException("User does not have an active subscription");
         }
     }
-    /** Blocks booking if the session's month isn't open yet based on publishDaysBeforeMonth. */
-    private void assertBookingWindowAllows(Instant sessionStart) {
-        var cfg = bookingConfigService.get();
-        var zSession = sessionStart.atZone(ZoneOffset.UTC);
-        var firstDayOfMonth = zSession.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-        var openAt = firstDayOfMonth.minusDays(cfg.getPublishDaysBeforeMonth());
-        if (ZonedDateTime.now(ZoneOffset.UTC).isBefore(openAt)) {
-            // i18n here too
-            throw new IllegalStateException(i18n.msg("booking.month.not.open"));
-        }
-    }
 }
@@ -0,0 +1,54 @@
+// src/main/java/com/gymsystem/booking/BusinessDays.java
+package com.gymsystem.booking;
+
+import java.time.DayOfWeek;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** Weekday-set notation shared by the booking config (business_days) and session templates. */
+public final class BusinessDays {
+
+    private BusinessDays() {
+    }
+
+    private static final Map<String, DayOfWeek> ALIAS = Map.ofEntries(
+            Map.entry("MON", DayOfWeek.MONDAY), Map.entry("MONDAY", DayOfWeek.MONDAY),
+            Map.entry("TUE", DayOfWeek.TUESDAY), Map.entry("TUESDAY", DayOfWeek.TUESDAY),
+            Map.entry("WED", DayOfWeek.WEDNESDAY), Map.entry("WEDNESDAY", DayOfWeek.WEDNESDAY),
+            Map.entry("THU", DayOfWeek.THURSDAY), Map.entry("THURSDAY", DayOfWeek.THURSDAY),
+            Map.entry("FRI", DayOfWeek.FRIDAY), Map.entry("FRIDAY", DayOfWeek.FRIDAY),
+            Map.entry("SAT", DayOfWeek.SATURDAY), Map.entry("SATURDAY", DayOfWeek.SATURDAY),
+            Map.entry("SUN", DayOfWeek.SUNDAY), Map.entry("SUNDAY", DayOfWeek.SUNDAY)
+    );
+
+    /** Parses strings like "MON-SAT" or "MON-FRI" or "MON,SAT" into a set of DayOfWeek (blank means MON-SAT). */
+    public static Set<DayOfWeek> parse(String text) {
+        var set = new HashSet<DayOfWeek>();
+        String t = (text == null || text.isBlank()) ? "MON-SAT" : text.trim().toUpperCase();
+
+        if (t.contains("-")) {
+            String[] parts = t.split("-");
+            DayOfWeek start = ALIAS.get(parts[0].trim());
+            DayOfWeek end   = ALIAS.get(parts[1].trim());
+            if (start == null || end == null) throw new IllegalArgumentException("Invalid days: " + text);
+            DayOfWeek d = start;
+            while (true) {
+                set.add(d);
+                if (d.equals(end)) break;
+                d = DayOfWeek.of(d.getValue() % 7 + 1);
+            }
+        } else if (t.contains(",")) {
+            for (String p : t.split(",")) {
+                DayOfWeek d = ALIAS.get(p.trim());
+                if (d == null) throw new IllegalArgumentException("Invalid days: " + text);
+                set.add(d);
+            }
+        } else {
+            DayOfWeek d = ALIAS.get(t);
+            if (d == null) throw new IllegalArgumentException("Invalid days: " + text);
+            set.add(d);
+        }
+        return set;
+    }
+}
@@ -1,15 +1,19 @@
 // src/main/java/com/gymsystem/booking/CalendarController.java
 package com.gymsystem.booking;
 
+import com.gymsystem.booking.calendar.CalendarReadModel;
+import com.gymsystem.booking.calendar.CalendarVersions;
+import com.gymsystem.booking.calendar.GzipBodyCache;
 import com.gymsystem.booking.dto.CalendarItem;
-import com.gymsystem.booking.config.BookingConfigService;
+import com.gymsystem.booking.config.BookingSettingsCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.*;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,53 +23,70 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CalendarController {
 
-    private final ClassSessionRepository sessionRepo;
-    private final BookingRepository bookingRepo;
-    private final BookingPolicyRepository policyRepo;
-    private final BookingConfigService bookingConfigService;
+    private final CalendarReadModel readModel;
+    private final BookingSettingsCache bookingSettings;
+    private final CalendarVersions calendarVersions;
+    private final GzipBodyCache gzipBodyCache;
 
+    @Value("${booking.calendar.max-range-days:93}")
+    private long maxRangeDays;
+
+    /**
+     * Public calendar. Answers 304 when the client's ETag still matches the content of the
+     * requested months, and serves cached gzip bodies to clients that accept them.
+     */
     @GetMapping
-    public ResponseEntity<List<CalendarItem>> calendar(
+    public ResponseEntity<?> calendar(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
             @RequestParam(name = "type", required = false) String typeCode, // optional filter by class type
-            @RequestParam(name = "onlyOpen", defaultValue = "false") boolean onlyOpen // <— NEW: returns only sessions open for booking
+            @RequestParam(name = "onlyOpen", defaultValue = "false") boolean onlyOpen, // <— NEW: returns only sessions open for booking
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         if (from == null || to == null || !from.isBefore(to)) {
             throw new IllegalArgumentException("Invalid date range");
         }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxRangeDays)) > 0) {
+            throw new IllegalArgumentException("Date range longer than " + maxRangeDays + " days");
+        }
+
+        // Conditional GET: the tag is a digest of the month snapshots, the same on every node
+        var etag = calendarVersions.calendarEtag(from, to);
+        boolean gzip = GzipBodyCache.acceptsGzip(acceptEncoding);
+        if (GzipBodyCache.notModified(ifNoneMatch, etag)) {
+            return GzipBodyCache.notModifiedResponse(etag, gzip);
+        }
+        if (gzip) {
+            var key = "calendar|" + from + "|" + to + "|" + typeCode + "|" + onlyOpen + "|" + etag;
+            return gzipBodyCache.gzipResponse(key, etag, () -> buildItems(from, to, typeCode, onlyOpen));
+        }
+        return GzipBodyCache.identityResponse(etag, buildItems(from, to, typeCode, onlyOpen));
+    }
 
-        // Load sessions ordered by startAt (with classType fetched in the query)
-        var sessions = sessionRepo.findCalendar(from, to, typeCode);
+    private List<CalendarItem> buildItems(Instant from, Instant to, String typeCode, boolean onlyOpen) {
+        // Prebuilt month snapshots, already ordered by startAt; no DB access on a warm model
+        var sessions = readModel.slice(from, to, typeCode);
         var now = Instant.now();
-        var cfg = bookingConfigService.get();
-        var policy = policyRepo.findTopByOrderByIdAsc().orElse(null);
+        var settings = bookingSettings.get(); // In-memory snapshot of config + policy
+        var horizon = settings.horizon(now); // Global policy horizon: now + openDaysInAdvance
 
         List<CalendarItem> items = new ArrayList<>(sessions.size());
         for (var s : sessions) {
-            long booked = bookingRepo.countActiveBySessionId(s.getId());
-            long spotsLeft = Math.max(0, s.getCapacity() - booked);
+            long booked = s.booked();
+            long spotsLeft = Math.max(0, s.capacity() - booked);
 
             // Compute monthly publish window open time for this session.
             // Example: if publish_days_before_month=15 and session is in November,
             // booking opens at (Nov-01 00:00:00Z - 15 days).
-            var z = s.getStartAt().atZone(ZoneOffset.UTC);
-            var firstDay = z.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-            var openAt = firstDay.minusDays(cfg.getPublishDaysBeforeMonth());
-
-            // Compute global policy horizon: now + openDaysInAdvance
-            boolean withinHorizon = true;
-            if (policy != null) {
-                Instant horizon = now.plus(policy.getOpenDaysInAdvance(), ChronoUnit.DAYS);
-                withinHorizon = !s.getStartAt().isAfter(horizon);
-            }
+            var openAt = settings.monthOpensAt(s.startAt());
 
             // Is booking allowed *right now* for this session?
             boolean openForBooking =
-                    !s.isCanceled()
-                    && now.isBefore(s.getStartAt())
-                    && !ZonedDateTime.now(ZoneOffset.UTC).isBefore(openAt)
-                    && withinHorizon;
+                    !s.canceled()
+                    && now.isBefore(s.startAt())
+                    && !now.isBefore(openAt)
+                    && !s.startAt().isAfter(horizon);
 
             // If onlyOpen requested, skip sessions that are closed or full
             if (onlyOpen && (!openForBooking || spotsLeft <= 0)) {
@@ -73,18 +94,19 @@ public class CalendarController {
             }
 
             items.add(new CalendarItem(
-                    s.getId(),
-                    s.getClassType().getCode(),
-                    s.getClassType().getName(),
-                    s.getStartAt(),
-                    s.getEndAt(),
-                    s.getCapacity(),
+                    s.sessionId(),
+                    s.classTypeCode(),
+                    s.classTypeName(),
+                    s.startAt(),
+                    s.endAt(),
+                    s.capacity(),
                     booked,
                     spotsLeft,
-                    s.isCanceled(),
-                    openForBooking
+                    s.canceled(),
+                    openForBooking,
+                    s.templateId()
             ));
         }
-        return ResponseEntity.ok(items);
+        return items;
     }
 }
@@ -39,9 +39,19 @@ public class ClassSession {
     @Column(nullable = false)
     private boolean canceled; // Whether the session has been canceled by admin
 
+    /**
+     * Number of active (BOOKED) bookings. Maintained only by the conditional UPDATEs in
+     * {@link ClassSessionRepository} and {@link BookingRepository}, never written by the entity itself.
+     */
+    @Column(name = "booked_count", nullable = false, insertable = false, updatable = false)
+    private int bookedCount;
+
     @Column
     private String notes; // Optional notes or extra info for the session
 
+    @Column(name = "template_id")
+    private Long templateId; // Session template this slot was materialized from (null if created directly)
+
     @Column(name = "created_by_admin_id", nullable = false)
     private Long createdByAdminId; // Audit: which admin created this session
 
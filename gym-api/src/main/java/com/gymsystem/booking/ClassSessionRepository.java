@@ -2,10 +2,13 @@
 package com.gymsystem.booking;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for accessing class sessions.
@@ -14,18 +17,43 @@ public interface ClassSessionRepository extends JpaRepository<ClassSession, Long
 
     /**
      * Finds sessions that are not canceled within the given time window (inclusive).
-     * Results are ordered by start time ascending.
+     * Results are ordered by start time ascending. The upper bound on startAt is implied by the
+     * one on endAt but only a startAt bound lets Postgres skip later months.
      */
     @Query(""" 
         SELECT s
         FROM ClassSession s
         WHERE s.canceled = false
           AND s.startAt >= :from
+          AND s.startAt <  :to
           AND s.endAt   <= :to
         ORDER BY s.startAt ASC
     """)
     List<ClassSession> findActiveSessionsBetween(@Param("from") Instant from, @Param("to") Instant to);
 
+    /**
+     * Same window as {@link #findActiveSessionsBetween}, but returns the class type and the
+     * active booking count of every session in one statement.
+     */
+    @Query("""
+        SELECT s.id AS sessionId,
+               t.code AS classTypeCode,
+               t.name AS classTypeName,
+               s.startAt AS startAt,
+               s.endAt AS endAt,
+               s.capacity AS capacity,
+               s.notes AS notes,
+               s.bookedCount AS booked
+        FROM ClassSession s
+        JOIN s.classType t
+        WHERE s.canceled = false
+          AND s.startAt >= :from
+          AND s.startAt <  :to
+          AND s.endAt   <= :to
+        ORDER BY s.startAt ASC
+    """)
+    List<SessionAvailabilityView> findAvailabilityBetween(@Param("from") Instant from, @Param("to") Instant to);
+
     @Query("""
    select s from ClassSession s
      join fetch s.classType t
@@ -35,4 +63,211 @@ public interface ClassSessionRepository extends JpaRepository<ClassSession, Long
    """)
     List<ClassSession> findCalendar(@Param("from") Instant from, @Param("to") Instant to, @Param("typeCode") String typeCode);
 
+    /** Calendar rows (canceled included) of every session starting in [from, to). */
+    @Query("""
+        SELECT s.id AS sessionId,
+               t.code AS classTypeCode,
+               t.name AS classTypeName,
+               s.startAt AS startAt,
+               s.endAt AS endAt,
+               s.capacity AS capacity,
+               s.bookedCount AS booked,
+               s.canceled AS canceled
+        FROM ClassSession s
+        JOIN s.classType t
+        WHERE s.startAt >= :from
+          AND s.startAt < :to
+    """)
+    List<CalendarRow> findCalendarRowsBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Same rows as {@link #findCalendarRowsBetween} for the given sessions; used to patch the calendar
+     * read model. Each start is read from class_session_starts first and the session is looked up
+     * by (id, start_at), so only its month is probed instead of every partition (see V26).
+     */
+    @Query(value = """
+        SELECT s.id AS "sessionId",
+               t.code AS "classTypeCode",
+               t.name AS "classTypeName",
+               s.start_at AS "startAt",
+               s.end_at AS "endAt",
+               s.capacity AS "capacity",
+               s.booked_count AS "booked",
+               s.canceled AS "canceled"
+          FROM class_session_starts k
+         CROSS JOIN LATERAL (SELECT cs.id, cs.class_type_id, cs.start_at, cs.end_at,
+                                    cs.capacity, cs.booked_count, cs.canceled
+                               FROM class_sessions cs
+                              WHERE cs.id = k.id AND cs.start_at = k.start_at
+                              LIMIT 1) s
+          JOIN class_types t ON t.id = s.class_type_id
+         WHERE k.id IN (:ids)
+    """, nativeQuery = true)
+    List<CalendarRow> findCalendarRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Loads the given sessions with their class type in one statement. */
+    @Query("""
+        SELECT s
+        FROM ClassSession s
+        JOIN FETCH s.classType
+        WHERE s.id IN :ids
+    """)
+    List<ClassSession> findAllWithTypeByIdIn(@Param("ids") List<Long> ids);
+
+    /** (class type, start) of every session, canceled included, starting in [from, to]. */
+    @Query("""
+        SELECT s.classType.id AS classTypeId,
+               s.startAt AS startAt
+        FROM ClassSession s
+        WHERE s.startAt >= :from
+          AND s.startAt <= :to
+    """)
+    List<SessionKey> findKeysBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT s.id FROM ClassSession s WHERE s.classType.id = :classTypeId AND s.startAt = :startAt")
+    Optional<Long> findIdByClassTypeIdAndStartAt(@Param("classTypeId") Long classTypeId, @Param("startAt") Instant startAt);
+
+    /**
+     * Materializes a template slot. Does nothing if the slot already has a row; a concurrent
+     * insert of the same slot waits on the unique index and then does nothing as well.
+     * Returns 1 when the row was inserted.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO class_sessions (class_type_id, start_at, end_at, capacity, canceled, created_by_admin_id, created_at, template_id)
+        VALUES (:classTypeId, :startAt, :endAt, :capacity, FALSE, :adminId, :now, :templateId)
+        ON CONFLICT (class_type_id, start_at) DO NOTHING
+    """, nativeQuery = true)
+    int insertFromTemplate(@Param("classTypeId") Long classTypeId,
+                           @Param("startAt") Instant startAt,
+                           @Param("endAt") Instant endAt,
+                           @Param("capacity") int capacity,
+                           @Param("adminId") Long adminId,
+                           @Param("now") Instant now,
+                           @Param("templateId") Long templateId);
+
+    /**
+     * Seat admission: takes one seat only if the session is open and not full.
+     * The start is the partition key: with it the update touches one month (see V20).
+     * Returns 1 when the seat was taken, 0 when the session is full or canceled.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE class_sessions
+           SET booked_count = booked_count + 1
+         WHERE id = :sessionId
+           AND start_at = :startAt
+           AND booked_count < capacity
+           AND NOT canceled
+    """, nativeQuery = true)
+    int tryReserveSeat(@Param("sessionId") Long sessionId, @Param("startAt") Instant startAt);
+
+    /** Gives one seat back after a booking was canceled. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE class_sessions
+           SET booked_count = booked_count - 1
+         WHERE id = :sessionId
+           AND start_at = :startAt
+           AND booked_count > 0
+    """, nativeQuery = true)
+    int releaseSeat(@Param("sessionId") Long sessionId, @Param("startAt") Instant startAt);
+
+    /**
+     * Soft-cancels a session only while nobody holds a seat, so a concurrent booking
+     * cannot slip in between the check and the update. Returns 0 if seats are taken.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE class_sessions
+           SET canceled = TRUE
+         WHERE id = :sessionId
+           AND start_at = :startAt
+           AND booked_count = 0
+    """, nativeQuery = true)
+    int cancelIfEmpty(@Param("sessionId") Long sessionId, @Param("startAt") Instant startAt);
+
+    /** Seats left of every bookable session starting in (from, to]; used to preload the seat ledger. */
+    @Query("""
+        SELECT s.id AS sessionId,
+               s.capacity - s.bookedCount AS seatsLeft
+        FROM ClassSession s
+        WHERE s.canceled = false
+          AND s.startAt > :from
+          AND s.startAt <= :to
+    """)
+    List<SeatsLeft> findSeatsLeftBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Sessions starting at/after "since" whose booked_count disagrees with the BOOKED rows.
+     * Used by the reconciliation job to detect drift.
+     */
+    @Query(value = """
+        SELECT s.id AS "sessionId",
+               CAST(EXTRACT(EPOCH FROM s.start_at) * 1000000 AS BIGINT) AS "startAtMicros",
+               s.booked_count AS "bookedCount",
+               COUNT(b.id) AS "actualCount"
+          FROM class_sessions s
+          LEFT JOIN bookings b ON b.session_id = s.id AND b.session_start_at = s.start_at AND b.status = 'BOOKED'
+         WHERE s.start_at >= :since
+         GROUP BY s.id, s.start_at, s.booked_count
+        HAVING s.booked_count <> COUNT(b.id)
+    """, nativeQuery = true)
+    List<BookedCountDrift> findBookedCountDrift(@Param("since") Instant since);
+
+    /** Locks the session row so no booking can change its seat count until commit. */
+    @Query(value = """
+        SELECT booked_count FROM class_sessions
+         WHERE id = :sessionId AND start_at = :startAt
+           FOR UPDATE
+    """, nativeQuery = true)
+    Integer lockBookedCount(@Param("sessionId") Long sessionId, @Param("startAt") Instant startAt);
+
+    /** Overwrites booked_count; only safe while the row is locked by {@link #lockBookedCount}. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE class_sessions SET booked_count = :bookedCount
+         WHERE id = :sessionId AND start_at = :startAt
+    """, nativeQuery = true)
+    int overwriteBookedCount(@Param("sessionId") Long sessionId,
+                             @Param("startAt") Instant startAt,
+                             @Param("bookedCount") int bookedCount);
+
+    /** Row shape returned by {@link #findSeatsLeftBetween}. */
+    interface SeatsLeft {
+        Long getSessionId();
+        int getSeatsLeft();
+    }
+
+    /** Row shape returned by {@link #findCalendarRowsBetween} and {@link #findCalendarRowsByIdIn}. */
+    interface CalendarRow {
+        Long getSessionId();
+        String getClassTypeCode();
+        String getClassTypeName();
+        Instant getStartAt();
+        Instant getEndAt();
+        int getCapacity();
+        int getBooked();
+        boolean isCanceled();
+    }
+
+    /** Row shape returned by {@link #findKeysBetween}. */
+    interface SessionKey {
+        Long getClassTypeId();
+        Instant getStartAt();
+    }
+
+    /** Row shape returned by {@link #findBookedCountDrift}. */
+    interface BookedCountDrift {
+        Long getSessionId();
+        long getStartAtMicros();
+        int getBookedCount();
+        long getActualCount();
+
+        /** Exact session start (partition key), for the statements that fix the row. */
+        default Instant getStartAt() {
+            long micros = getStartAtMicros();
+            return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+        }
+    }
 }
@@ -1,8 +1,12 @@
 // src/main/java/com/gymsystem/booking/ClassTypePublicController.java
 package com.gymsystem.booking;
 
+import com.gymsystem.booking.calendar.CalendarVersions;
+import com.gymsystem.booking.calendar.GzipBodyCache;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,14 +19,31 @@ import java.util.List;
 public class ClassTypePublicController {
 
     private final ClassTypeRepository repo;
+    private final CalendarVersions calendarVersions;
+    private final GzipBodyCache gzipBodyCache;
 
     @Operation(summary = "Public list of active class types")
     @GetMapping
-    public ResponseEntity<List<ClassType>> listActive() {
+    public ResponseEntity<?> listActive(
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        // Hash of the list itself: the same on every node, changes when an admin edits a class type
+        var types = activeTypes();
+        var etag = calendarVersions.classTypesEtag(types);
+        boolean gzip = GzipBodyCache.acceptsGzip(acceptEncoding);
+        if (GzipBodyCache.notModified(ifNoneMatch, etag)) {
+            return GzipBodyCache.notModifiedResponse(etag, gzip);
+        }
+        if (gzip) {
+            return gzipBodyCache.gzipResponse("types|" + etag, etag, () -> types);
+        }
+        return GzipBodyCache.identityResponse(etag, types);
+    }
+
+    private List<ClassType> activeTypes() {
         // NOTE: returning entity is acceptable here because it has only safe fields.
         // If you later add sensitive fields, create a DTO.
-        return ResponseEntity.ok(
-                repo.findAll().stream().filter(ClassType::isActive).toList()
-        );
+        return repo.findAll(Sort.by("id")).stream().filter(ClassType::isActive).toList();
     }
 }
@@ -0,0 +1,25 @@
+// src/main/java/com/gymsystem/booking/DatabaseSeatAdmission.java
+package com.gymsystem.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/** Default strategy: every admission is a conditional UPDATE on class_sessions.booked_count. */
+@Component
+@RequiredArgsConstructor
+public class DatabaseSeatAdmission implements SeatAdmissionStrategy {
+
+    private final ClassSessionRepository classSessionRepository;
+
+    @Override
+    public boolean tryAcquire(Long sessionId, Instant sessionStartAt) {
+        return classSessionRepository.tryReserveSeat(sessionId, sessionStartAt) > 0;
+    }
+
+    @Override
+    public void release(Long sessionId, Instant sessionStartAt) {
+        classSessionRepository.releaseSeat(sessionId, sessionStartAt);
+    }
+}
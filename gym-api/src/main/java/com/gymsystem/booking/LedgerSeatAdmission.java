@@ -0,0 +1,170 @@
+// src/main/java/com/gymsystem/booking/LedgerSeatAdmission.java
+package com.gymsystem.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory seat ledger for month-opening flash crowds (booking.seat-admission.mode=ledger).
+ * Keeps seats-left per session of the open window and rejects full sessions without touching
+ * the database. Admitted requests still go through {@link DatabaseSeatAdmission}, which stays
+ * authoritative: whenever the DB disagrees the ledger is corrected, and a periodic refresh
+ * re-reads booked_count so other nodes' bookings are picked up.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "booking.seat-admission.mode", havingValue = "ledger")
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerSeatAdmission implements SeatAdmissionStrategy {
+
+    private final DatabaseSeatAdmission database;
+    private final ClassSessionRepository classSessionRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, AtomicInteger> seatsLeft = new ConcurrentHashMap<>();
+
+    @Value("${booking.seat-admission.ledger.window-days:45}")
+    private long windowDays;
+
+    private Counter rejectionsAvoided;
+
+    @PostConstruct
+    void init() {
+        rejectionsAvoided = Counter.builder("booking.seat.ledger.rejections")
+                .description("Bookings rejected as full by the in-memory ledger without a DB round trip")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("booking.seat.ledger.sessions", List.of(), seatsLeft);
+    }
+
+    /** Reloads seats-left for every bookable session in [now, now + windowDays]. */
+    @Scheduled(fixedDelayString = "${booking.seat-admission.ledger.refresh-ms:30000}")
+    public void refresh() {
+        var now = Instant.now();
+        var rows = classSessionRepository.findSeatsLeftBetween(now, now.plus(windowDays, ChronoUnit.DAYS));
+        var seen = new HashSet<Long>(rows.size() * 2);
+        for (var r : rows) {
+            seen.add(r.getSessionId());
+            seatsLeft.computeIfAbsent(r.getSessionId(), id -> new AtomicInteger())
+                    .set(Math.max(0, r.getSeatsLeft()));
+        }
+        seatsLeft.keySet().retainAll(seen); // drop started/canceled sessions
+        log.debug("Seat ledger refreshed: sessions={}", seen.size());
+    }
+
+    @Override
+    public boolean maySeat(Long sessionId) {
+        var left = seatsLeft.get(sessionId);
+        if (left != null && left.get() <= 0) {
+            rejectionsAvoided.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryAcquire(Long sessionId, Instant sessionStartAt) {
+        var left = seatsLeft.get(sessionId);
+        if (left == null) {
+            return database.tryAcquire(sessionId, sessionStartAt); // not preloaded: DB only
+        }
+
+        // Fast gate: claim a ledger seat first, never going below zero
+        int v;
+        do {
+            v = left.get();
+            if (v <= 0) {
+                rejectionsAvoided.increment();
+                return false;
+            }
+        } while (!left.compareAndSet(v, v - 1));
+
+        if (!database.tryAcquire(sessionId, sessionStartAt)) {
+            left.set(0); // DB is authoritative: the session is full (or canceled)
+            return false;
+        }
+        afterCompletion(left, false); // give the ledger seat back if the booking rolls back
+        return true;
+    }
+
+    @Override
+    public void release(Long sessionId, Instant sessionStartAt) {
+        database.release(sessionId, sessionStartAt);
+        var left = seatsLeft.get(sessionId);
+        if (left != null) {
+            afterCompletion(left, true);
+        }
+    }
+
+    @Override
+    public void releasedInBulk(List<Long> sessionIds) {
+        for (Long id : sessionIds) {
+            var left = seatsLeft.get(id);
+            if (left != null) {
+                afterCompletion(left, true);
+            }
+        }
+    }
+
+    @Override
+    public void acquiredInBulk(List<Long> sessionIds) {
+        for (Long id : sessionIds) {
+            var left = seatsLeft.get(id);
+            if (left != null) {
+                onCommit(() -> left.updateAndGet(v -> Math.max(0, v - 1)));
+            }
+        }
+    }
+
+    /**
+     * Adds one seat back to the ledger once the surrounding transaction ends:
+     * on commit when "onCommit" is true (a release), otherwise on rollback (an undone acquire).
+     */
+    private void afterCompletion(AtomicInteger left, boolean onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit) left.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                if (committed == onCommit) {
+                    left.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    /** Runs the ledger update once the surrounding transaction commits (immediately without one). */
+    private void onCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -1,111 +1,193 @@
 // src/main/java/com/gymsystem/booking/MonthlyScheduleGenerator.java
 package com.gymsystem.booking;
 
-import com.gymsystem.booking.config.BookingConfigService;
+import com.gymsystem.booking.calendar.SessionsChangedEvent;
+import com.gymsystem.booking.config.BookingSettings;
+import com.gymsystem.booking.config.BookingSettingsCache;
 import com.gymsystem.booking.dto.GenerateMonthRequest;
-import jakarta.transaction.Transactional;
+import com.gymsystem.booking.dto.GenerateScheduleRequest;
+import com.gymsystem.booking.dto.GenerateScheduleResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.*;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-
-/** Generates class sessions for a given month based on business hours and slot size. */
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates class sessions from business hours and slot size. Slots are computed in memory and
+ * written with one multi-row INSERT per month (ON CONFLICT DO NOTHING), months in parallel,
+ * each in its own transaction, so a rerun only fills the gaps.
+ * <p>
+ * Months run on one pool shared by all requests. Each worker holds a connection for its month,
+ * so the pool is capped at half the Hikari pool: concurrent generations queue instead of
+ * starving member requests of connections.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class MonthlyScheduleGenerator {
 
-    private final BookingConfigService configService;
+    /** All (type, slot) pairs of a month in one statement; slot bounds are passed as epoch seconds. */
+    private static final String INSERT_SLOTS = """
+        INSERT INTO class_sessions (class_type_id, start_at, end_at, capacity, canceled, created_by_admin_id, created_at)
+        SELECT t.type_id, to_timestamp(t.start_s), to_timestamp(t.end_s), ?, FALSE, ?, ?
+          FROM unnest(?::bigint[], ?::bigint[], ?::bigint[]) AS t(type_id, start_s, end_s)
+        ON CONFLICT (class_type_id, start_at) DO NOTHING
+        RETURNING id
+    """;
+
+    private final BookingSettingsCache bookingSettings;
     private final ClassTypeRepository classTypeRepository;
-    private final ClassSessionRepository classSessionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final SessionPartitions sessionPartitions;
+
+    @Value("${booking.generator.parallelism:4}")
+    private int parallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void init() {
+        int threads = Math.max(1, Math.min(parallelism, connectionPoolSize / 2));
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            var t = new Thread(r, "schedule-generator");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
 
     /** Creates sessions for the specified month; skips days outside business days. */
-    @Transactional
     public int generate(GenerateMonthRequest req, Long adminId) {
-        var cfg = configService.get();
-        var classType = classTypeRepository.findByCodeAndActiveTrue(req.getClassTypeCode())
-                .orElseThrow(() -> new IllegalArgumentException("Unknown or inactive class type: " + req.getClassTypeCode()));
+        return generate(List.of(req.getClassTypeCode()), List.of(YearMonth.of(req.getYear(), req.getMonth())),
+                req.getSlotMinutes(), req.getCapacity(), adminId).getCreated();
+    }
+
+    /** Creates sessions for every class type and month of the request. */
+    public GenerateScheduleResult generate(GenerateScheduleRequest req, Long adminId) {
+        return generate(req.getClassTypeCodes(), req.getMonths(), req.getSlotMinutes(), req.getCapacity(), adminId);
+    }
 
-        // Parse business days string (e.g., "MON-SAT") into a set for quick checks
-        Set<DayOfWeek> businessDays = parseBusinessDays(cfg.getBusinessDays());
+    private GenerateScheduleResult generate(List<String> codes, List<YearMonth> months,
+                                            int slotMinutes, int capacity, Long adminId) {
+        var typeIds = codes.stream().distinct().map(code -> classTypeRepository.findByCodeAndActiveTrue(code)
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown or inactive class type: " + code))
+                        .getId())
+                .toList();
+        var distinctMonths = months.stream().distinct().sorted().toList();
+        var settings = bookingSettings.get();
+        Set<DayOfWeek> businessDays = BusinessDays.parse(settings.businessDays());
+        var now = Instant.now();
+        distinctMonths.forEach(sessionPartitions::ensure); // partitions first, outside the month transactions
+
+        List<GenerateScheduleResult.MonthCount> perMonth = new ArrayList<>(distinctMonths.size());
+        try {
+            List<Future<GenerateScheduleResult.MonthCount>> futures = distinctMonths.stream()
+                    .map(m -> workers.submit(() -> generateMonth(m, typeIds, businessDays, settings, slotMinutes, capacity, adminId, now)))
+                    .toList();
+            for (var f : futures) {
+                perMonth.add(f.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Schedule generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Schedule generation interrupted", e);
+        }
 
-        // Build month boundaries in UTC
-        LocalDate first = LocalDate.of(req.getYear(), req.getMonth(), 1);
-        LocalDate last = first.withDayOfMonth(first.lengthOfMonth());
+        int created = perMonth.stream().mapToInt(GenerateScheduleResult.MonthCount::getCreated).sum();
+        int skipped = perMonth.stream().mapToInt(GenerateScheduleResult.MonthCount::getSkipped).sum();
+        return new GenerateScheduleResult(created, skipped, perMonth);
+    }
 
-        int created = 0;
-        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+    /** Inserts every slot of one month for all class types in a single statement and transaction. */
+    private GenerateScheduleResult.MonthCount generateMonth(YearMonth month, List<Long> typeIds, Set<DayOfWeek> businessDays,
+                                                            BookingSettings settings, int slotMinutes, int capacity,
+                                                            Long adminId, Instant now) {
+        var slots = slots(month, businessDays, settings.businessStart(), settings.businessEnd(), slotMinutes);
+        int rows = slots.size() * typeIds.size();
+        if (rows == 0) {
+            return new GenerateScheduleResult.MonthCount(month, 0, 0);
+        }
+
+        Long[] typeCol = new Long[rows];
+        Long[] startCol = new Long[rows];
+        Long[] endCol = new Long[rows];
+        int i = 0;
+        for (Long typeId : typeIds) {
+            for (Instant[] slot : slots) {
+                typeCol[i] = typeId;
+                startCol[i] = slot[0].getEpochSecond();
+                endCol[i] = slot[1].getEpochSecond();
+                i++;
+            }
+        }
+
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> inserted = jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(INSERT_SLOTS);
+                ps.setInt(1, capacity);
+                ps.setLong(2, adminId);
+                ps.setObject(3, now.atOffset(ZoneOffset.UTC));
+                ps.setArray(4, con.createArrayOf("bigint", typeCol));
+                ps.setArray(5, con.createArrayOf("bigint", startCol));
+                ps.setArray(6, con.createArrayOf("bigint", endCol));
+                return ps;
+            }, (rs, n) -> rs.getLong(1));
+            if (!inserted.isEmpty()) {
+                events.publishEvent(SessionsChangedEvent.of(inserted));
+            }
+            return inserted;
+        });
+
+        int created = ids == null ? 0 : ids.size();
+        log.debug("Generated {} sessions for {} ({} slots already existed)", created, month, rows - created);
+        return new GenerateScheduleResult.MonthCount(month, created, rows - created);
+    }
+
+    /** [start, end] of every slot of the month in UTC; days outside business days are skipped. */
+    private static List<Instant[]> slots(YearMonth month, Set<DayOfWeek> businessDays,
+                                         LocalTime businessStart, LocalTime businessEnd, int slotMinutes) {
+        List<Instant[]> slots = new ArrayList<>();
+        for (LocalDate d = month.atDay(1); !d.isAfter(month.atEndOfMonth()); d = d.plusDays(1)) {
             if (!businessDays.contains(d.getDayOfWeek())) continue;
 
             // Compute start/end slots for the day in UTC
-            ZonedDateTime dayStart = ZonedDateTime.of(d, cfg.getBusinessStart(), ZoneOffset.UTC);
-            ZonedDateTime dayEnd   = ZonedDateTime.of(d, cfg.getBusinessEnd(), ZoneOffset.UTC);
+            ZonedDateTime dayStart = ZonedDateTime.of(d, businessStart, ZoneOffset.UTC);
+            ZonedDateTime dayEnd   = ZonedDateTime.of(d, businessEnd, ZoneOffset.UTC);
 
-            // Partition the day into slotMinutes and create sessions
+            // Partition the day into slotMinutes
             ZonedDateTime slotStart = dayStart;
             while (slotStart.isBefore(dayEnd)) {
-                ZonedDateTime slotEnd = slotStart.plusMinutes(req.getSlotMinutes());
+                ZonedDateTime slotEnd = slotStart.plusMinutes(slotMinutes);
                 if (slotEnd.isAfter(dayEnd)) break;
-
-                var session = ClassSession.builder()
-                        .classType(classType)
-                        .startAt(slotStart.toInstant())
-                        .endAt(slotEnd.toInstant())
-                        .capacity(req.getCapacity())
-                        .canceled(false)
-                        .notes(null)
-                        .createdByAdminId(adminId)
-                        .createdAt(Instant.now())
-                        .build();
-
-                classSessionRepository.save(session);
-                created++;
+                slots.add(new Instant[]{slotStart.toInstant(), slotEnd.toInstant()});
                 slotStart = slotEnd;
             }
         }
-        return created;
+        return slots;
     }
-
-    /** Parses strings like "MON-SAT" or "MON-FRI" or "MON,SAT" into a set of DayOfWeek. */
-    private static final Map<String, DayOfWeek> ALIAS = Map.ofEntries(
-            Map.entry("MON", DayOfWeek.MONDAY), Map.entry("MONDAY", DayOfWeek.MONDAY),
-            Map.entry("TUE", DayOfWeek.TUESDAY), Map.entry("TUESDAY", DayOfWeek.TUESDAY),
-            Map.entry("WED", DayOfWeek.WEDNESDAY), Map.entry("WEDNESDAY", DayOfWeek.WEDNESDAY),
-            Map.entry("THU", DayOfWeek.THURSDAY), Map.entry("THURSDAY", DayOfWeek.THURSDAY),
-            Map.entry("FRI", DayOfWeek.FRIDAY), Map.entry("FRIDAY", DayOfWeek.FRIDAY),
-            Map.entry("SAT", DayOfWeek.SATURDAY), Map.entry("SATURDAY", DayOfWeek.SATURDAY),
-            Map.entry("SUN", DayOfWeek.SUNDAY), Map.entry("SUNDAY", DayOfWeek.SUNDAY)
-    );
-
-    private Set<DayOfWeek> parseBusinessDays(String text) {
-        var set = new HashSet<DayOfWeek>();
-        String t = (text == null || text.isBlank()) ? "MON-SAT" : text.trim().toUpperCase();
-
-        if (t.contains("-")) {
-            String[] parts = t.split("-");
-            DayOfWeek start = ALIAS.get(parts[0].trim());
-            DayOfWeek end   = ALIAS.get(parts[1].trim());
-            if (start == null || end == null) throw new IllegalArgumentException("Invalid business_days: " + text);
-            DayOfWeek d = start;
-            while (true) {
-                set.add(d);
-                if (d.equals(end)) break;
-                d = DayOfWeek.of(d.getValue() % 7 + 1);
-            }
-        } else if (t.contains(",")) {
-            for (String p : t.split(",")) {
-                DayOfWeek d = ALIAS.get(p.trim());
-                if (d == null) throw new IllegalArgumentException("Invalid business_days: " + text);
-                set.add(d);
-            }
-        } else {
-            DayOfWeek d = ALIAS.get(t);
-            if (d == null) throw new IllegalArgumentException("Invalid business_days: " + text);
-            set.add(d);
-        }
-        return set;
-    }
-
 }
@@ -2,15 +2,15 @@
 package com.gymsystem.booking;
 
 import com.gymsystem.booking.dto.MyBookingItem;
-import com.gymsystem.booking.config.BookingConfigService;
-import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.booking.config.BookingSettingsCache;
+import com.gymsystem.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
 
 /**
@@ -22,49 +22,118 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MyBookingsController {
 
+    /** Response header carrying the cursor of the next page; absent on the last page. */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 200;
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T23:59:59Z");
+
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
-    private final BookingConfigService bookingConfigService;
+    private final CurrentUser currentUser;
+    private final BookingSettingsCache bookingSettings;
 
     /**
      * Lists bookings for the authenticated user.
+     * Without cursor and limit the whole list is returned, newest first, as before paging existed.
+     * With either of them it is served one keyset page at a time: "upcoming" is ordered soonest
+     * first; "past" and "all" newest first.
      * @param scope upcoming | past | all (defaults to "upcoming")
+     * @param cursor value of the previous page's X-Next-Cursor header (omit for the first page)
+     * @param limit page size (1..200, defaults to 50 once paging)
      */
     @GetMapping
-    public ResponseEntity<List<MyBookingItem>> list(@RequestParam(name = "scope", defaultValue = "upcoming") String scope) {
-        User me = currentUser();
-        var rows = bookingRepository.findAllByUserIdWithSession(me.getId());
+    public ResponseEntity<List<MyBookingItem>> list(@RequestParam(name = "scope", defaultValue = "upcoming") String scope,
+                                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                                    @RequestParam(name = "limit", required = false) Integer limit) {
+        var userId = currentUser.id();
         var now = Instant.now();
-        int cutoff = Math.max(0, bookingConfigService.get().getCancelCutoffHours());
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(toItems(fullList(userId, scope, now), now));
+        }
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Invalid limit. Use 1.." + MAX_LIMIT);
+        }
+
+        // The scope is the starting position of the keyset scan, so it is applied in SQL:
+        // upcoming = after (now, max id) ascending, past = before (now, max id) descending.
+        int page = size + 1; // one extra row tells whether a next page exists
+        var c = cursor != null ? Cursor.decode(cursor) : null;
+        List<BookingRepository.MyBookingRow> rows = switch (scope.toLowerCase()) {
+            case "upcoming" -> c != null
+                    ? bookingRepository.findPageForUserAfter(userId, c.startAt(), c.id(), page)
+                    : bookingRepository.findPageForUserAfter(userId, now, Long.MAX_VALUE, page);
+            case "past" -> c != null
+                    ? bookingRepository.findPageForUserBefore(userId, c.startAt(), c.id(), page)
+                    : bookingRepository.findPageForUserBefore(userId, now, Long.MAX_VALUE, page);
+            case "all" -> c != null
+                    ? bookingRepository.findPageForUserBefore(userId, c.startAt(), c.id(), page)
+                    : bookingRepository.findPageForUserBefore(userId, END_OF_TIME, Long.MAX_VALUE, page);
+            default -> throw new IllegalArgumentException("Invalid scope. Use upcoming | past | all");
+        };
+
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        var response = ResponseEntity.ok();
+        if (hasNext) {
+            var last = rows.get(rows.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new Cursor(last.getStartAt(), last.getBookingId()).encode());
+        }
+        return response.body(toItems(rows, now));
+    }
 
-        // Map to DTO and apply the requested scope in-memory.
-        var items = rows.stream().map(b -> {
-            var s = b.getSession();
-            Instant latestAllowed = s.getStartAt().minusSeconds(cutoff * 3600L);
+    /** Every booking of the scope, newest first (the unpaged contract). */
+    private List<BookingRepository.MyBookingRow> fullList(Long userId, String scope, Instant now) {
+        Integer all = null; // no LIMIT
+        return switch (scope.toLowerCase()) {
+            case "upcoming" -> bookingRepository.findPageForUserAfter(userId, now, Long.MAX_VALUE, all).reversed();
+            case "past" -> bookingRepository.findPageForUserBefore(userId, now, Long.MAX_VALUE, all);
+            case "all" -> bookingRepository.findPageForUserBefore(userId, END_OF_TIME, Long.MAX_VALUE, all);
+            default -> throw new IllegalArgumentException("Invalid scope. Use upcoming | past | all");
+        };
+    }
+
+    private List<MyBookingItem> toItems(List<BookingRepository.MyBookingRow> rows, Instant now) {
+        int cutoff = Math.max(0, bookingSettings.get().cancelCutoffHours());
+        return rows.stream().map(r -> {
+            Instant latestAllowed = r.getStartAt().minusSeconds(cutoff * 3600L);
             boolean cancellable = now.isBefore(latestAllowed);
             return new MyBookingItem(
-                    b.getId(),
-                    s.getId(),
-                    s.getClassType().getCode(),
-                    s.getClassType().getName(),
-                    s.getStartAt(),
-                    s.getEndAt(),
-                    b.getStatus().name(),
+                    r.getBookingId(),
+                    r.getSessionId(),
+                    r.getClassTypeCode(),
+                    r.getClassTypeName(),
+                    r.getStartAt(),
+                    r.getEndAt(),
+                    r.getStatus().name(),
                     cancellable
             );
-        }).filter(i -> switch (scope.toLowerCase()) {
-            case "upcoming" -> i.getStartAt().isAfter(now);
-            case "past"     -> !i.getStartAt().isAfter(now);
-            case "all"      -> true;
-            default         -> throw new IllegalArgumentException("Invalid scope. Use upcoming | past | all");
         }).toList();
-
-        return ResponseEntity.ok(items);
     }
 
-    private User currentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
+    /** Opaque keyset position: start of the last returned session and the booking id. */
+    record Cursor(Instant startAt, Long id) {
+
+        String encode() {
+            var raw = startAt.getEpochSecond() + "." + startAt.getNano() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                var raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int dot = raw.indexOf('.');
+                int colon = raw.indexOf(':');
+                var startAt = Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)),
+                        Long.parseLong(raw.substring(dot + 1, colon)));
+                return new Cursor(startAt, Long.parseLong(raw.substring(colon + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
     }
 }
@@ -0,0 +1,45 @@
+// src/main/java/com/gymsystem/booking/SeatAdmissionStrategy.java
+package com.gymsystem.booking;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Decides whether a booking may take a seat in a session.
+ * The database (class_sessions.booked_count) is always authoritative; implementations may
+ * put a cheaper gate in front of it. Selected with booking.seat-admission.mode.
+ */
+public interface SeatAdmissionStrategy {
+
+    /**
+     * Cheap pre-check done before any other booking rule.
+     * Returns false only when the session is known to be full, so the caller can fail fast.
+     */
+    default boolean maySeat(Long sessionId) {
+        return true;
+    }
+
+    /**
+     * Takes one seat inside the caller's transaction.
+     * @param sessionStartAt start of the session (partition key of class_sessions)
+     * @return true if the seat was taken, false if the session is full or canceled
+     */
+    boolean tryAcquire(Long sessionId, Instant sessionStartAt);
+
+    /** Gives one seat back inside the caller's transaction (booking canceled). */
+    void release(Long sessionId, Instant sessionStartAt);
+
+    /**
+     * Notifies that seats were already given back by a bulk SQL statement.
+     * @param sessionIds one element per released seat
+     */
+    default void releasedInBulk(List<Long> sessionIds) {
+    }
+
+    /**
+     * Notifies that seats were already taken by a bulk SQL statement (waitlist promotion).
+     * @param sessionIds one element per taken seat
+     */
+    default void acquiredInBulk(List<Long> sessionIds) {
+    }
+}
@@ -0,0 +1,27 @@
+// src/main/java/com/gymsystem/booking/SessionAvailabilityView.java
+package com.gymsystem.booking;
+
+import java.time.Instant;
+
+/**
+ * Read-only projection of a class session with its class type and the number of active bookings.
+ * Returned by a single query so availability lists need no per-session lookups.
+ */
+public interface SessionAvailabilityView {
+
+    Long getSessionId(); // Session identifier
+
+    String getClassTypeCode(); // Code of the class type (e.g., "PILATES")
+
+    String getClassTypeName(); // Display name of the class type
+
+    Instant getStartAt(); // Start time of the session (UTC)
+
+    Instant getEndAt(); // End time of the session (UTC)
+
+    int getCapacity(); // Maximum allowed bookings
+
+    String getNotes(); // Optional notes (may be null)
+
+    long getBooked(); // Number of active (BOOKED) bookings
+}
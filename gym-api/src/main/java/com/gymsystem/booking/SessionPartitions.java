@@ -0,0 +1,138 @@
+// src/main/java/com/gymsystem/booking/SessionPartitions.java
+package com.gymsystem.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monthly partitions of class_sessions and bookings (see V20). Months ahead are created at
+ * startup and by a daily job, which also, when enabled, moves months older than the retention
+ * window to the booking_archive schema.
+ * <p>
+ * Admin writers call {@link #ensure} before inserting. The DDL runs and commits in its own
+ * transaction with a short lock timeout, so it never holds the parent tables' locks for the
+ * rest of a request and never waits behind the traffic on them for long. Member requests only
+ * check with {@link #exists}: they never run DDL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionPartitions {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Months whose partitions are known to exist (added only once the DDL committed). */
+    private final Set<YearMonth> known = ConcurrentHashMap.newKeySet();
+
+    @Value("${booking.partitions.months-ahead:13}")
+    private int monthsAhead;
+
+    @Value("${booking.partitions.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${booking.partitions.archive.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${booking.partitions.lock-timeout-ms:2000}")
+    private long lockTimeoutMs;
+
+    private TransactionTemplate ownTransaction;
+
+    @PostConstruct
+    void init() {
+        ownTransaction = new TransactionTemplate(transactionManager);
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Makes sure the partitions of the month containing the instant exist. */
+    public void ensure(Instant instant) {
+        ensure(YearMonth.from(instant.atZone(ZoneOffset.UTC)));
+    }
+
+    /** Makes sure the partitions of every month touched by [from, to] exist. */
+    public void ensure(Instant from, Instant to) {
+        var last = YearMonth.from(to.atZone(ZoneOffset.UTC));
+        for (var m = YearMonth.from(from.atZone(ZoneOffset.UTC)); !m.isAfter(last); m = m.plusMonths(1)) {
+            ensure(m);
+        }
+    }
+
+    /**
+     * Creates the month's partitions if missing, in a separate transaction committed before this
+     * returns. Callers inside a transaction must not have touched class_sessions or bookings yet.
+     */
+    public void ensure(YearMonth month) {
+        if (known.contains(month)) return;
+        Integer created = ownTransaction.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + Math.max(1, lockTimeoutMs));
+            return jdbcTemplate.queryForObject("SELECT ensure_booking_partitions(?::date)",
+                    Integer.class, month.atDay(1).toString());
+        });
+        if (created != null && created > 0) {
+            log.info("Created booking partitions for {}", month);
+        }
+        known.add(month);
+    }
+
+    /** True if the partitions of the month containing the instant exist; never creates them. */
+    public boolean exists(Instant instant) {
+        var month = YearMonth.from(instant.atZone(ZoneOffset.UTC));
+        if (known.contains(month)) return true;
+        var suffix = String.format("y%04dm%02d", month.getYear(), month.getMonthValue());
+        Boolean found = jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL AND to_regclass(?) IS NOT NULL", Boolean.class,
+                "public.class_sessions_" + suffix, "public.bookings_" + suffix);
+        if (Boolean.TRUE.equals(found)) {
+            known.add(month); // created and committed by another node or an earlier run
+            return true;
+        }
+        return false;
+    }
+
+    /** Creates the months ahead as soon as the node is up, so no request has to. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureAhead() {
+        var current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                ensure(current.plusMonths(i));
+            } catch (DataAccessException e) {
+                // e.g. lock timeout behind long transactions; the next run retries
+                log.warn("Could not create booking partitions for {}: {}", current.plusMonths(i), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${booking.partitions.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        var current = YearMonth.now(ZoneOffset.UTC);
+        ensureAhead();
+        if (archiveEnabled && retentionMonths > 0) {
+            var cutoff = current.minusMonths(retentionMonths).atDay(1);
+            Integer archived = jdbcTemplate.queryForObject("SELECT archive_booking_partitions(?::date)",
+                    Integer.class, cutoff.toString());
+            if (archived != null && archived > 0) {
+                known.removeIf(m -> m.atDay(1).isBefore(cutoff));
+                log.info("Archived {} booking month(s) older than {}", archived, cutoff);
+            }
+        }
+    }
+}
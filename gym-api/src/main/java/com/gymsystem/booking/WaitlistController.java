@@ -0,0 +1,39 @@
+// src/main/java/com/gymsystem/booking/WaitlistController.java
+package com.gymsystem.booking;
+
+import com.gymsystem.booking.dto.WaitlistItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * User-facing endpoints to queue for full sessions.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    /** Joins the waitlist of a full session; returns the entry with its position. */
+    @PostMapping("/classes/{sessionId}/waitlist")
+    public ResponseEntity<WaitlistItem> join(@PathVariable Long sessionId) {
+        return ResponseEntity.ok(waitlistService.join(sessionId));
+    }
+
+    /** Leaves the waitlist of a session (idempotent). */
+    @DeleteMapping("/classes/{sessionId}/waitlist")
+    public ResponseEntity<Void> leave(@PathVariable Long sessionId) {
+        waitlistService.leave(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Lists the current user's waitlist entries for upcoming sessions. */
+    @GetMapping("/my/waitlist")
+    public ResponseEntity<List<WaitlistItem>> mine() {
+        return ResponseEntity.ok(waitlistService.listMine());
+    }
+}
@@ -0,0 +1,44 @@
+// src/main/java/com/gymsystem/booking/WaitlistEntry.java
+package com.gymsystem.booking;
+
+import com.gymsystem.user.User;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * A member waiting for a seat in a full session. Promoted in queue order (created_at, id).
+ */
+@Entity
+@Table(name = "session_waitlist")
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Unique identifier for the entry
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private ClassSession session; // The full session being waited for
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user; // The waiting member
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WaitlistStatus status; // WAITING | PROMOTED | LEFT
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt; // When the member joined the queue
+
+    @Column(name = "resolved_at")
+    private Instant resolvedAt; // When the entry was promoted or left
+
+    @Column(name = "booking_id")
+    private Long bookingId; // Booking created on promotion (if any)
+}
@@ -0,0 +1,67 @@
+// src/main/java/com/gymsystem/booking/WaitlistPromoter.java
+package com.gymsystem.booking;
+
+import com.gymsystem.booking.config.BookingSettingsCache;
+import lombok.RequiredArgsConstructor;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Turns waitlist entries into bookings when seats are freed.
+ * Runs inside the caller's transaction, so the freed seat and the promotion commit together
+ * and no other member can take the seat in between. Sessions within the cancellation cutoff
+ * no longer promote: their waiting entries are expired, by the promotion itself and by a
+ * periodic sweep for sessions that never freed a seat.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistPromoter {
+
+    private final WaitlistRepository waitlistRepository;
+    private final SeatAdmissionStrategy seatAdmission;
+    private final BookingSettingsCache bookingSettings;
+
+    /**
+     * Promotes waiting members of the given sessions into their free seats.
+     * @param sessionIds sessions that just released seats (duplicates allowed)
+     * @return number of promoted entries
+     */
+    public int promote(List<Long> sessionIds) {
+        if (sessionIds.isEmpty()) return 0;
+        var distinct = sessionIds.stream().distinct().toList();
+        var settings = bookingSettings.get();
+        var now = Instant.now();
+        var promoted = waitlistRepository.promote(distinct, now, promotableAfter(now), settings.onePerDayPerType());
+        if (!promoted.isEmpty()) {
+            seatAdmission.acquiredInBulk(promoted);
+            log.debug("Waitlist promoted {} entries for sessions {}", promoted.size(), distinct);
+        }
+        return promoted.size();
+    }
+
+    /** Closes WAITING entries of sessions that came within the cancellation cutoff. */
+    @Scheduled(cron = "${booking.waitlist.expire-cron:0 */5 * * * *}")
+    @Transactional
+    public void expireOverdue() {
+        var now = Instant.now();
+        int expired = waitlistRepository.expireStartingBefore(promotableAfter(now), now);
+        if (expired > 0) log.debug("Waitlist expired {} entries", expired);
+    }
+
+    /** Whether a session starting at "startAt" may still promote waiting members. */
+    public boolean promotable(Instant startAt, Instant now) {
+        return startAt.isAfter(promotableAfter(now));
+    }
+
+    /** Latest start a promoted member could no longer cancel: now + cancellation cutoff. */
+    private Instant promotableAfter(Instant now) {
+        int cutoff = Math.max(0, bookingSettings.get().cancelCutoffHours()); // guard against negative values
+        return now.plusSeconds(cutoff * 3600L);
+    }
+}
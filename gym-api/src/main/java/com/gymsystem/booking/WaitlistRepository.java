@@ -0,0 +1,197 @@
+// src/main/java/com/gymsystem/booking/WaitlistRepository.java
+package com.gymsystem.booking;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for session waitlist entries.
+ */
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    @Query("""
+        SELECT w FROM WaitlistEntry w
+        WHERE w.session.id = :sessionId
+          AND w.user.id = :userId
+          AND w.status = com.gymsystem.booking.WaitlistStatus.WAITING
+    """)
+    Optional<WaitlistEntry> findWaitingBySessionIdAndUserId(@Param("sessionId") Long sessionId,
+                                                            @Param("userId") Long userId);
+
+    /** Number of WAITING entries queued before the given one (its position is this + 1). */
+    @Query("""
+        SELECT COUNT(a) FROM WaitlistEntry a
+        WHERE a.session.id = :sessionId
+          AND a.status = com.gymsystem.booking.WaitlistStatus.WAITING
+          AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id))
+    """)
+    long countAhead(@Param("sessionId") Long sessionId,
+                    @Param("createdAt") Instant createdAt,
+                    @Param("id") Long id);
+
+    /** The member's WAITING entries for upcoming sessions, with their queue position, in one statement. */
+    @Query("""
+        SELECT w.id AS entryId,
+               s.id AS sessionId,
+               t.code AS classTypeCode,
+               t.name AS classTypeName,
+               s.startAt AS startAt,
+               s.endAt AS endAt,
+               w.createdAt AS joinedAt,
+               (SELECT COUNT(a) FROM WaitlistEntry a
+                 WHERE a.session = w.session
+                   AND a.status = com.gymsystem.booking.WaitlistStatus.WAITING
+                   AND (a.createdAt < w.createdAt OR (a.createdAt = w.createdAt AND a.id < w.id))) + 1 AS position
+        FROM WaitlistEntry w
+        JOIN w.session s
+        JOIN s.classType t
+        WHERE w.user.id = :userId
+          AND w.status = com.gymsystem.booking.WaitlistStatus.WAITING
+          AND s.canceled = false
+          AND s.startAt > :now
+        ORDER BY s.startAt ASC
+    """)
+    List<WaitlistView> findUpcomingWaitingByUserId(@Param("userId") Long userId, @Param("now") Instant now);
+
+    /** Marks the member's WAITING entry as LEFT; returns 0 if there was none. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE session_waitlist
+           SET status = 'LEFT', resolved_at = :now
+         WHERE session_id = :sessionId
+           AND user_id = :userId
+           AND status = 'WAITING'
+    """, nativeQuery = true)
+    int leave(@Param("sessionId") Long sessionId, @Param("userId") Long userId, @Param("now") Instant now);
+
+    /**
+     * Promotes the head of each session's queue into bookings, as many as the session has
+     * free seats, in one statement:
+     * locks the sessions with free seats that start after "promotableAfter" (now plus the
+     * cancellation cutoff: a member must still be able to cancel the seat they are given), ranks eligible WAITING entries (ACTIVE subscription,
+     * no active booking in that session and, when onePerDay is set, none for the same class type
+     * that day), inserts the bookings, marks the entries PROMOTED and bumps booked_count.
+     * Ineligible entries stay WAITING and are skipped. A member queued for several sessions of
+     * the same class type on one day gets only the earliest of them within this statement too;
+     * that seat stays free for the next promotion. The insert ignores conflicts with the
+     * active-booking index, so a concurrent promotion can never double-book a member.
+     * WAITING entries of the given sessions that start at or before "promotableAfter" are
+     * marked EXPIRED instead.
+     * @return one session id per promoted entry
+     */
+    @Query(value = """
+        WITH free AS (
+            SELECT s.id, s.class_type_id, s.start_at, s.capacity - s.booked_count AS seats
+              FROM class_sessions s
+             WHERE s.id IN (:sessionIds)
+               AND NOT s.canceled
+               AND s.start_at > :promotableAfter
+               AND s.booked_count < s.capacity
+               FOR UPDATE
+        ),
+        expired AS (
+            UPDATE session_waitlist w
+               SET status = 'EXPIRED', resolved_at = :now
+              FROM class_session_starts k
+             WHERE k.id = w.session_id
+               AND w.session_id IN (:sessionIds)
+               AND w.status = 'WAITING'
+               AND k.start_at <= :promotableAfter
+        ),
+        ranked AS (
+            SELECT w.id, w.session_id, w.user_id, f.start_at, f.seats,
+                   ROW_NUMBER() OVER (PARTITION BY w.session_id ORDER BY w.created_at, w.id) AS rn
+              FROM session_waitlist w
+              JOIN free f ON f.id = w.session_id
+             WHERE w.status = 'WAITING'
+               AND EXISTS (SELECT 1 FROM subscriptions sub
+                            WHERE sub.user_id = w.user_id AND sub.status = 'ACTIVE')
+               AND NOT EXISTS (SELECT 1 FROM bookings b
+                                WHERE b.session_id = w.session_id
+                                  AND b.session_start_at = f.start_at
+                                  AND b.user_id = w.user_id
+                                  AND b.status = 'BOOKED')
+               AND (NOT :onePerDay OR NOT EXISTS (
+                        SELECT 1 FROM bookings b
+                          JOIN class_sessions s2 ON s2.id = b.session_id AND s2.start_at = b.session_start_at
+                         WHERE b.user_id = w.user_id
+                           AND b.status = 'BOOKED'
+                           AND s2.class_type_id = f.class_type_id
+                           AND b.session_start_at >= date_trunc('day', f.start_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'
+                           AND b.session_start_at < (date_trunc('day', f.start_at AT TIME ZONE 'UTC') + INTERVAL '1 day') AT TIME ZONE 'UTC'))
+        ),
+        seated AS (
+            SELECT r.id, r.session_id, r.user_id, r.start_at,
+                   ROW_NUMBER() OVER (PARTITION BY r.user_id, f.class_type_id,
+                                                   date_trunc('day', r.start_at AT TIME ZONE 'UTC')
+                                      ORDER BY r.start_at, r.session_id) AS day_rn
+              FROM ranked r
+              JOIN free f ON f.id = r.session_id
+             WHERE r.rn <= r.seats
+        ),
+        picked AS (
+            SELECT id, session_id, user_id, start_at FROM seated WHERE NOT :onePerDay OR day_rn = 1
+        ),
+        inserted AS (
+            INSERT INTO bookings (session_id, user_id, status, created_at, session_start_at)
+            SELECT session_id, user_id, 'BOOKED', :now, start_at FROM picked
+            ON CONFLICT (session_id, user_id, session_start_at) WHERE status = 'BOOKED' DO NOTHING
+            RETURNING id, session_id, user_id, session_start_at
+        ),
+        promoted AS (
+            UPDATE session_waitlist w
+               SET status = 'PROMOTED', resolved_at = :now, booking_id = i.id
+              FROM inserted i
+             WHERE w.session_id = i.session_id
+               AND w.user_id = i.user_id
+               AND w.status = 'WAITING'
+        ),
+        bumped AS (
+            UPDATE class_sessions s
+               SET booked_count = s.booked_count + c.cnt
+              FROM (SELECT session_id, session_start_at, COUNT(*) AS cnt
+                      FROM inserted GROUP BY session_id, session_start_at) c
+             WHERE s.id = c.session_id
+               AND s.start_at = c.session_start_at
+        )
+        SELECT session_id FROM inserted
+    """, nativeQuery = true)
+    List<Long> promote(@Param("sessionIds") List<Long> sessionIds,
+                       @Param("now") Instant now,
+                       @Param("promotableAfter") Instant promotableAfter,
+                       @Param("onePerDay") boolean onePerDay);
+
+    /**
+     * Marks EXPIRED every WAITING entry whose session starts at or before "promotableAfter":
+     * those sessions no longer promote, so the entries are closed instead of lingering.
+     * @return number of expired entries
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE session_waitlist w
+           SET status = 'EXPIRED', resolved_at = :now
+          FROM class_session_starts k
+         WHERE k.id = w.session_id
+           AND w.status = 'WAITING'
+           AND k.start_at <= :promotableAfter
+    """, nativeQuery = true)
+    int expireStartingBefore(@Param("promotableAfter") Instant promotableAfter, @Param("now") Instant now);
+
+    /** Row shape returned by {@link #findUpcomingWaitingByUserId}. */
+    interface WaitlistView {
+        Long getEntryId();
+        Long getSessionId();
+        String getClassTypeCode();
+        String getClassTypeName();
+        Instant getStartAt();
+        Instant getEndAt();
+        Instant getJoinedAt();
+        long getPosition();
+    }
+}
@@ -0,0 +1,109 @@
+// src/main/java/com/gymsystem/booking/WaitlistService.java
+package com.gymsystem.booking;
+
+import com.gymsystem.booking.dto.WaitlistItem;
+import com.gymsystem.i18n.I18n;
+import com.gymsystem.security.CurrentUser;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Lets members queue for full sessions. Promotion itself is done by {@link WaitlistPromoter}
+ * when a booking is canceled, so members join once instead of retrying the booking.
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+
+    private final WaitlistRepository waitlistRepository;
+    private final ClassSessionRepository classSessionRepository;
+    private final BookingRepository bookingRepository;
+    private final CurrentUser currentUser;
+    private final BookingService bookingService;
+    private final WaitlistPromoter waitlistPromoter;
+    private final I18n i18n;
+
+    /**
+     * Joins the waitlist of a full session (idempotent: returns the existing entry if already waiting).
+     * @param sessionId the id of the session
+     * @return the entry with its current position
+     */
+    @Transactional
+    public WaitlistItem join(Long sessionId) {
+        var user = currentUser.reference();
+        bookingService.assertUserHasActiveSubscription(user.getId());
+
+        var session = classSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
+        var now = Instant.now();
+        bookingService.assertSessionBookable(session, now);
+        // A seat freed this late would be one the member could no longer cancel
+        if (!waitlistPromoter.promotable(session.getStartAt(), now)) {
+            throw new IllegalStateException(i18n.msg("booking.waitlist.closed"));
+        }
+
+        if (bookingRepository.findActiveBySessionIdAndUserId(sessionId, user.getId()).isPresent()) {
+            throw new IllegalStateException(i18n.msg("booking.duplicate.session"));
+        }
+
+        var existing = waitlistRepository.findWaitingBySessionIdAndUserId(sessionId, user.getId());
+        if (existing.isPresent()) {
+            return toItem(existing.get(), session);
+        }
+
+        // Only full sessions can be queued for; otherwise the member should just book
+        if (session.getBookedCount() < session.getCapacity()) {
+            throw new IllegalStateException(i18n.msg("booking.waitlist.not.full"));
+        }
+
+        var entry = waitlistRepository.save(WaitlistEntry.builder()
+                .session(session)
+                .user(user)
+                .status(WaitlistStatus.WAITING)
+                .createdAt(now)
+                .build());
+        return toItem(entry, session);
+    }
+
+    /** Leaves the waitlist of a session (idempotent). */
+    @Transactional
+    public void leave(Long sessionId) {
+        var user = currentUser.reference();
+        waitlistRepository.leave(sessionId, user.getId(), Instant.now());
+    }
+
+    /** Lists the current user's waiting entries for upcoming sessions. */
+    public List<WaitlistItem> listMine() {
+        var user = currentUser.reference();
+        return waitlistRepository.findUpcomingWaitingByUserId(user.getId(), Instant.now()).stream()
+                .map(v -> new WaitlistItem(
+                        v.getEntryId(),
+                        v.getSessionId(),
+                        v.getClassTypeCode(),
+                        v.getClassTypeName(),
+                        v.getStartAt(),
+                        v.getEndAt(),
+                        v.getJoinedAt(),
+                        v.getPosition()
+                ))
+                .toList();
+    }
+
+    private WaitlistItem toItem(WaitlistEntry e, ClassSession s) {
+        long ahead = waitlistRepository.countAhead(s.getId(), e.getCreatedAt(), e.getId());
+        return new WaitlistItem(
+                e.getId(),
+                s.getId(),
+                s.getClassType().getCode(),
+                s.getClassType().getName(),
+                s.getStartAt(),
+                s.getEndAt(),
+                e.getCreatedAt(),
+                ahead + 1
+        );
+    }
+}
@@ -0,0 +1,12 @@
+// src/main/java/com/gymsystem/booking/WaitlistStatus.java
+package com.gymsystem.booking;
+
+/**
+ * Lifecycle of a waitlist entry.
+ */
+public enum WaitlistStatus {
+    WAITING,  // In the queue
+    PROMOTED, // Turned into a booking when a seat was freed
+    LEFT,     // Removed by the member
+    EXPIRED   // Session came within the cancellation cutoff before a seat was freed
+}
@@ -0,0 +1,234 @@
+// src/main/java/com/gymsystem/booking/calendar/CalendarReadModel.java
+package com.gymsystem.booking.calendar;
+
+import com.gymsystem.booking.ClassSessionRepository;
+import com.gymsystem.booking.live.SeatFeed;
+import com.gymsystem.booking.live.SeatUpdate;
+import com.gymsystem.booking.template.SessionTemplateService;
+import com.gymsystem.booking.template.TemplatesChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory read model of the public calendar: one {@link MonthSnapshot} per UTC month, loaded
+ * on first request, with the slots of recurring templates expanded in. After commit of a session
+ * or booking change only the changed rows are re-read and patched into their month; class type
+ * and template changes drop every snapshot. Patches are applied by one background thread, in
+ * commit order, so the committing request does not wait for the re-read. Changes committed on
+ * other nodes arrive the same way through {@link SessionChangeRelay}; the periodic refresh is the
+ * fallback for anything it missed.
+ * <p>
+ * Months are loaded outside the map and installed with putIfAbsent (concurrent first requests
+ * may load the same month twice). A snapshot whose month was patched or dropped while it was
+ * loading is served once but not kept, since the patch may have missed it.
+ * {@link CalendarVersions} derives the calendar ETag from the digests of these snapshots, so an
+ * ETag always describes data this node serves. The model also feeds seat changes to the live
+ * {@link SeatFeed}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarReadModel {
+
+    private final ClassSessionRepository classSessionRepository;
+    private final SessionTemplateService sessionTemplates;
+    private final SeatFeed seatFeed;
+
+    private final Map<YearMonth, MonthSnapshot> months = new ConcurrentHashMap<>();
+    /** Patches seen per month and snapshot drops; a load that overlapped one of them is not kept. */
+    private final Map<YearMonth, AtomicLong> patches = new ConcurrentHashMap<>();
+    private final AtomicLong drops = new AtomicLong();
+
+    @Value("${booking.calendar.snapshot-max-months:24}")
+    private int maxMonths;
+
+    private ExecutorService patcher;
+
+    @PostConstruct
+    void init() {
+        patcher = Executors.newSingleThreadExecutor(r -> {
+            var t = new Thread(r, "calendar-patcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        patcher.shutdownNow();
+    }
+
+    /**
+     * Sessions starting in [from, to], optionally of one class type, ordered by start.
+     * Ranges longer than the snapshot bound are read directly, with one query, and not kept.
+     */
+    public List<MonthSnapshot.Entry> slice(Instant from, Instant to, String typeCode) {
+        var first = month(from);
+        var last = month(to);
+
+        List<MonthSnapshot.Entry> out = new ArrayList<>();
+        if (first.until(last, ChronoUnit.MONTHS) >= maxMonths) {
+            load(from, to.plusNanos(1)).slice(from, to, typeCode, out);
+            return out;
+        }
+        for (var m = first; !m.isAfter(last); m = m.plusMonths(1)) {
+            snapshot(m).slice(from, to, typeCode, out);
+        }
+        return out;
+    }
+
+    /**
+     * Digest of the months covering [from, to] (see {@link MonthSnapshot#digest()}); loads them like
+     * {@link #slice}. Ranges past the snapshot bound are digested from a direct read.
+     */
+    public long digest(Instant from, Instant to) {
+        var first = month(from);
+        var last = month(to);
+        if (first.until(last, ChronoUnit.MONTHS) >= maxMonths) {
+            return load(from, to.plusNanos(1)).digest();
+        }
+        List<MonthSnapshot> snapshots = new ArrayList<>();
+        for (var m = first; !m.isAfter(last); m = m.plusMonths(1)) snapshots.add(snapshot(m));
+        return MonthSnapshot.digest(snapshots);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionsChanged(SessionsChangedEvent event) {
+        patchLater(event.sessionIds());
+    }
+
+    /** Queues a re-read of the given sessions; also used for changes committed on other nodes. */
+    public void patchLater(Set<Long> sessionIds) {
+        if (sessionIds.isEmpty()) return;
+        patcher.execute(() -> {
+            try {
+                patch(sessionIds);
+            } catch (RuntimeException e) {
+                // The periodic refresh re-reads the month anyway
+                log.warn("Calendar patch failed for {} sessions: {}", sessionIds.size(), e.getMessage());
+            }
+        });
+    }
+
+    private void patch(Set<Long> sessionIds) {
+        Map<YearMonth, List<MonthSnapshot.Entry>> changed = new HashMap<>();
+        List<SeatUpdate> updates = new ArrayList<>();
+        for (var row : classSessionRepository.findCalendarRowsByIdIn(sessionIds)) {
+            var entry = MonthSnapshot.Entry.of(row);
+            changed.computeIfAbsent(month(row.getStartAt()), m -> new ArrayList<>()).add(entry);
+            updates.add(seatUpdate(entry));
+        }
+        changed.forEach((month, entries) -> {
+            patches.computeIfAbsent(month, m -> new AtomicLong()).incrementAndGet();
+            months.computeIfPresent(month, (m, snapshot) -> snapshot.patch(entries));
+        });
+        seatFeed.publish(updates);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassTypesChanged(ClassTypesChangedEvent event) {
+        drops.incrementAndGet();
+        months.clear(); // names/codes are denormalized into every entry
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplatesChanged(TemplatesChangedEvent event) {
+        drops.incrementAndGet();
+        months.clear();
+    }
+
+    /** Re-reads every loaded month; replaces only those that actually changed. */
+    @Scheduled(fixedDelayString = "${booking.calendar.snapshot-refresh-ms:30000}")
+    public void refresh() {
+        for (var e : months.entrySet()) {
+            var fresh = load(e.getKey());
+            // replace() keeps a patch applied while we were reading; the next refresh re-checks it
+            if (!fresh.equals(e.getValue()) && months.replace(e.getKey(), e.getValue(), fresh)) {
+                seatFeed.publish(seatChanges(e.getValue(), fresh)); // e.g. bookings made on other nodes
+            }
+        }
+    }
+
+    /** Sessions whose seats or canceled flag differ between two snapshots of a month. */
+    private static List<SeatUpdate> seatChanges(MonthSnapshot before, MonthSnapshot after) {
+        Map<Long, MonthSnapshot.Entry> old = new HashMap<>();
+        for (var e : before.entries()) {
+            if (e.sessionId() != null) old.put(e.sessionId(), e);
+        }
+        List<SeatUpdate> updates = new ArrayList<>();
+        for (var e : after.entries()) {
+            if (e.sessionId() == null) continue;
+            var prev = old.get(e.sessionId());
+            if (prev == null || prev.booked() != e.booked() || prev.capacity() != e.capacity() || prev.canceled() != e.canceled()) {
+                updates.add(seatUpdate(e));
+            }
+        }
+        return updates;
+    }
+
+    private static SeatUpdate seatUpdate(MonthSnapshot.Entry e) {
+        return SeatUpdate.of(e.sessionId(), e.classTypeCode(), e.startAt(), e.capacity(), e.booked(), e.canceled());
+    }
+
+    private MonthSnapshot snapshot(YearMonth month) {
+        var snapshot = months.get(month);
+        if (snapshot != null) return snapshot;
+        if (months.size() >= maxMonths) {
+            log.debug("Calendar read model full ({} months); dropping snapshots", months.size());
+            months.clear();
+        }
+        long seen = changesOf(month);
+        var loaded = load(month); // outside the map: no query runs inside a map operation
+        var existing = months.putIfAbsent(month, loaded);
+        if (existing != null) return existing;
+        if (changesOf(month) != seen) {
+            months.remove(month, loaded);
+        }
+        return loaded;
+    }
+
+    private long changesOf(YearMonth month) {
+        var p = patches.get(month);
+        return drops.get() + (p == null ? 0 : p.get());
+    }
+
+    private MonthSnapshot load(YearMonth month) {
+        return load(month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant(),
+                month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    /** Sessions and template slots starting in [from, to). */
+    private MonthSnapshot load(Instant from, Instant to) {
+        var sessions = classSessionRepository.findCalendarRowsBetween(from, to).stream()
+                .map(MonthSnapshot.Entry::of)
+                .toList();
+        var slots = sessionTemplates.expand(from, to.minusNanos(1)).stream()
+                .map(MonthSnapshot.Entry::of)
+                .toList();
+        return MonthSnapshot.of(sessions, slots);
+    }
+
+    private static YearMonth month(Instant instant) {
+        return YearMonth.from(instant.atZone(ZoneOffset.UTC));
+    }
+}
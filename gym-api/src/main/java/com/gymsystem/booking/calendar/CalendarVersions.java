@@ -0,0 +1,51 @@
+// src/main/java/com/gymsystem/booking/calendar/CalendarVersions.java
+package com.gymsystem.booking.calendar;
+
+import com.gymsystem.booking.ClassType;
+import com.gymsystem.booking.config.BookingSettingsCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ETags of the public calendar and class type list, derived from the data they describe only, so
+ * every replica issues the same tag for the same content and a client's If-None-Match matches
+ * whichever node the balancer picks. The calendar tag also carries the settings that decide
+ * "openForBooking" and a time bucket, since that flag flips with time alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class CalendarVersions {
+
+    private final BookingSettingsCache bookingSettings;
+    private final CalendarReadModel readModel;
+
+    @Value("${booking.calendar.etag-bucket-seconds:60}")
+    private long bucketSeconds;
+
+    /** Strong ETag of the calendar for [from, to]: digest of the months covering it (loads them). */
+    public String calendarEtag(Instant from, Instant to) {
+        var settings = bookingSettings.get();
+        return "\"cal-" + Long.toHexString(readModel.digest(from, to))
+                + "-" + settings.publishDaysBeforeMonth() + "-" + settings.openDaysInAdvance()
+                + "-" + bucket() + "\"";
+    }
+
+    /** Strong ETag of the given class type list (the body that is about to be served). */
+    public String classTypesEtag(List<ClassType> types) {
+        long h = 0xCBF29CE484222325L;
+        for (var t : types) {
+            h = (h ^ t.getId()) * 0x100000001B3L;
+            h = (h ^ Objects.hash(t.getCode(), t.getName(), t.getDescription(), t.isActive())) * 0x100000001B3L;
+        }
+        return "\"types-" + Long.toHexString(h) + "\"";
+    }
+
+    private long bucket() {
+        return Instant.now().getEpochSecond() / Math.max(1, bucketSeconds);
+    }
+}
@@ -0,0 +1,9 @@
+// src/main/java/com/gymsystem/booking/calendar/ClassTypesChangedEvent.java
+package com.gymsystem.booking.calendar;
+
+/**
+ * Published when a class type is created or updated (name, active flag), which changes both
+ * the public catalog and every calendar entry of that type.
+ */
+public record ClassTypesChangedEvent() {
+}
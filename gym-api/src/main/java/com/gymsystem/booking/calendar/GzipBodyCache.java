@@ -0,0 +1,104 @@
+// src/main/java/com/gymsystem/booking/calendar/GzipBodyCache.java
+package com.gymsystem.booking.calendar;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-encoded JSON bodies of public read endpoints, keyed by request parameters + ETag.
+ * A new ETag means a new key, so entries never need invalidation; the map is simply
+ * cleared when it reaches its bound.
+ * <p>
+ * The gzip body is a different representation from the identity one, so it is sent under its
+ * own strong ETag: the identity tag with a "-gz" suffix (see {@link #gzipEtag}).
+ */
+@Component
+@RequiredArgsConstructor
+public class GzipBodyCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+
+    @Value("${booking.calendar.gzip-cache-entries:256}")
+    private int maxEntries;
+
+    /** True if the client accepts a gzip-encoded response. */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    /** Tag of the gzip representation of the body tagged "etag" (a quoted strong ETag). */
+    public static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * True if the If-None-Match header matches the current ETag of either representation
+     * (the content is the same; the response then carries the tag of the one the client accepts).
+     */
+    public static boolean notModified(String ifNoneMatch, String etag) {
+        return ifNoneMatch != null && (ifNoneMatch.trim().equals("*")
+                || ifNoneMatch.contains(etag) || ifNoneMatch.contains(gzipEtag(etag)));
+    }
+
+    /**
+     * 304 response carrying the current ETag. Every variant of these endpoints sends
+     * Vary: Accept-Encoding, so shared caches never serve a gzip body to a client that did not ask for it.
+     */
+    public static ResponseEntity<Object> notModifiedResponse(String etag, boolean gzip) {
+        return ResponseEntity.status(304).eTag(gzip ? gzipEtag(etag) : etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    /** 200 response with the body left to the JSON converter (client does not accept gzip). */
+    public static ResponseEntity<Object> identityResponse(String etag, Object body) {
+        return ResponseEntity.ok().eTag(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).body(body);
+    }
+
+    /**
+     * 200 response with the gzip-encoded JSON of the body, built once per key, under {@link #gzipEtag}.
+     * @param key request parameters and ETag identifying the representation
+     * @param etag tag of the identity representation
+     */
+    public ResponseEntity<Object> gzipResponse(String key, String etag, Supplier<?> body) {
+        byte[] bytes = bodies.get(key);
+        if (bytes == null) {
+            bytes = gzipJson(body.get());
+            if (bodies.size() >= maxEntries) {
+                bodies.clear(); // older ETags are dead keys anyway
+            }
+            bodies.put(key, bytes);
+        }
+        return ResponseEntity.ok()
+                .eTag(gzipEtag(etag))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .body(bytes);
+    }
+
+    private byte[] gzipJson(Object body) {
+        try {
+            var out = new ByteArrayOutputStream();
+            try (var gzip = new GZIPOutputStream(out)) {
+                objectMapper.writeValue(gzip, body);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+// src/main/java/com/gymsystem/booking/calendar/MonthSnapshot.java
+package com.gymsystem.booking.calendar;
+
+import com.gymsystem.booking.ClassSessionRepository.CalendarRow;
+import com.gymsystem.booking.template.TemplateSlot;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Immutable, start-ordered sessions of one UTC month. Changes produce a new snapshot, so readers
+ * never see a half-applied patch. Entries are keyed by (class type, start), which is unique for
+ * sessions, so a materialized session replaces the template slot it came from.
+ * The digest is a hash of the entries that is the same on every node for the same content
+ * (it only uses hashes the JDK specifies), so it can back ETags behind a round-robin balancer.
+ */
+public record MonthSnapshot(List<Entry> entries, long digest) {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparing(Entry::startAt).thenComparing(Entry::classTypeCode);
+
+    /**
+     * Time-independent facts of a session; open/closed flags are derived at read time.
+     * Template slots without a row have a null sessionId and carry their templateId.
+     */
+    public record Entry(Long sessionId,
+                        String classTypeCode,
+                        String classTypeName,
+                        Instant startAt,
+                        Instant endAt,
+                        int capacity,
+                        int booked,
+                        boolean canceled,
+                        Long templateId) {
+
+        static Entry of(CalendarRow row) {
+            return new Entry(row.getSessionId(), row.getClassTypeCode(), row.getClassTypeName(),
+                    row.getStartAt(), row.getEndAt(), row.getCapacity(), row.getBooked(), row.isCanceled(), null);
+        }
+
+        static Entry of(TemplateSlot slot) {
+            return new Entry(null, slot.classTypeCode(), slot.classTypeName(),
+                    slot.startAt(), slot.endAt(), slot.capacity(), 0, false, slot.templateId());
+        }
+
+        String key() {
+            return classTypeCode + "@" + startAt;
+        }
+    }
+
+    static MonthSnapshot of(Collection<Entry> entries) {
+        var sorted = new ArrayList<>(entries);
+        sorted.sort(ORDER);
+        return new MonthSnapshot(List.copyOf(sorted), digest(sorted));
+    }
+
+    /** Digest of several snapshots, in the given order. */
+    static long digest(Collection<MonthSnapshot> snapshots) {
+        long h = FNV_OFFSET;
+        for (var s : snapshots) h = mix(h, s.digest());
+        return h;
+    }
+
+    private static long digest(List<Entry> entries) {
+        long h = FNV_OFFSET;
+        for (var e : entries) {
+            h = mix(h, e.sessionId() == null ? 0 : e.sessionId());
+            h = mix(h, e.classTypeCode().hashCode());
+            h = mix(h, e.classTypeName() == null ? 0 : e.classTypeName().hashCode());
+            h = mix(h, e.startAt().getEpochSecond());
+            h = mix(h, e.endAt().getEpochSecond());
+            h = mix(h, e.capacity());
+            h = mix(h, e.booked());
+            h = mix(h, e.canceled() ? 1 : 0);
+            h = mix(h, e.templateId() == null ? 0 : e.templateId());
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        return (h ^ value) * FNV_PRIME;
+    }
+
+    /** New snapshot with the given entries inserted or replacing the ones with the same key. */
+    MonthSnapshot patch(Collection<Entry> changed) {
+        var byKey = new HashMap<String, Entry>(entries.size() + changed.size());
+        for (var e : entries) byKey.put(e.key(), e);
+        for (var e : changed) byKey.put(e.key(), e);
+        return of(byKey.values());
+    }
+
+    /** Snapshot of the session rows plus the template slots that have no row. */
+    static MonthSnapshot of(Collection<Entry> sessions, Collection<Entry> templateSlots) {
+        var byKey = new HashMap<String, Entry>(sessions.size() + templateSlots.size());
+        for (var e : templateSlots) byKey.put(e.key(), e);
+        for (var e : sessions) byKey.put(e.key(), e);
+        return of(byKey.values());
+    }
+
+    /** Appends the entries starting in [from, to], optionally of one class type, in start order. */
+    void slice(Instant from, Instant to, String typeCode, List<Entry> out) {
+        // Binary search for the first entry starting at/after "from"
+        int lo = 0, hi = entries.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries.get(mid).startAt().isBefore(from)) lo = mid + 1; else hi = mid;
+        }
+        for (int i = lo; i < entries.size(); i++) {
+            var e = entries.get(i);
+            if (e.startAt().isAfter(to)) break;
+            if (typeCode == null || typeCode.equals(e.classTypeCode())) out.add(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// src/main/java/com/gymsystem/booking/calendar/SessionChangeRelay.java
+package com.gymsystem.booking.calendar;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fans {@link SessionsChangedEvent} out to the other replicas with Postgres LISTEN/NOTIFY, so a seat
+ * booked on one node reaches the live seat streams of every node within a moment, whether or not
+ * that node has the month loaded. The NOTIFY is issued inside the writing transaction: Postgres
+ * delivers it only on commit. Each node listens on a dedicated connection (outside the pool) and
+ * hands the ids of other nodes to {@link CalendarReadModel#patchLater}; its own changes are
+ * already patched locally. Notifications lost while the listener reconnects are picked up by the
+ * periodic refresh of the read model.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.live.cross-node", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SessionChangeRelay {
+
+    static final String CHANNEL = "gym_sessions_changed";
+    /** Keeps each payload far below the 8000-byte NOTIFY limit. */
+    private static final int IDS_PER_NOTIFY = 400;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final CalendarReadModel readModel;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${booking.live.cross-node-poll-ms:5000}")
+    private int pollMs;
+
+    @Value("${booking.live.cross-node-reconnect-ms:5000}")
+    private long reconnectMs;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("session-change-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listener.interrupt();
+        listener.join(pollMs + 1_000L);
+    }
+
+    /** Runs in the publishing transaction (or auto-commits when there is none). */
+    @EventListener
+    public void onSessionsChanged(SessionsChangedEvent event) {
+        List<Long> ids = new ArrayList<>(event.sessionIds());
+        for (int i = 0; i < ids.size(); i += IDS_PER_NOTIFY) {
+            var chunk = ids.subList(i, Math.min(ids.size(), i + IDS_PER_NOTIFY));
+            StringBuilder payload = new StringBuilder(nodeId).append(':');
+            for (int j = 0; j < chunk.size(); j++) {
+                if (j > 0) payload.append(',');
+                payload.append(chunk.get(j));
+            }
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, CHANNEL, payload.toString());
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (var connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (var st = connection.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                var pg = connection.unwrap(PGConnection.class);
+                log.debug("Listening for session changes of other nodes");
+                while (running) {
+                    var ids = remoteIds(pg.getNotifications(pollMs));
+                    if (!ids.isEmpty()) readModel.patchLater(ids);
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Session change listener lost its connection, retrying in {} ms: {}", reconnectMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private Set<Long> remoteIds(PGNotification[] notifications) {
+        Set<Long> ids = new HashSet<>();
+        if (notifications == null) return ids;
+        for (var n : notifications) {
+            var payload = n.getParameter();
+            int sep = payload.indexOf(':');
+            if (sep < 0 || payload.startsWith(nodeId + ":")) continue;
+            for (var id : payload.substring(sep + 1).split(",")) {
+                if (!id.isEmpty()) ids.add(Long.parseLong(id));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,20 @@
+// src/main/java/com/gymsystem/booking/calendar/SessionsChangedEvent.java
+package com.gymsystem.booking.calendar;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published inside the writing transaction whenever sessions or their booked seats change
+ * (booking, cancellation, promotion, session created/canceled). Calendar caches react after commit.
+ */
+public record SessionsChangedEvent(Set<Long> sessionIds) {
+
+    public static SessionsChangedEvent of(Long sessionId) {
+        return new SessionsChangedEvent(Set.of(sessionId));
+    }
+
+    public static SessionsChangedEvent of(Collection<Long> sessionIds) {
+        return new SessionsChangedEvent(Set.copyOf(sessionIds));
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 public class AdminBookingConfigController {
 
     private final BookingConfigService service;
+    private final BookingSettingsCache settingsCache;
 
     @GetMapping
     public ResponseEntity<BookingConfig> get() {
@@ -25,6 +26,22 @@ public class AdminBookingConfigController {
         return ResponseEntity.ok(service.update(body));
     }
 
+    /**
+     * In-memory settings snapshot (config + policy) currently used by the booking rules.
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<BookingSettings> snapshot() {
+        return ResponseEntity.ok(settingsCache.get());
+    }
+
+    /**
+     * Forces a reload of the settings snapshot (e.g., after editing the tables by hand).
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<BookingSettings> reload() {
+        return ResponseEntity.ok(settingsCache.reload());
+    }
+
     /**
      * Toggle "one-per-day-per-type" restriction.
      */
@@ -12,6 +12,7 @@ import java.time.Instant;
 public class BookingConfigService {
 
     private final BookingConfigRepository repo;
+    private final BookingSettingsCache settingsCache;
 
     public BookingConfig get() {
         return repo.findById(Boolean.TRUE).orElseThrow(() -> new IllegalStateException("Booking config missing"));
@@ -29,6 +30,8 @@ public class BookingConfigService {
         current.setOnePerDayPerType(updated.isOnePerDayPerType());
 
         current.setUpdatedAt(Instant.now());
-        return repo.save(current);
+        var saved = repo.save(current);
+        settingsCache.reloadAfterCommit(); // Publish the new snapshot once committed
+        return saved;
     }
 }
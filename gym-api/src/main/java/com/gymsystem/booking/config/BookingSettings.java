@@ -0,0 +1,44 @@
+// src/main/java/com/gymsystem/booking/config/BookingSettings.java
+package com.gymsystem.booking.config;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Immutable snapshot of the booking configuration and the global booking policy.
+ * Served from memory by {@link BookingSettingsCache}; "version" grows every time the content changes.
+ *
+ * @param openDaysInAdvance policy horizon in days, or null when no policy row exists
+ */
+public record BookingSettings(
+        long version,
+        int publishDaysBeforeMonth,
+        String businessDays,
+        LocalTime businessStart,
+        LocalTime businessEnd,
+        int cancelCutoffHours,
+        boolean onePerDayPerType,
+        Integer openDaysInAdvance,
+        Instant loadedAt
+) {
+
+    /** Latest session start that the policy allows booking at "now" (Instant.MAX without a policy). */
+    public Instant horizon(Instant now) {
+        return openDaysInAdvance == null ? Instant.MAX : now.plus(openDaysInAdvance, ChronoUnit.DAYS);
+    }
+
+    /** Instant at which the month of the given session opens for bookings. */
+    public Instant monthOpensAt(Instant sessionStart) {
+        var z = sessionStart.atZone(ZoneOffset.UTC);
+        var firstDay = z.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        return firstDay.minusDays(publishDaysBeforeMonth).toInstant();
+    }
+
+    /** Same settings under another version; used to compare content across reloads. */
+    BookingSettings withVersion(long newVersion, Instant newLoadedAt) {
+        return new BookingSettings(newVersion, publishDaysBeforeMonth, businessDays, businessStart, businessEnd,
+                cancelCutoffHours, onePerDayPerType, openDaysInAdvance, newLoadedAt);
+    }
+}
@@ -0,0 +1,76 @@
+// src/main/java/com/gymsystem/booking/config/BookingSettingsCache.java
+package com.gymsystem.booking.config;
+
+import com.gymsystem.booking.BookingPolicy;
+import com.gymsystem.booking.BookingPolicyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps {@link BookingSettings} in memory so request paths never query booking_config or
+ * booking_policies. Reloaded after the admin services commit an update, on demand through the
+ * admin API, and periodically so changes made on other nodes are picked up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSettingsCache {
+
+    private final BookingConfigRepository configRepository;
+    private final BookingPolicyRepository policyRepository;
+
+    private final AtomicReference<BookingSettings> current = new AtomicReference<>();
+
+    /** Current snapshot; loaded on first use. */
+    public BookingSettings get() {
+        var s = current.get();
+        return s != null ? s : reload();
+    }
+
+    /**
+     * Re-reads both tables. The version is bumped only when the content changed.
+     * @return the snapshot now in effect
+     */
+    @Scheduled(fixedDelayString = "${booking.settings.refresh-ms:60000}")
+    public BookingSettings reload() {
+        var cfg = configRepository.findById(Boolean.TRUE)
+                .orElseThrow(() -> new IllegalStateException("Booking config missing"));
+        var openDays = policyRepository.findTopByOrderByIdAsc()
+                .map(BookingPolicy::getOpenDaysInAdvance)
+                .orElse(null);
+        var now = Instant.now();
+        var loaded = new BookingSettings(0, cfg.getPublishDaysBeforeMonth(), cfg.getBusinessDays(),
+                cfg.getBusinessStart(), cfg.getBusinessEnd(), cfg.getCancelCutoffHours(),
+                cfg.isOnePerDayPerType(), openDays, now);
+
+        var next = current.updateAndGet(prev -> {
+            if (prev != null && prev.withVersion(0, now).equals(loaded)) {
+                return prev; // unchanged: keep version
+            }
+            return loaded.withVersion(prev == null ? 1 : prev.version() + 1, now);
+        });
+        log.debug("Booking settings loaded: version={}", next.version());
+        return next;
+    }
+
+    /** Reloads once the surrounding transaction commits (immediately when there is none). */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+}
@@ -27,4 +27,6 @@ public class AvailabilityItem {
     private long spotsLeft; // Number of remaining spots (capacity - booked count)
 
     private String notes; // Optional notes (may be null)
+
+    private Long templateId; // Set for a template slot not materialized yet (sessionId is then null)
 }
@@ -20,4 +20,5 @@ public class CalendarItem {
     private long spotsLeft;    // capacity - booked (not below zero)
     private boolean canceled;  // session canceled by admin
     private boolean openForBooking; // computed using policy + monthly publish window
+    private Long templateId;   // set for a template slot not materialized yet (sessionId is then null)
 }
@@ -0,0 +1,24 @@
+// src/main/java/com/gymsystem/booking/dto/GenerateScheduleRequest.java
+package com.gymsystem.booking.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/** Admin payload to generate sessions for several class types and months in one request. */
+@Data
+public class GenerateScheduleRequest {
+    @NotEmpty @Size(max = 20)
+    private List<@NotBlank String> classTypeCodes; // target class type codes
+
+    @NotEmpty @Size(max = 24)
+    private List<@NotNull YearMonth> months; // e.g., ["2025-11", "2025-12"]
+
+    @Min(15) @Max(480)
+    private int slotMinutes;   // length of each session
+
+    @Min(1) @Max(1000)
+    private int capacity;      // capacity per session
+}
@@ -0,0 +1,25 @@
+// src/main/java/com/gymsystem/booking/dto/GenerateScheduleResult.java
+package com.gymsystem.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/** Outcome of a schedule generation: totals and one line per month. */
+@Data
+@AllArgsConstructor
+public class GenerateScheduleResult {
+    private int created;        // sessions inserted
+    private int skipped;        // slots that already had a session of the same type
+    private List<MonthCount> months;
+
+    @Data
+    @AllArgsConstructor
+    public static class MonthCount {
+        private YearMonth month;
+        private int created;
+        private int skipped;
+    }
+}
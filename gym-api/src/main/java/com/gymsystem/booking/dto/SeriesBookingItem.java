@@ -0,0 +1,17 @@
+// src/main/java/com/gymsystem/booking/dto/SeriesBookingItem.java
+package com.gymsystem.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Per-session outcome of a series booking.
+ */
+@Data
+@AllArgsConstructor
+public class SeriesBookingItem {
+    private Long sessionId;
+    private boolean booked;  // true if a booking was created
+    private Long bookingId;  // id of the new booking (null when not booked)
+    private String error;    // localized reason when not booked (null when booked)
+}
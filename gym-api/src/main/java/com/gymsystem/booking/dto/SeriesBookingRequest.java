@@ -0,0 +1,14 @@
+// src/main/java/com/gymsystem/booking/dto/SeriesBookingRequest.java
+package com.gymsystem.booking.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.util.List;
+
+/** Payload to book several sessions (e.g., the same weekly slot for a month) in one request. */
+@Data
+public class SeriesBookingRequest {
+    @NotEmpty @Size(max = 31)
+    private List<@NotNull Long> sessionIds; // sessions to book, processed in the given order
+}
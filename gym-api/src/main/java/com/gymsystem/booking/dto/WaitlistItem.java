@@ -0,0 +1,23 @@
+// src/main/java/com/gymsystem/booking/dto/WaitlistItem.java
+package com.gymsystem.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A member's place in a session waitlist.
+ */
+@Data
+@AllArgsConstructor
+public class WaitlistItem {
+    private Long entryId;
+    private Long sessionId;
+    private String classTypeCode;
+    private String classTypeName;
+    private Instant startAt;
+    private Instant endAt;
+    private Instant joinedAt;
+    private long position; // 1 = next to be promoted
+}
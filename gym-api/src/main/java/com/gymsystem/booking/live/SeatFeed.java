@@ -0,0 +1,176 @@
+// src/main/java/com/gymsystem/booking/live/SeatFeed.java
+package com.gymsystem.booking.live;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared fan-out of seat changes to Server-Sent Events clients (one connection per browser
+ * instead of calendar polling). Updates are coalesced per client and session, so a client holds
+ * at most one pending update per session; a periodic flush sends each client its pending batch
+ * from a small pool, one send in flight per client. A client whose backlog exceeds
+ * booking.live.max-pending-per-client while its previous send is still stuck is dropped; the
+ * browser's EventSource reconnects and reloads the calendar.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatFeed {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    @Value("${booking.live.max-clients:5000}")
+    private int maxClients;
+
+    @Value("${booking.live.max-pending-per-client:512}")
+    private int maxPendingPerClient;
+
+    @Value("${booking.live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${booking.live.heartbeat-ms:20000}")
+    private long heartbeatMs;
+
+    @Value("${booking.live.send-threads:2}")
+    private int sendThreads;
+
+    private ExecutorService sender;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        sender = Executors.newFixedThreadPool(Math.max(1, sendThreads), r -> {
+            var t = new Thread(r, "seat-feed-sender");
+            t.setDaemon(true);
+            return t;
+        });
+        dropped = Counter.builder("booking.live.clients.dropped")
+                .description("Live calendar clients dropped because they could not keep up")
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("booking.live.clients", List.of(), clients);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        clients.forEach(c -> c.emitter.complete());
+    }
+
+    /**
+     * Opens a stream for sessions starting in [from, to] (both optional), optionally of one class type.
+     * @return empty when this node already serves max-clients streams
+     */
+    public Optional<SseEmitter> subscribe(Instant from, Instant to, String typeCode) {
+        if (clients.size() >= maxClients) {
+            return Optional.empty();
+        }
+        var client = new Client(new SseEmitter(emitterTimeoutMs), from, to, typeCode);
+        client.emitter.onCompletion(() -> clients.remove(client));
+        client.emitter.onTimeout(() -> clients.remove(client));
+        client.emitter.onError(e -> clients.remove(client));
+        clients.add(client);
+        return Optional.of(client.emitter);
+    }
+
+    /** Queues the given seat states for every interested client; never blocks on the network. */
+    public void publish(Collection<SeatUpdate> updates) {
+        if (updates.isEmpty() || clients.isEmpty()) return;
+        for (var client : clients) {
+            for (var u : updates) {
+                if (client.accepts(u)) {
+                    client.pending.put(u.sessionId(), u); // coalesce: only the latest state per session
+                }
+            }
+            if (client.pending.size() > maxPendingPerClient) {
+                drop(client, "backlog of " + client.pending.size() + " sessions");
+            }
+        }
+    }
+
+    /** Hands every client with pending updates (or due a heartbeat) to the sender pool. */
+    @Scheduled(fixedDelayString = "${booking.live.flush-ms:500}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (var client : clients) {
+            boolean due = !client.pending.isEmpty() || now - client.lastSentMs >= heartbeatMs;
+            if (due && client.busy.compareAndSet(false, true)) {
+                sender.execute(() -> send(client));
+            }
+        }
+    }
+
+    private void send(Client client) {
+        try {
+            List<SeatUpdate> batch = new ArrayList<>(client.pending.size());
+            for (var sessionId : client.pending.keySet()) {
+                var u = client.pending.remove(sessionId);
+                if (u != null) batch.add(u);
+            }
+            if (batch.isEmpty()) {
+                client.emitter.send(SseEmitter.event().comment("keepalive"));
+            } else {
+                client.emitter.send(SseEmitter.event().name("seats").data(batch, MediaType.APPLICATION_JSON));
+            }
+            client.lastSentMs = System.currentTimeMillis();
+        } catch (Exception e) {
+            drop(client, e.getClass().getSimpleName());
+        } finally {
+            client.busy.set(false);
+        }
+    }
+
+    private void drop(Client client, String reason) {
+        if (clients.remove(client)) {
+            dropped.increment();
+            log.debug("Live calendar client dropped: {}", reason);
+            client.pending.clear();
+            client.emitter.complete();
+        }
+    }
+
+    private static final class Client {
+        final SseEmitter emitter;
+        final Instant from;
+        final Instant to;
+        final String typeCode;
+        final Map<Long, SeatUpdate> pending = new ConcurrentHashMap<>();
+        final AtomicBoolean busy = new AtomicBoolean();
+        volatile long lastSentMs = System.currentTimeMillis();
+
+        Client(SseEmitter emitter, Instant from, Instant to, String typeCode) {
+            this.emitter = emitter;
+            this.from = from;
+            this.to = to;
+            this.typeCode = typeCode;
+        }
+
+        boolean accepts(SeatUpdate u) {
+            return (from == null || !u.startAt().isBefore(from))
+                    && (to == null || !u.startAt().isAfter(to))
+                    && (typeCode == null || typeCode.equals(u.classTypeCode()));
+        }
+    }
+}
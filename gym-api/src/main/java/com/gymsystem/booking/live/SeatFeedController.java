@@ -0,0 +1,39 @@
+// src/main/java/com/gymsystem/booking/live/SeatFeedController.java
+package com.gymsystem.booking.live;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+
+/**
+ * Live seat availability for the booking screen, as Server-Sent Events.
+ * Each "seats" event carries a JSON array of {@link SeatUpdate}s (latest state per session);
+ * clients load the calendar once and then apply the updates instead of polling.
+ */
+@RestController
+@RequestMapping("/api/v1/classes/calendar/live")
+@RequiredArgsConstructor
+public class SeatFeedController {
+
+    private final SeatFeed seatFeed;
+
+    @GetMapping(produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "type", required = false) String typeCode
+    ) {
+        return seatFeed.subscribe(from, to, typeCode)
+                .map(ResponseEntity::ok)
+                // Node is full: let the client fall back to polling for a while
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .build());
+    }
+}
@@ -0,0 +1,20 @@
+// src/main/java/com/gymsystem/booking/live/SeatUpdate.java
+package com.gymsystem.booking.live;
+
+import java.time.Instant;
+
+/** Latest seat state of one session, as pushed to live calendar clients. */
+public record SeatUpdate(Long sessionId,
+                         String classTypeCode,
+                         Instant startAt,
+                         int capacity,
+                         int booked,
+                         int spotsLeft,
+                         boolean canceled) {
+
+    public static SeatUpdate of(Long sessionId, String classTypeCode, Instant startAt,
+                                int capacity, int booked, boolean canceled) {
+        return new SeatUpdate(sessionId, classTypeCode, startAt, capacity, booked,
+                Math.max(0, capacity - booked), canceled);
+    }
+}
@@ -0,0 +1,54 @@
+// src/main/java/com/gymsystem/booking/template/AdminSessionTemplateController.java
+package com.gymsystem.booking.template;
+
+import com.gymsystem.booking.template.dto.CreateSessionTemplateRequest;
+import com.gymsystem.booking.template.dto.SessionTemplateItem;
+import com.gymsystem.security.CurrentUser;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Admin endpoints to manage recurring session templates and override single slots. */
+@RestController
+@RequestMapping("/api/v1/admin/classes/templates")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN_APP','ADMIN_WEB')")
+public class AdminSessionTemplateController {
+
+    private final SessionTemplateService templateService;
+    private final CurrentUser currentUser;
+
+    @PostMapping
+    public ResponseEntity<SessionTemplateItem> create(@Valid @RequestBody CreateSessionTemplateRequest req) {
+        return ResponseEntity.ok(templateService.create(req));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SessionTemplateItem>> list() {
+        return ResponseEntity.ok(templateService.list());
+    }
+
+    /** Deactivates a template (no further slots are expanded). */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivate(@PathVariable Long id) {
+        templateService.deactivate(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Materializes one slot so it can be overridden with the regular session endpoints
+     * (e.g., DELETE /api/v1/admin/classes/sessions/{id} to cancel it).
+     * @return the id of the slot's session
+     */
+    @PostMapping("/{id}/slots")
+    public ResponseEntity<Long> materialize(@PathVariable Long id,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startAt) {
+        return ResponseEntity.ok(templateService.materialize(id, startAt, currentUser.id()));
+    }
+}
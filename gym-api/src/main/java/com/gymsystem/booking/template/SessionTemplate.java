@@ -0,0 +1,61 @@
+// src/main/java/com/gymsystem/booking/template/SessionTemplate.java
+package com.gymsystem.booking.template;
+
+import com.gymsystem.booking.ClassType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Recurring schedule of a class type: on the given weekdays, back-to-back slots of slotMinutes
+ * between startTime and endTime (UTC), from validFrom until validTo (inclusive, open if null).
+ */
+@Entity
+@Table(name = "session_templates")
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "class_type_id", nullable = false)
+    private ClassType classType;
+
+    @Column(nullable = false, length = 64)
+    private String days; // Weekday set, e.g. "MON-FRI" or "MON,WED,FRI"
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    @Column(name = "slot_minutes", nullable = false)
+    private int slotMinutes;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDate validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
+    @Column(nullable = false)
+    private boolean active; // Inactive templates expand to nothing; materialized sessions stay
+
+    @Column(name = "created_by_admin_id", nullable = false)
+    private Long createdByAdminId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
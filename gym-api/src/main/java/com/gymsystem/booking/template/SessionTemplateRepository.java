@@ -0,0 +1,32 @@
+// src/main/java/com/gymsystem/booking/template/SessionTemplateRepository.java
+package com.gymsystem.booking.template;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/** Repository for recurring session templates. */
+public interface SessionTemplateRepository extends JpaRepository<SessionTemplate, Long> {
+
+    /** Active templates valid on at least one day of [from, to], with their class type. */
+    @Query("""
+        SELECT t
+        FROM SessionTemplate t
+        JOIN FETCH t.classType ct
+        WHERE t.active = true
+          AND ct.active = true
+          AND t.validFrom <= :to
+          AND (t.validTo IS NULL OR t.validTo >= :from)
+    """)
+    List<SessionTemplate> findActiveOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT t FROM SessionTemplate t JOIN FETCH t.classType WHERE t.id = :id")
+    Optional<SessionTemplate> findWithTypeById(@Param("id") Long id);
+
+    @Query("SELECT t FROM SessionTemplate t JOIN FETCH t.classType ORDER BY t.id")
+    List<SessionTemplate> findAllWithType();
+}
@@ -0,0 +1,188 @@
+// src/main/java/com/gymsystem/booking/template/SessionTemplateService.java
+package com.gymsystem.booking.template;
+
+import com.gymsystem.booking.BusinessDays;
+import com.gymsystem.booking.ClassSessionRepository;
+import com.gymsystem.booking.ClassTypeRepository;
+import com.gymsystem.booking.SessionPartitions;
+import com.gymsystem.booking.calendar.SessionsChangedEvent;
+import com.gymsystem.booking.template.dto.CreateSessionTemplateRequest;
+import com.gymsystem.booking.template.dto.SessionTemplateItem;
+import com.gymsystem.i18n.I18n;
+import com.gymsystem.security.CurrentUser;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recurring session templates: admin management, lazy expansion into slots for read paths, and
+ * materialization of a single slot into class_sessions (first booking or admin override).
+ */
+@Service
+@RequiredArgsConstructor
+public class SessionTemplateService {
+
+    private final SessionTemplateRepository templateRepository;
+    private final ClassTypeRepository classTypeRepository;
+    private final ClassSessionRepository classSessionRepository;
+    private final CurrentUser currentUser;
+    private final SessionPartitions sessionPartitions;
+    private final ApplicationEventPublisher events;
+    private final I18n i18n;
+
+    @Transactional
+    public SessionTemplateItem create(CreateSessionTemplateRequest req) {
+        var classType = classTypeRepository.findByCodeAndActiveTrue(req.getClassTypeCode())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown or inactive class type: " + req.getClassTypeCode()));
+        BusinessDays.parse(req.getDays()); // validates the weekday notation
+        if (!req.getStartTime().plusMinutes(req.getSlotMinutes()).isAfter(req.getStartTime())
+                || req.getStartTime().plusMinutes(req.getSlotMinutes()).isAfter(req.getEndTime())) {
+            throw new IllegalArgumentException("Time range must fit at least one slot within the same day");
+        }
+        if (req.getValidTo() != null && req.getValidTo().isBefore(req.getValidFrom())) {
+            throw new IllegalArgumentException("validTo must not be before validFrom");
+        }
+
+        var saved = templateRepository.save(SessionTemplate.builder()
+                .classType(classType)
+                .days(req.getDays().trim().toUpperCase())
+                .startTime(req.getStartTime())
+                .endTime(req.getEndTime())
+                .slotMinutes(req.getSlotMinutes())
+                .capacity(req.getCapacity())
+                .validFrom(req.getValidFrom())
+                .validTo(req.getValidTo())
+                .active(true)
+                .createdByAdminId(currentUser.id())
+                .createdAt(Instant.now())
+                .build());
+        events.publishEvent(new TemplatesChangedEvent());
+        return toItem(saved);
+    }
+
+    public List<SessionTemplateItem> list() {
+        return templateRepository.findAllWithType().stream().map(SessionTemplateService::toItem).toList();
+    }
+
+    /** Stops future expansion; slots already materialized (booked or overridden) are kept. */
+    @Transactional
+    public void deactivate(Long templateId) {
+        var template = templateRepository.findById(templateId)
+                .orElseThrow(() -> new IllegalArgumentException("Template not found: " + templateId));
+        if (!template.isActive()) return;
+        template.setActive(false);
+        events.publishEvent(new TemplatesChangedEvent());
+    }
+
+    /** Every slot of the active templates starting in [from, to], whether materialized or not. */
+    public List<TemplateSlot> expand(Instant from, Instant to) {
+        var fromDate = from.atZone(ZoneOffset.UTC).toLocalDate();
+        var toDate = to.atZone(ZoneOffset.UTC).toLocalDate();
+        List<TemplateSlot> out = new ArrayList<>();
+        for (var t : templateRepository.findActiveOverlapping(fromDate, toDate)) {
+            expandInto(t, from, to, out);
+        }
+        return out;
+    }
+
+    /** Like {@link #expand}, minus the slots that already have a class_sessions row (booked, overridden or canceled). */
+    public List<TemplateSlot> expandUnmaterialized(Instant from, Instant to) {
+        var slots = expand(from, to);
+        if (slots.isEmpty()) return slots;
+        Set<String> existing = new HashSet<>();
+        for (var k : classSessionRepository.findKeysBetween(from, to)) {
+            existing.add(k.getClassTypeId() + "@" + k.getStartAt());
+        }
+        return slots.stream().filter(s -> !existing.contains(s.classTypeId() + "@" + s.startAt())).toList();
+    }
+
+    /**
+     * Returns the session of the given template slot, inserting its class_sessions row on first use.
+     * Concurrent callers for the same slot converge on one row through the (class_type_id, start_at)
+     * unique index. Runs in the caller's transaction, so a failed booking leaves nothing behind.
+     * @param adminId creator recorded on the row; the template's creator when null (member booking)
+     */
+    @Transactional
+    public Long materialize(Long templateId, Instant startAt, Long adminId) {
+        var t = templateRepository.findWithTypeById(templateId)
+                .filter(SessionTemplate::isActive)
+                .orElseThrow(() -> new IllegalArgumentException("Template not found: " + templateId));
+        var endAt = slotEnd(t, startAt);
+        if (endAt == null) {
+            throw new IllegalArgumentException("Not a slot of template " + templateId + ": " + startAt);
+        }
+        Long classTypeId = t.getClassType().getId();
+
+        if (adminId != null) {
+            sessionPartitions.ensure(startAt); // far-future slots create their month here (own transaction)
+        } else if (!sessionPartitions.exists(startAt)) {
+            // Member requests never run DDL: months ahead are pre-created by SessionPartitions
+            throw new IllegalStateException(i18n.msg("booking.month.not.open"));
+        }
+        int inserted = classSessionRepository.insertFromTemplate(classTypeId, startAt, endAt, t.getCapacity(),
+                adminId != null ? adminId : t.getCreatedByAdminId(), Instant.now(), templateId);
+        Long sessionId = classSessionRepository.findIdByClassTypeIdAndStartAt(classTypeId, startAt)
+                .orElseThrow(() -> new IllegalStateException("Session for slot could not be materialized"));
+        if (inserted > 0) {
+            events.publishEvent(SessionsChangedEvent.of(sessionId));
+        }
+        return sessionId;
+    }
+
+    /** Appends the slots of one template starting in [from, to]. */
+    private static void expandInto(SessionTemplate t, Instant from, Instant to, List<TemplateSlot> out) {
+        var days = BusinessDays.parse(t.getDays());
+        LocalDate first = max(from.atZone(ZoneOffset.UTC).toLocalDate(), t.getValidFrom());
+        LocalDate last = to.atZone(ZoneOffset.UTC).toLocalDate();
+        if (t.getValidTo() != null && t.getValidTo().isBefore(last)) last = t.getValidTo();
+
+        int startMin = t.getStartTime().toSecondOfDay() / 60;
+        int endMin = t.getEndTime().toSecondOfDay() / 60;
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            if (!days.contains(d.getDayOfWeek())) continue;
+            Instant midnight = d.atStartOfDay(ZoneOffset.UTC).toInstant();
+            for (int m = startMin; m + t.getSlotMinutes() <= endMin; m += t.getSlotMinutes()) {
+                Instant startAt = midnight.plus(m, ChronoUnit.MINUTES);
+                if (startAt.isBefore(from) || startAt.isAfter(to)) continue;
+                out.add(new TemplateSlot(t.getId(), t.getClassType().getId(), t.getClassType().getCode(),
+                        t.getClassType().getName(), startAt, startAt.plus(t.getSlotMinutes(), ChronoUnit.MINUTES),
+                        t.getCapacity()));
+            }
+        }
+    }
+
+    /** End of the template slot starting at startAt, or null if startAt is not one of its slots. */
+    private static Instant slotEnd(SessionTemplate t, Instant startAt) {
+        var z = startAt.atZone(ZoneOffset.UTC);
+        var date = z.toLocalDate();
+        if (date.isBefore(t.getValidFrom()) || (t.getValidTo() != null && date.isAfter(t.getValidTo()))) return null;
+        if (!BusinessDays.parse(t.getDays()).contains(date.getDayOfWeek())) return null;
+        if (z.getSecond() != 0 || z.getNano() != 0) return null;
+
+        int minute = z.getHour() * 60 + z.getMinute();
+        int startMin = t.getStartTime().toSecondOfDay() / 60;
+        int endMin = t.getEndTime().toSecondOfDay() / 60;
+        if (minute < startMin || (minute - startMin) % t.getSlotMinutes() != 0) return null;
+        if (minute + t.getSlotMinutes() > endMin) return null;
+        return startAt.plus(t.getSlotMinutes(), ChronoUnit.MINUTES);
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static SessionTemplateItem toItem(SessionTemplate t) {
+        return new SessionTemplateItem(t.getId(), t.getClassType().getCode(), t.getDays(), t.getStartTime(),
+                t.getEndTime(), t.getSlotMinutes(), t.getCapacity(), t.getValidFrom(), t.getValidTo(), t.isActive());
+    }
+}
@@ -0,0 +1,14 @@
+// src/main/java/com/gymsystem/booking/template/TemplateSlot.java
+package com.gymsystem.booking.template;
+
+import java.time.Instant;
+
+/** One occurrence of a template that has no class_sessions row yet. */
+public record TemplateSlot(Long templateId,
+                           Long classTypeId,
+                           String classTypeCode,
+                           String classTypeName,
+                           Instant startAt,
+                           Instant endAt,
+                           int capacity) {
+}
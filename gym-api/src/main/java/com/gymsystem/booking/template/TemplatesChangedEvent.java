@@ -0,0 +1,6 @@
+// src/main/java/com/gymsystem/booking/template/TemplatesChangedEvent.java
+package com.gymsystem.booking.template;
+
+/** Published when a session template is created or deactivated; every expanded month may change. */
+public record TemplatesChangedEvent() {
+}
@@ -0,0 +1,35 @@
+// src/main/java/com/gymsystem/booking/template/dto/CreateSessionTemplateRequest.java
+package com.gymsystem.booking.template.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/** Admin payload to create a recurring session template. */
+@Data
+public class CreateSessionTemplateRequest {
+    @NotBlank @Size(max = 64)
+    private String classTypeCode; // target class type code
+
+    @NotBlank @Size(max = 64)
+    private String days;          // e.g., "MON-FRI" or "MON,WED,FRI"
+
+    @NotNull
+    private LocalTime startTime;  // first slot start (UTC)
+
+    @NotNull
+    private LocalTime endTime;    // slots must end by this time (UTC)
+
+    @Min(15) @Max(480)
+    private int slotMinutes;      // length of each session
+
+    @Min(1) @Max(1000)
+    private int capacity;         // capacity per session
+
+    @NotNull
+    private LocalDate validFrom;  // first day the template applies
+
+    private LocalDate validTo;    // last day (inclusive); open-ended when null
+}
@@ -0,0 +1,24 @@
+// src/main/java/com/gymsystem/booking/template/dto/SessionTemplateItem.java
+package com.gymsystem.booking.template.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/** Admin view of a session template. */
+@Data
+@AllArgsConstructor
+public class SessionTemplateItem {
+    private Long id;
+    private String classTypeCode;
+    private String days;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int slotMinutes;
+    private int capacity;
+    private LocalDate validFrom;
+    private LocalDate validTo;
+    private boolean active;
+}
@@ -0,0 +1,84 @@
+// src/main/java/com/gymsystem/booking/waitingroom/InMemoryWaitingRoomBackend.java
+package com.gymsystem.booking.waitingroom;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default backend: the queue of the current window in memory, per node (correct only behind
+ * sticky sessions, and admit-per-second then applies per node). Opening another window drops the
+ * previous one. The frontier moves by admitPerSecond on every {@link #advance} call (once a second).
+ */
+@Component
+public class InMemoryWaitingRoomBackend implements WaitingRoomBackend {
+
+    private final Map<Long, Slot> tickets = new ConcurrentHashMap<>(); // userId -> ticket
+    private final AtomicLong lastIssued = new AtomicLong();              // highest ticket handed out
+    private final AtomicLong admittedThrough = new AtomicLong();          // tickets <= this may book
+
+    private volatile Instant window;
+
+    private static final class Slot {
+        final long number;
+        volatile Instant admittedUntil;
+
+        Slot(long number) {
+            this.number = number;
+        }
+    }
+
+    @Override
+    public synchronized void open(Instant window) {
+        if (Objects.equals(window, this.window)) return;
+        tickets.clear();
+        lastIssued.set(0);
+        admittedThrough.set(0);
+        this.window = window;
+    }
+
+    @Override
+    public Ticket join(Instant window, long userId, int maxTickets) {
+        if (!window.equals(this.window)) return null;
+        var slot = tickets.computeIfAbsent(userId, id ->
+                tickets.size() >= maxTickets ? null : new Slot(lastIssued.incrementAndGet()));
+        return slot == null ? null : ticket(slot);
+    }
+
+    @Override
+    public Ticket find(Instant window, long userId) {
+        if (!window.equals(this.window)) return null;
+        var slot = tickets.get(userId);
+        return slot == null ? null : ticket(slot);
+    }
+
+    @Override
+    public void advance(Instant window, int admitPerSecond) {
+        if (!window.equals(this.window)) return;
+        long issued = lastIssued.get();
+        admittedThrough.updateAndGet(a -> Math.min(issued, a + admitPerSecond));
+    }
+
+    @Override
+    public Instant startPass(Instant window, long userId, Instant until) {
+        var slot = tickets.get(userId);
+        if (slot == null) return until;
+        synchronized (slot) {
+            if (slot.admittedUntil == null) slot.admittedUntil = until;
+            return slot.admittedUntil;
+        }
+    }
+
+    @Override
+    public void remove(Instant window, long userId, long number) {
+        tickets.computeIfPresent(userId, (id, slot) -> slot.number == number ? null : slot);
+    }
+
+    private Ticket ticket(Slot slot) {
+        return new Ticket(slot.number, slot.admittedUntil, admittedThrough.get());
+    }
+}
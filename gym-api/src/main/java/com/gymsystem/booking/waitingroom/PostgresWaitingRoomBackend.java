@@ -0,0 +1,147 @@
+// src/main/java/com/gymsystem/booking/waitingroom/PostgresWaitingRoomBackend.java
+package com.gymsystem.booking.waitingroom;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * One queue per window shared by every replica, in the UNLOGGED tables of V27. Tickets come from a
+ * database sequence, so they are ordered across nodes, and the frontier is advanced on the
+ * database clock by elapsed seconds: every node may call {@link #advance} each second and the
+ * cluster still admits admit-per-second in total. Windows older than a day are deleted when the
+ * next one opens.
+ * <p>
+ * Every call runs in its own short transaction, so a pass consumed by a booking that then fails
+ * stays consumed.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "booking.waiting-room.backend", havingValue = "postgres")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresWaitingRoomBackend implements WaitingRoomBackend {
+
+    private static final RowMapper<Ticket> TICKET = (rs, i) -> {
+        Timestamp until = rs.getTimestamp("admitted_until");
+        return new Ticket(rs.getLong("number"), until == null ? null : until.toInstant(), rs.getLong("admitted_through"));
+    };
+
+    private static final String FIND_SQL = """
+        SELECT t.number - w.base AS number, t.admitted_until, w.admitted_through
+          FROM waiting_room_tickets t
+          JOIN waiting_room_windows w ON w.opens_at = t.opens_at
+         WHERE t.opens_at = ? AND t.user_id = ?
+    """;
+
+    /** Issues the next number unless the window already issued maxTickets (sequence gaps count too). */
+    private static final String ISSUE_SQL = """
+        INSERT INTO waiting_room_tickets (opens_at, user_id, number)
+        SELECT w.opens_at, ?, nextval('waiting_room_ticket_seq')
+          FROM waiting_room_windows w
+         WHERE w.opens_at = ?
+           AND (SELECT last_value FROM waiting_room_ticket_seq) - w.base < ?
+        ON CONFLICT (opens_at, user_id) DO NOTHING
+    """;
+
+    private static final String ADVANCE_SQL = """
+        UPDATE waiting_room_windows w
+           SET admitted_through = GREATEST(w.admitted_through,
+                   LEAST((SELECT last_value FROM waiting_room_ticket_seq) - w.base,
+                         w.admitted_through + ? * FLOOR(EXTRACT(EPOCH FROM (clock_timestamp() - w.advanced_at))))),
+               advanced_at = w.advanced_at + FLOOR(EXTRACT(EPOCH FROM (clock_timestamp() - w.advanced_at))) * INTERVAL '1 second'
+         WHERE w.opens_at = ?
+           AND w.advanced_at <= clock_timestamp() - INTERVAL '1 second'
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate ownTransaction;
+
+    @PostConstruct
+    void init() {
+        ownTransaction = new TransactionTemplate(transactionManager);
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void open(Instant window) {
+        ownTransaction.executeWithoutResult(status -> create(window));
+    }
+
+    @Override
+    public Ticket join(Instant window, long userId, int maxTickets) {
+        return ownTransaction.execute(status -> {
+            var ticket = find(window, userId);
+            if (ticket != null) return ticket;
+            jdbcTemplate.update(ISSUE_SQL, userId, ts(window), maxTickets);
+            return find(window, userId); // ours, or a concurrent join's of the same member
+        });
+    }
+
+    @Override
+    public Ticket find(Instant window, long userId) {
+        return jdbcTemplate.query(FIND_SQL, TICKET, ts(window), userId).stream().findFirst().orElse(null);
+    }
+
+    @Override
+    public void advance(Instant window, int admitPerSecond) {
+        ownTransaction.executeWithoutResult(status -> {
+            if (jdbcTemplate.update(ADVANCE_SQL, admitPerSecond, ts(window)) == 0) {
+                create(window); // no-op unless the row was lost (crash of the UNLOGGED table)
+            }
+        });
+    }
+
+    @Override
+    public Instant startPass(Instant window, long userId, Instant until) {
+        return ownTransaction.execute(status -> jdbcTemplate.query("""
+            UPDATE waiting_room_tickets
+               SET admitted_until = COALESCE(admitted_until, ?)
+             WHERE opens_at = ? AND user_id = ?
+            RETURNING admitted_until
+        """, (rs, i) -> rs.getTimestamp(1).toInstant(), ts(until), ts(window), userId)
+                .stream().findFirst().orElse(until));
+    }
+
+    @Override
+    public void remove(Instant window, long userId, long number) {
+        ownTransaction.executeWithoutResult(status -> jdbcTemplate.update("""
+            DELETE FROM waiting_room_tickets t
+             USING waiting_room_windows w
+             WHERE t.opens_at = ? AND t.user_id = ?
+               AND w.opens_at = t.opens_at
+               AND t.number - w.base = ?
+        """, ts(window), userId, number));
+    }
+
+    /** Creates the window row (the nextval is skipped when it exists) and drops windows older than a day. */
+    private void create(Instant window) {
+        int created = jdbcTemplate.update("""
+            INSERT INTO waiting_room_windows (opens_at, base, advanced_at)
+            SELECT CAST(? AS TIMESTAMPTZ), nextval('waiting_room_ticket_seq'), clock_timestamp()
+             WHERE NOT EXISTS (SELECT 1 FROM waiting_room_windows WHERE opens_at = ?)
+            ON CONFLICT (opens_at) DO NOTHING
+        """, ts(window), ts(window));
+        if (created == 0) return;
+        jdbcTemplate.update("DELETE FROM waiting_room_tickets WHERE opens_at < CAST(? AS TIMESTAMPTZ) - INTERVAL '1 day'", ts(window));
+        jdbcTemplate.update("DELETE FROM waiting_room_windows WHERE opens_at < CAST(? AS TIMESTAMPTZ) - INTERVAL '1 day'", ts(window));
+        log.info("Shared waiting room window created: opensAt={}", window);
+    }
+
+    private static Timestamp ts(Instant instant) {
+        return Timestamp.from(instant);
+    }
+}
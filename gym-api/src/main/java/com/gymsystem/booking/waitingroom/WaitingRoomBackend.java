@@ -0,0 +1,46 @@
+// src/main/java/com/gymsystem/booking/waitingroom/WaitingRoomBackend.java
+package com.gymsystem.booking.waitingroom;
+
+import java.time.Instant;
+
+/**
+ * Where waiting room tickets and the admission frontier are kept, per opening window (identified
+ * by the instant the month opens). Selected with booking.waiting-room.backend: "memory" (per node,
+ * the default) or "postgres" (one queue shared by every replica).
+ * Ticket numbers are relative to the window: the first ticket of a window is 1.
+ */
+public interface WaitingRoomBackend {
+
+    /** Prepares an empty queue for the window (no-op if it already exists). */
+    void open(Instant window);
+
+    /**
+     * Ticket of the member, issuing the next one if the member has none.
+     * @return null when the member has no ticket and the window already issued "maxTickets"
+     */
+    Ticket join(Instant window, long userId, int maxTickets);
+
+    /** Ticket of the member, or null. */
+    Ticket find(Instant window, long userId);
+
+    /** Moves the frontier by "admitPerSecond" per second elapsed, never past the last ticket issued. */
+    void advance(Instant window, int admitPerSecond);
+
+    /** Starts the pass of an admitted ticket, unless already started; returns when the pass ends. */
+    Instant startPass(Instant window, long userId, Instant until);
+
+    /** Drops the member's ticket if it is still "number" (the member must queue again). */
+    void remove(Instant window, long userId, long number);
+
+    /**
+     * A member's place in the queue, read together with the frontier.
+     * @param admittedUntil end of the admission pass, null until first seen admitted
+     * @param admittedThrough tickets up to this one may book
+     */
+    record Ticket(long number, Instant admittedUntil, long admittedThrough) {
+
+        boolean admitted() {
+            return number <= admittedThrough;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+// src/main/java/com/gymsystem/booking/waitingroom/WaitingRoomController.java
+package com.gymsystem.booking.waitingroom;
+
+import com.gymsystem.booking.waitingroom.dto.QueueStatusResponse;
+import com.gymsystem.security.CurrentUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Waiting room endpoints used while a month opens for booking.
+ * Clients join once, then poll the status until "admitted" is true before calling POST /book.
+ */
+@RestController
+@RequestMapping("/api/v1/classes/queue")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoom;
+    private final CurrentUser currentUser;
+
+    /** Takes (or returns the existing) queue ticket for the current user. */
+    @PostMapping
+    public ResponseEntity<QueueStatusResponse> join() {
+        return ResponseEntity.ok(waitingRoom.join(currentUser.id()));
+    }
+
+    /** Queue position, ETA and admission status for the current user. */
+    @GetMapping
+    public ResponseEntity<QueueStatusResponse> status() {
+        return ResponseEntity.ok(waitingRoom.status(currentUser.id()));
+    }
+}
@@ -0,0 +1,159 @@
+// src/main/java/com/gymsystem/booking/waitingroom/WaitingRoomService.java
+package com.gymsystem.booking.waitingroom;
+
+import com.gymsystem.booking.config.BookingSettingsCache;
+import com.gymsystem.booking.waitingroom.WaitingRoomBackend.Ticket;
+import com.gymsystem.booking.waitingroom.dto.QueueStatusResponse;
+import com.gymsystem.i18n.I18n;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Virtual waiting room for the moment a month opens for booking
+ * (first day of the month minus publishDaysBeforeMonth, see BookingService).
+ *
+ * While the room is active, members take a FIFO ticket and only "admitPerSecond" tickets per
+ * second are let into bookSession, which keeps DB concurrency bounded during the spike.
+ * Outside the window the room is inactive and booking is not gated at all.
+ *
+ * Tickets and the admission frontier live in a {@link WaitingRoomBackend}: in memory per node by
+ * default (sticky sessions, admit-per-second per node), or in Postgres, shared by every replica
+ * behind a round-robin balancer (admit-per-second for the whole cluster). Every node decides
+ * on its own clock whether the room is active; the window is the same everywhere.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoomService {
+
+    private final BookingSettingsCache bookingSettings;
+    private final I18n i18n;
+    private final WaitingRoomBackend backend;
+
+    @Value("${booking.waiting-room.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.waiting-room.admit-per-second:50}")
+    private int admitPerSecond;
+
+    @Value("${booking.waiting-room.lead-seconds:300}")
+    private long leadSeconds;
+
+    @Value("${booking.waiting-room.active-minutes:30}")
+    private long activeMinutes;
+
+    @Value("${booking.waiting-room.pass-ttl-seconds:600}")
+    private long passTtlSeconds;
+
+    @Value("${booking.waiting-room.max-tickets:200000}")
+    private int maxTickets;
+
+    /** Opening instant of the active window; null while the room is inactive. */
+    private volatile Instant window;
+
+    /**
+     * Advances the admission frontier once per second and opens/closes the room around the
+     * monthly opening instant. Never admits more tickets than were issued, so a quiet queue
+     * cannot bank admissions for a later burst.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        Instant current = enabled ? openingWindow(Instant.now()) : null;
+        if (!Objects.equals(current, window)) {
+            log.info("Booking waiting room {}", current != null ? "opened" : "closed");
+            if (current != null) backend.open(current);
+            window = current;
+        }
+        if (current == null) return;
+
+        backend.advance(current, admitPerSecond);
+    }
+
+    /** Joins the queue (idempotent: a member keeps the ticket already held). */
+    public QueueStatusResponse join(Long userId) {
+        Instant w = window;
+        if (w == null) return inactive();
+        Ticket t = backend.join(w, userId, maxTickets);
+        if (t == null) {
+            throw new IllegalStateException(i18n.msg("booking.queue.full"));
+        }
+        return status(w, userId, t);
+    }
+
+    /** Current queue position/ETA for the member. */
+    public QueueStatusResponse status(Long userId) {
+        Instant w = window;
+        if (w == null) return inactive();
+        return status(w, userId, backend.find(w, userId));
+    }
+
+    private QueueStatusResponse status(Instant w, Long userId, Ticket t) {
+        if (t == null) {
+            return new QueueStatusResponse(true, null, 0, 0, false, null, 1);
+        }
+        if (t.admitted()) {
+            return new QueueStatusResponse(true, t.number(), 0, 0, true, passUntil(w, userId, t), 0);
+        }
+        long position = Math.max(0, t.number() - t.admittedThrough());
+        long eta = (position + admitPerSecond - 1) / Math.max(1, admitPerSecond);
+        int pollAfter = (int) Math.min(10, Math.max(1, eta / 2));
+        return new QueueStatusResponse(true, t.number(), position, eta, false, null, pollAfter);
+    }
+
+    /**
+     * Gate used by bookSession. No-op while the room is inactive; otherwise requires an
+     * admitted, non-expired ticket.
+     */
+    public void assertAdmitted(Long userId) {
+        Instant w = window;
+        if (w == null) return;
+        Ticket t = backend.find(w, userId);
+        if (t == null) {
+            throw new IllegalStateException(i18n.msg("booking.queue.required"));
+        }
+        if (!t.admitted()) {
+            throw new IllegalStateException(i18n.msg("booking.queue.waiting", t.number() - t.admittedThrough()));
+        }
+        if (Instant.now().isAfter(passUntil(w, userId, t))) {
+            backend.remove(w, userId, t.number()); // pass used up: the member must queue again
+            throw new IllegalStateException(i18n.msg("booking.queue.required"));
+        }
+    }
+
+    /** End of the pass of an admitted ticket, started the first time the ticket is seen admitted. */
+    private Instant passUntil(Instant w, Long userId, Ticket t) {
+        if (t.admittedUntil() != null) return t.admittedUntil();
+        return backend.startPass(w, userId, Instant.now().plusSeconds(passTtlSeconds));
+    }
+
+    /**
+     * Opening instant whose window [openAt - lead, openAt + activeMinutes] contains "now", for the
+     * opening of the next month or the one after (publishDaysBeforeMonth may reach back into this
+     * month); null outside both.
+     */
+    private Instant openingWindow(Instant now) {
+        int publishDays = bookingSettings.get().publishDaysBeforeMonth();
+        var firstOfThisMonth = ZonedDateTime.ofInstant(now, ZoneOffset.UTC)
+                .withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        for (int ahead = 1; ahead <= 2; ahead++) {
+            Instant openAt = firstOfThisMonth.plusMonths(ahead).minusDays(publishDays).toInstant();
+            if (!now.isBefore(openAt.minusSeconds(leadSeconds))
+                    && now.isBefore(openAt.plusSeconds(activeMinutes * 60))) {
+                return openAt;
+            }
+        }
+        return null;
+    }
+
+    private QueueStatusResponse inactive() {
+        return new QueueStatusResponse(false, null, 0, 0, true, null, 0);
+    }
+}
@@ -0,0 +1,20 @@
+// src/main/java/com/gymsystem/booking/waitingroom/dto/QueueStatusResponse.java
+package com.gymsystem.booking.waitingroom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/** Waiting room state as seen by one member; clients poll it until "admitted" is true. */
+@Data
+@AllArgsConstructor
+public class QueueStatusResponse {
+    private boolean active;        // false when no booking window is opening (booking is not gated)
+    private Long ticket;           // queue ticket number (null if the member has not joined)
+    private long position;         // members ahead of this ticket (0 once admitted)
+    private long etaSeconds;       // rough wait based on the configured admission rate
+    private boolean admitted;      // true when the member may call POST /book
+    private Instant admittedUntil; // admission pass expiry (null until admitted)
+    private int pollAfterSeconds;  // suggested delay before polling again
+}
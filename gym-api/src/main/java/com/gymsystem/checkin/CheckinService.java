@@ -4,11 +4,10 @@ package com.gymsystem.checkin;
 import com.gymsystem.checkin.dto.StartCheckinRequest;
 import com.gymsystem.checkin.dto.StartCheckinResponse;
 import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -20,7 +19,7 @@ import java.util.UUID;
 public class CheckinService {
 
     private final CheckinRepository repository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @Value("${checkin.callback-secret}")
     private String callbackSecret;
@@ -28,7 +27,7 @@ public class CheckinService {
     /** Starts a check-in depending on the provider. DIRECT completes instantly. */
     @Transactional
     public StartCheckinResponse start(StartCheckinRequest req) {
-        User user = currentUser();
+        User user = currentUser.reference();
 
         CheckinProvider provider = CheckinProvider.valueOf(req.getProvider().toUpperCase());
         String providerRef = "CHK-" + UUID.randomUUID();
@@ -77,11 +76,6 @@ public class CheckinService {
 
     /** Current user's check-in history. */
     public java.util.List<Checkin> myHistory() {
-        return repository.findByUserIdOrderByStartedAtDesc(currentUser().getId());
-    }
-
-    private User currentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email).orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
+        return repository.findByUserIdOrderByStartedAtDesc(currentUser.id());
     }
 }
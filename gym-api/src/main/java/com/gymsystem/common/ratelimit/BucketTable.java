@@ -0,0 +1,211 @@
+// src/main/java/com/gymsystem/common/ratelimit/BucketTable.java
+package com.gymsystem.common.ratelimit;
+
+/**
+ * Token buckets of one namespace, keyed by primitive long ids.
+ * <p>
+ * Each bucket is a single "theoretical arrival time" (GCRA): a request at {@code now} is allowed
+ * while {@code tat - now <= interval * (burst - 1)} and then moves tat forward by one interval.
+ * A bucket whose tat is not after {@code now} is full, i.e. exactly like a bucket that does not
+ * exist, so such entries can be dropped at any time without changing any decision.
+ * <p>
+ * Storage is striped open addressing (linear probing over {@code long[]} pairs, one lock per
+ * stripe), so lookups and updates do not allocate. A stripe grows up to its share of
+ * maxKeys; once there, expired entries are purged and, if the stripe is still full, the bucket
+ * closest to full is evicted (that key is briefly not limited).
+ */
+final class BucketTable {
+
+    /** Evictions reported back to the owner for metrics. */
+    interface EvictionListener {
+        void evicted(int expired, int capacity);
+    }
+
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int maxStripeCapacity;
+    private final int maxStripeSize;
+    private final EvictionListener listener;
+
+    BucketTable(int stripeCount, int maxKeys, EvictionListener listener) {
+        int n = Integer.highestOneBit(Math.max(1, stripeCount));
+        this.stripes = new Stripe[n];
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(n);
+        this.maxStripeSize = Math.max(1, maxKeys / n);
+        // load factor 3/4: a stripe of this capacity can hold maxStripeSize buckets
+        int perStripe = maxStripeSize * 4 / 3 + 1;
+        this.maxStripeCapacity = Math.max(INITIAL_STRIPE_CAPACITY, Integer.highestOneBit(perStripe - 1) << 1);
+        this.listener = listener;
+        for (int i = 0; i < n; i++) stripes[i] = new Stripe();
+    }
+
+    /**
+     * Takes one token of the bucket "key". {@code now} must be positive (0 marks empty slots).
+     * @return false when the bucket is empty
+     */
+    boolean tryAcquire(long key, long now, long intervalNanos, long toleranceNanos) {
+        long h = mix(key);
+        return stripes[(int) (h >>> stripeShift) & (stripes.length - 1)]
+                .tryAcquire(key, (int) h, now, intervalNanos, toleranceNanos);
+    }
+
+    /**
+     * Sets the bucket's tat to "tat", forward or back; used to copy the state of an
+     * authoritative view kept elsewhere. A tat not after {@code now} drops the bucket (full).
+     */
+    void align(long key, long now, long tat) {
+        long h = mix(key);
+        stripes[(int) (h >>> stripeShift) & (stripes.length - 1)].align(key, (int) h, now, tat);
+    }
+
+    /** Drops every bucket that is full again. */
+    void purgeExpired(long now) {
+        int expired = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                expired += s.purge(now);
+            }
+        }
+        if (expired > 0) listener.evicted(expired, 0);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe s : stripes) size += s.size;
+        return size;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private final class Stripe {
+        private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+        private long[] tats = new long[INITIAL_STRIPE_CAPACITY];
+        private volatile int size;
+        /** Lower bound of every tat in the stripe: nothing expires before this. */
+        private long earliestTat = Long.MAX_VALUE;
+
+        synchronized boolean tryAcquire(long key, int hash, long now, long interval, long tolerance) {
+            int i = find(key, hash);
+            if (tats[i] != 0) {
+                long tat = Math.max(tats[i], now);
+                if (tat - now > tolerance) return false;
+                tats[i] = tat + interval;
+                return true;
+            }
+            // No bucket means a full one: always allowed
+            insert(key, hash, i, now, now + interval);
+            return true;
+        }
+
+        synchronized void align(long key, int hash, long now, long tat) {
+            int i = find(key, hash);
+            if (tat <= now) {
+                if (tats[i] != 0) removeAt(i);
+            } else if (tats[i] != 0) {
+                tats[i] = tat;
+                earliestTat = Math.min(earliestTat, tat);
+            } else {
+                insert(key, hash, i, now, tat);
+            }
+        }
+
+        /** Slot holding "key", or the empty slot where it would go. */
+        private int find(long key, int hash) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            while (tats[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            return i;
+        }
+
+        private void insert(long key, int hash, int slot, long now, long tat) {
+            if (size + 1 > limit()) {
+                makeRoom(now);
+                slot = find(key, hash);
+            }
+            keys[slot] = key;
+            tats[slot] = tat;
+            earliestTat = Math.min(earliestTat, tat);
+            size++;
+        }
+
+        private void makeRoom(long now) {
+            if (keys.length < maxStripeCapacity) {
+                int before = size;
+                rebuild(keys.length << 1, now);
+                if (before > size) listener.evicted(before - size, 0);
+                return;
+            }
+            int expired = purge(now);
+            int evicted = 0;
+            while (size + 1 > limit()) {
+                removeAt(oldest());
+                evicted++;
+            }
+            listener.evicted(expired, evicted);
+        }
+
+        private int limit() {
+            return keys.length < maxStripeCapacity ? keys.length * 3 / 4 : maxStripeSize;
+        }
+
+        /** Rebuilds the stripe without expired buckets; cheap no-op while none can have expired. */
+        int purge(long now) {
+            if (size == 0 || now < earliestTat) return 0;
+            int before = size;
+            rebuild(keys.length, now);
+            return before - size;
+        }
+
+        private void rebuild(int capacity, long now) {
+            long[] oldKeys = keys, oldTats = tats;
+            keys = new long[capacity];
+            tats = new long[capacity];
+            int mask = capacity - 1, n = 0;
+            long earliest = Long.MAX_VALUE;
+            for (int j = 0; j < oldTats.length; j++) {
+                long tat = oldTats[j];
+                if (tat == 0 || tat <= now) continue;
+                int i = (int) mix(oldKeys[j]) & mask;
+                while (tats[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                tats[i] = tat;
+                earliest = Math.min(earliest, tat);
+                n++;
+            }
+            size = n;
+            earliestTat = earliest;
+        }
+
+        private int oldest() {
+            int best = -1;
+            for (int j = 0; j < tats.length; j++) {
+                if (tats[j] != 0 && (best < 0 || tats[j] < tats[best])) best = j;
+            }
+            return best;
+        }
+
+        /** Linear-probing delete: shifts later entries of the cluster back so lookups still find them. */
+        private void removeAt(int i) {
+            int mask = keys.length - 1;
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (tats[j] == 0) break;
+                int home = (int) mix(keys[j]) & mask;
+                boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays) {
+                    keys[i] = keys[j];
+                    tats[i] = tats[j];
+                    i = j;
+                }
+            }
+            tats[i] = 0;
+            size--;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+// src/main/java/com/gymsystem/common/ratelimit/InMemoryRateLimitBackend.java
+package com.gymsystem.common.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default backend: buckets in memory, per node (correct only behind sticky sessions).
+ * Each namespace keeps at most ratelimit.max-keys-per-namespace buckets; buckets that refilled
+ * completely are dropped by a periodic sweep or when space is needed.
+ * Also serves as the near-cache of {@link PostgresRateLimitBackend}.
+ */
+@Component
+@RequiredArgsConstructor
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, BucketTable> namespaces = new ConcurrentHashMap<>();
+
+    private final long origin = System.nanoTime();
+
+    @Value("${ratelimit.max-keys-per-namespace:65536}")
+    private int maxKeysPerNamespace;
+
+    @Value("${ratelimit.stripes:16}")
+    private int stripes;
+
+    @Override
+    public boolean tryAcquire(String namespace, long key, int burst, long intervalNanos) {
+        return table(namespace).tryAcquire(key, now(), intervalNanos, intervalNanos * (burst - 1));
+    }
+
+    /** Sets the bucket to the state "aheadNanos" past now reported by an authoritative store. */
+    void align(String namespace, long key, long aheadNanos) {
+        long now = now();
+        table(namespace).align(key, now, now + aheadNanos);
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-ms:60000}")
+    public void sweep() {
+        long now = now();
+        for (BucketTable table : namespaces.values()) table.purgeExpired(now);
+    }
+
+    /** Positive, monotonic clock in nanos (0 marks empty table slots). */
+    private long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    private BucketTable table(String namespace) {
+        BucketTable table = namespaces.get(namespace);
+        return table != null ? table : namespaces.computeIfAbsent(namespace, this::register);
+    }
+
+    private BucketTable register(String namespace) {
+        Tags tags = Tags.of("namespace", namespace);
+        Counter expired = meterRegistry.counter("ratelimit.evictions", tags.and("reason", "expired"));
+        Counter capacity = meterRegistry.counter("ratelimit.evictions", tags.and("reason", "capacity"));
+        var table = new BucketTable(stripes, maxKeysPerNamespace, (e, c) -> {
+            if (e > 0) expired.increment(e);
+            if (c > 0) capacity.increment(c);
+        });
+        meterRegistry.gauge("ratelimit.keys", tags, table, BucketTable::size);
+        return table;
+    }
+}
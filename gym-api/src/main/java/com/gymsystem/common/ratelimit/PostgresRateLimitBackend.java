@@ -0,0 +1,120 @@
+// src/main/java/com/gymsystem/common/ratelimit/PostgresRateLimitBackend.java
+package com.gymsystem.common.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cluster-wide buckets in the UNLOGGED table rate_limit_buckets, for replicas behind a
+ * round-robin balancer. Same GCRA rule as the in-memory table, applied by one atomic upsert
+ * on the database clock, in its own short transaction (the row lock is not held for the rest
+ * of the caller's transaction, and a rolled-back booking still spends its token).
+ * <p>
+ * The node's {@link InMemoryRateLimitBackend} is a near-cache in front of it. A call first takes
+ * a local token; if the local bucket is empty the call is refused without a database round trip,
+ * otherwise the upsert decides and the local bucket is then set to the state the database
+ * returned (this also gives back the local token when the database refuses). Between two round
+ * trips the local bucket only adds this node's own calls to the last database state, so it never
+ * runs ahead of the cluster, except briefly while a call on the same key is between its local
+ * token and its database answer. If the database fails the call is allowed (fail open).
+ * <p>
+ * Call it outside any transaction: the upsert takes its own connection, and doing that while a
+ * request already holds one can exhaust the pool under load.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "ratelimit.backend", havingValue = "postgres")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresRateLimitBackend implements RateLimitBackend {
+
+    /**
+     * Fresh bucket: inserted already holding one request. Existing bucket: takes a token only while
+     * tat <= now + tolerance, i.e. EXCLUDED.tat + (tolerance - interval); otherwise the row is left as is.
+     * Returns whether the token was taken and how far tat lies ahead of the database clock.
+     */
+    private static final String ACQUIRE_SQL = """
+        WITH taken AS (
+            INSERT INTO rate_limit_buckets AS b (namespace, bucket_key, tat)
+            VALUES (?, ?, clock_timestamp() + ? * INTERVAL '1 microsecond')
+            ON CONFLICT (namespace, bucket_key) DO UPDATE
+               SET tat = GREATEST(b.tat + ? * INTERVAL '1 microsecond', EXCLUDED.tat)
+             WHERE b.tat <= EXCLUDED.tat + ? * INTERVAL '1 microsecond'
+            RETURNING tat
+        ), seen AS (
+            SELECT TRUE AS allowed, tat FROM taken
+            UNION ALL
+            SELECT FALSE, tat FROM rate_limit_buckets
+             WHERE namespace = ? AND bucket_key = ? AND NOT EXISTS (SELECT 1 FROM taken)
+        )
+        SELECT allowed, CAST(EXTRACT(EPOCH FROM (tat - clock_timestamp())) * 1000000 AS BIGINT) AS ahead_us
+          FROM seen
+    """;
+
+    private final InMemoryRateLimitBackend local;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private TransactionTemplate ownTransaction;
+    private Counter localRejections;
+    private Counter dbChecks;
+    private Counter dbErrors;
+
+    @PostConstruct
+    void init() {
+        ownTransaction = new TransactionTemplate(transactionManager);
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        localRejections = Counter.builder("ratelimit.postgres.local-rejections")
+                .description("Calls refused by the near-cache without a database round trip")
+                .register(meterRegistry);
+        dbChecks = meterRegistry.counter("ratelimit.postgres.checks");
+        dbErrors = meterRegistry.counter("ratelimit.postgres.errors");
+    }
+
+    @Override
+    public boolean tryAcquire(String namespace, long key, int burst, long intervalNanos) {
+        if (!local.tryAcquire(namespace, key, burst, intervalNanos)) {
+            localRejections.increment();
+            return false;
+        }
+        long interval = Math.max(1, intervalNanos / 1000);
+        long slack = interval * (burst - 1) - interval; // tolerance - interval
+        try {
+            dbChecks.increment();
+            var outcome = ownTransaction.execute(status -> jdbcTemplate.query(ACQUIRE_SQL, rs -> {
+                if (!rs.next()) return null; // rejected and swept in between: treat as allowed
+                return new Outcome(rs.getBoolean("allowed"), rs.getLong("ahead_us"));
+            }, namespace, key, interval, interval, slack, namespace, key));
+            if (outcome == null) return true;
+            local.align(namespace, key, outcome.aheadMicros() * 1000);
+            return outcome.allowed();
+        } catch (DataAccessException | TransactionException e) { // e.g. no connection to begin with
+            dbErrors.increment();
+            log.warn("Rate limit check failed, allowing: namespace={} key={}: {}", namespace, key, e.getMessage());
+            return true;
+        }
+    }
+
+    /** Expired rows are the same as absent ones; every node may run this. */
+    @Scheduled(fixedDelayString = "${ratelimit.postgres.cleanup-ms:300000}")
+    public void cleanup() {
+        int deleted = jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE tat < clock_timestamp()");
+        log.debug("Rate limit buckets cleaned: deleted={}", deleted);
+    }
+
+    private record Outcome(boolean allowed, long aheadMicros) {}
+}
@@ -0,0 +1,16 @@
+// src/main/java/com/gymsystem/common/ratelimit/RateLimitBackend.java
+package com.gymsystem.common.ratelimit;
+
+/**
+ * Where token buckets are kept. Selected with ratelimit.backend: "memory" (per node, the default)
+ * or "postgres" (shared by every replica).
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Takes one token from the bucket (namespace, key), which holds up to "burst" tokens and
+     * gains one every "intervalNanos".
+     * @return false when the bucket is empty
+     */
+    boolean tryAcquire(String namespace, long key, int burst, long intervalNanos);
+}
@@ -1,28 +1,47 @@
 // src/main/java/com/gymsystem/common/ratelimit/RateLimiter.java
 package com.gymsystem.common.ratelimit;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
- * Minimal in-memory rate limiter: enforces a minimum interval (ms) per key.
- * Good enough to protect from double-clicks behind a load balancer sticky session.
+ * Token-bucket rate limiter. Buckets live in a namespace ("book", "cancel", ...) and are keyed by a
+ * primitive id, usually the user id; where they are kept is up to the {@link RateLimitBackend}.
+ * <p>
+ * Metrics: ratelimit.rejections (tagged with the namespace) plus the backend's own.
  */
 @Component
+@RequiredArgsConstructor
 public class RateLimiter {
 
-    private final Map<String, Long> lastTouch = new ConcurrentHashMap<>();
+    private final RateLimitBackend backend;
+    private final MeterRegistry meterRegistry;
 
     /**
-     * Throws IllegalStateException if called again before "minIntervalMs" has elapsed for the given key.
+     * Takes one token from the bucket (namespace, key). The bucket holds up to "burst" tokens and
+     * gains one every "refillIntervalMs".
+     * @return false when the bucket is empty
      */
-    public void enforceMinInterval(String key, long minIntervalMs, String errorMessage) {
-        long now = System.currentTimeMillis();
-        Long prev = lastTouch.put(key, now);
-        if (prev != null && (now - prev) < minIntervalMs) {
+    public boolean tryAcquire(String namespace, long key, int burst, long refillIntervalMs) {
+        if (burst < 1 || refillIntervalMs <= 0) return true;
+        if (backend.tryAcquire(namespace, key, burst, refillIntervalMs * 1_000_000L)) return true;
+        meterRegistry.counter("ratelimit.rejections", "namespace", namespace).increment();
+        return false;
+    }
+
+    /** Throws IllegalStateException (409) when the bucket is empty. */
+    public void enforce(String namespace, long key, int burst, long refillIntervalMs, String errorMessage) {
+        if (!tryAcquire(namespace, key, burst, refillIntervalMs)) {
             throw new IllegalStateException(errorMessage);
         }
     }
+
+    /**
+     * Throws IllegalStateException if called again before "minIntervalMs" has elapsed for the given key
+     * (a bucket of one token).
+     */
+    public void enforceMinInterval(String namespace, long key, long minIntervalMs, String errorMessage) {
+        enforce(namespace, key, 1, minIntervalMs, errorMessage);
+    }
 }
@@ -17,6 +17,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins(allowedOrigins.split(","))
                 .allowedMethods("GET","POST","PUT","PATCH","DELETE","OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag", "X-Next-Cursor") // readable by browser clients (conditional GET, paging)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -2,13 +2,12 @@
 package com.gymsystem.documents;
 
 import com.gymsystem.documents.dto.UploadResponse;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.security.CurrentUser;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -25,7 +24,7 @@ public class DocumentController {
     private final DocumentService service;
     private final LocalStorageService storage;
     private final UserDocumentRepository repository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     @GetMapping
     public ResponseEntity<List<UserDocument>> listMy() {
@@ -52,9 +51,7 @@ public class DocumentController {
     public ResponseEntity<FileSystemResource> download(@PathVariable Long id) {
         var doc = repository.findById(id).orElseThrow(() -> new IllegalArgumentException("Document not found"));
 
-        var email = SecurityContextHolder.getContext().getAuthentication().getName();
-        var me = userRepository.findByEmail(email).orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
-        if (!doc.getUser().getId().equals(me.getId())) {
+        if (!doc.getUser().getId().equals(currentUser.id())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
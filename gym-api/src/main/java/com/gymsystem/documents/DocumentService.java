@@ -3,11 +3,10 @@ package com.gymsystem.documents;
 
 import com.gymsystem.documents.dto.UploadResponse;
 import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -29,11 +28,11 @@ public class DocumentService {
 
     private final UserDocumentRepository repository;
     private final LocalStorageService storage;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     /** Lists current user's documents ordered by most recent. */
     public List<UserDocument> myDocuments() {
-        User me = currentUser();
+        User me = currentUser.reference();
         return repository.findByUserIdOrderByUploadedAtDesc(me.getId());
     }
 
@@ -45,7 +44,7 @@ public class DocumentService {
     /** Uploads a file for the current user and returns a small response. */
     @Transactional
     public UploadResponse uploadMy(String title, String category, MultipartFile file) throws Exception {
-        User me = currentUser();
+        User me = currentUser.reference();
 
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File is required");
@@ -77,7 +76,7 @@ public class DocumentService {
     /** Soft authorization: only owner or admin should be allowed (admin route uses separate controller). */
     @Transactional
     public void deleteMy(Long documentId) throws Exception {
-        User me = currentUser();
+        User me = currentUser.reference();
         var doc = repository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
         if (!doc.getUser().getId().equals(me.getId())) {
             throw new SecurityException("Not allowed to delete this document");
@@ -86,11 +85,6 @@ public class DocumentService {
         repository.delete(doc);
     }
 
-    private User currentUser() {
-        var email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email).orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
-    }
-
     /** Uses provided content type and probes as a fallback to avoid spoofed headers. */
     private String detectMime(MultipartFile file) throws Exception {
         String headerType = file.getContentType();
@@ -0,0 +1,275 @@
+// src/main/java/com/gymsystem/payments/BillingExecutor.java
+package com.gymsystem.payments;
+
+import com.gymsystem.payments.gateway.PaymentGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charges a page of payments in parallel, one virtual thread per payment.
+ * At most payments.charging.max-concurrency gateway calls are in flight on this node (shared by
+ * concurrent runs). A charge is two-phase: the payment is marked CHARGING in a short transaction,
+ * the gateway is called with no connection or row lock held, and the outcome (PAID, subscription
+ * roll, next invoice; or back to PENDING) is written in a second short transaction. The DB pool
+ * therefore only needs to cover the short writes, not the gateway concurrency. Marking CHARGING
+ * renews the lease, so a charge only starts with a lease that outlives the gateway call.
+ * <p>
+ * Metrics: payments.charge.gateway (latency) and payments.charge.outcomes (tagged with the outcome).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BillingExecutor {
+
+    /** What happened to one payment of the page. */
+    public enum Outcome {
+        PAID,
+        /** Declined by the gateway, retried by a later run after the backoff. */
+        RETRY,
+        /** Declined on the last attempt: the subscription must go PAST_DUE. */
+        EXHAUSTED,
+        /** Settled by a provider callback, or no longer leased to this run, before the write. */
+        SETTLED,
+        /** Not attempted before the run deadline; picked up by the next run. */
+        DEFERRED,
+        /** Writing the outcome failed; the payment stays CHARGING until the recovery sweep finishes it. */
+        ERROR,
+        /** Failed or interrupted charge whose result the gateway cannot tell: parked in NEEDS_REVIEW. */
+        REVIEW
+    }
+
+    private final PaymentRepository paymentRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final PaymentGateway gateway;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payments.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${payments.charging.max-concurrency:32}")
+    private int maxConcurrency;
+
+    private Semaphore gatewaySlots;
+    private Timer gatewayLatency;
+    private Counter recovered;
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    @PostConstruct
+    void init() {
+        gatewaySlots = new Semaphore(Math.max(1, maxConcurrency));
+        gatewayLatency = Timer.builder("payments.charge.gateway")
+                .description("Latency of PaymentGateway.charge")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        recovered = Counter.builder("payments.charge.recovered")
+                .description("CHARGING payments finished by the recovery sweep")
+                .register(meterRegistry);
+        for (Outcome o : Outcome.values()) {
+            outcomes.put(o, meterRegistry.counter("payments.charge.outcomes", "outcome", o.name().toLowerCase()));
+        }
+    }
+
+    /**
+     * Charges every payment and waits for all of them.
+     * @return the outcome of each payment, in the order of "payments"
+     */
+    public List<Outcome> chargeAll(List<Payment> payments, String leaseOwner, long leaseSeconds, Instant deadline) {
+        List<Outcome> result = new ArrayList<>(payments.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Outcome>> futures = payments.stream()
+                    .map(p -> executor.submit(() -> charge(p, leaseOwner, leaseSeconds, deadline)))
+                    .toList();
+            for (int i = 0; i < futures.size(); i++) {
+                result.add(await(futures.get(i), payments.get(i)));
+            }
+        }
+        return result;
+    }
+
+    private Outcome await(Future<Outcome> future, Payment p) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return count(Outcome.DEFERRED);
+        } catch (ExecutionException e) {
+            log.error("Recording charge outcome failed paymentId={}", p.getId(), e.getCause());
+            return count(Outcome.ERROR);
+        }
+    }
+
+    /**
+     * Three steps, none of them holding a connection across the gateway call: mark CHARGING
+     * (short transaction, only while the lease is still valid, renewing it for "leaseSeconds"),
+     * call the gateway, write the outcome (second short transaction).
+     */
+    private Outcome charge(Payment p, String leaseOwner, long leaseSeconds, Instant deadline) throws InterruptedException {
+        long waitMs = Duration.between(Instant.now(), deadline).toMillis();
+        if (waitMs <= 0 || !gatewaySlots.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+            return count(Outcome.DEFERRED);
+        }
+
+        PaymentGateway.ChargeResult res = null;
+        boolean unknown = false;
+        try {
+            Instant attemptAt = Instant.now();
+            if (paymentRepository.startCharge(p.getId(), leaseOwner, leaseSeconds, attemptAt) == 0) {
+                return count(Outcome.SETTLED);
+            }
+            p.setStatus(PaymentStatus.CHARGING);
+            p.setAttemptCount(p.getAttemptCount() + 1);
+            p.setLastAttemptAt(attemptAt);
+
+            long started = System.nanoTime();
+            try {
+                res = gateway.charge(p);
+            } catch (Exception e) {
+                // e.g. a timeout: the provider may have taken the money anyway
+                log.warn("Charge attempt failed paymentId={}", p.getId(), e);
+                unknown = true;
+            } finally {
+                gatewayLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            gatewaySlots.release();
+        }
+
+        if (unknown || res == null) {
+            return count(settleUnknown(p, leaseOwner));
+        }
+        var accepted = res.accepted() ? res : null;
+        return count(transactionTemplate.execute(status -> finish(p, leaseOwner, accepted)));
+    }
+
+    /**
+     * Finishes CHARGING payments left behind by runs that died between the two phases (their
+     * lease expired): asks the gateway what happened and records it. Only a charge the gateway
+     * reports as not accepted goes back to PENDING; when it cannot tell, the money may have been
+     * taken, so the payment goes to NEEDS_REVIEW and is never charged again automatically.
+     * @return subscription ids whose payment ran out of attempts (for the PAST_DUE batch)
+     */
+    public List<Long> recoverStuck(String leaseOwner, long leaseSeconds, int limit) {
+        List<Long> exhausted = new ArrayList<>();
+        for (Payment p : paymentRepository.findStuckCharging(Instant.now(), Limit.of(limit))) {
+            if (paymentRepository.takeOverStuck(p.getId(), leaseOwner, leaseSeconds) == 0) continue;
+
+            Outcome outcome = count(settleUnknown(p, leaseOwner));
+            recovered.increment();
+            log.warn("Recovered payment stuck in CHARGING paymentId={} outcome={}", p.getId(), outcome);
+            if (outcome == Outcome.EXHAUSTED) exhausted.add(p.getSubscription().getId());
+        }
+        return exhausted;
+    }
+
+    /**
+     * Settles a CHARGING payment whose charge may or may not have gone through (the call failed,
+     * or the run died before recording it): asks the gateway and records a known result; when it
+     * cannot tell, parks the payment in NEEDS_REVIEW so it is never charged twice.
+     */
+    private Outcome settleUnknown(Payment p, String leaseOwner) {
+        Optional<PaymentGateway.ChargeResult> known;
+        try {
+            known = gateway.lookup(p);
+        } catch (Exception e) {
+            log.warn("Charge lookup failed paymentId={}", p.getId(), e);
+            known = Optional.empty();
+        }
+        if (known.isPresent()) {
+            var accepted = known.get().accepted() ? known.get() : null;
+            return transactionTemplate.execute(status -> finish(p, leaseOwner, accepted));
+        }
+        if (paymentRepository.finishCharge(p.getId(), leaseOwner, PaymentStatus.NEEDS_REVIEW, null, null) == 0) {
+            return Outcome.SETTLED;
+        }
+        log.error("Charge outcome unknown, payment needs review paymentId={}", p.getId());
+        return Outcome.REVIEW;
+    }
+
+    /** Writes the outcome of a CHARGING payment; "accepted" is null when the gateway declined the charge. */
+    private Outcome finish(Payment p, String leaseOwner, PaymentGateway.ChargeResult accepted) {
+        if (accepted != null) {
+            if (paymentRepository.finishCharge(p.getId(), leaseOwner, PaymentStatus.PAID,
+                    accepted.providerRef(), Instant.now()) == 0) {
+                return Outcome.SETTLED;
+            }
+            rollSubscription(p.getSubscription()); // create next invoice
+            return Outcome.PAID;
+        }
+        // Failure path with retries: back to PENDING; PAST_DUE handling is batched by the scheduler
+        if (paymentRepository.finishCharge(p.getId(), leaseOwner, PaymentStatus.PENDING, null, null) == 0) {
+            return Outcome.SETTLED;
+        }
+        return p.getAttemptCount() >= maxAttempts ? Outcome.EXHAUSTED : Outcome.RETRY;
+    }
+
+    private Outcome count(Outcome o) {
+        outcomes.get(o).increment();
+        return o;
+    }
+
+    /** Rolls subscription period and creates next invoice when a charge succeeds (caller's transaction). */
+    private void rollSubscription(Subscription s) {
+        s = subscriptionRepository.findById(s.getId()).orElseThrow();
+
+        // If subscriber was PAST_DUE and we got a successful charge, set back to ACTIVE
+        if (s.getStatus() == SubscriptionStatus.PAST_DUE) {
+            s.setStatus(SubscriptionStatus.ACTIVE);
+        }
+
+        // Move window forward one month based on the stored billingDay
+        var nextPeriod = computeNextPeriodFromEnd(s, s.getCurrentPeriodEnd());
+        s.setCurrentPeriodStart(nextPeriod.start());
+        s.setCurrentPeriodEnd(nextPeriod.end());
+        s.setNextBillingAt(nextPeriod.end());
+        subscriptionRepository.save(s);
+
+        // Create next invoice (PENDING) for the new cycle
+        Payment next = Payment.builder()
+                .subscription(s)
+                .amountCents(s.getPriceCents())
+                .currency(s.getCurrency())
+                .status(PaymentStatus.PENDING)
+                .provider("MOCK")
+                .dueAt(s.getNextBillingAt())
+                .createdAt(Instant.now())
+                .attemptCount(0)      // ensure Payment entity has these fields
+                .build();
+        paymentRepository.save(next);
+    }
+
+    // Minimal monthly step based on billingDay stored on subscription
+    private record Period(java.time.Instant start, java.time.Instant end) {}
+    private Period computeNextPeriodFromEnd(Subscription s, Instant prevEnd) {
+        var z = prevEnd.atZone(java.time.ZoneOffset.UTC);
+        var nextStart = clampDay(z, s.getBillingDay());
+        var nextEnd = clampDay(z.plusMonths(1), s.getBillingDay());
+        return new Period(nextStart.toInstant(), nextEnd.toInstant());
+    }
+    private java.time.ZonedDateTime clampDay(java.time.ZonedDateTime base, int billingDay) {
+        int last = base.toLocalDate().lengthOfMonth();
+        int day = Math.min(billingDay, last);
+        return base.withDayOfMonth(day).withHour(0).withMinute(0).withSecond(0).withNano(0);
+    }
+}
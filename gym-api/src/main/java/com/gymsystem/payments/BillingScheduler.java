@@ -2,24 +2,30 @@
 package com.gymsystem.payments;
 
 import com.gymsystem.notifications.EmailService;
-import com.gymsystem.payments.gateway.PaymentGateway;
 import com.gymsystem.user.User;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.gymsystem.booking.BookingEnforcer;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Periodically processes due invoices:
- * - tries to charge PENDING payments (max N attempts with backoff)
+ * - first finishes CHARGING payments left behind by a crashed run (lease expired)
+ * - tries to charge PENDING payments (max N attempts with backoff), page by page, each page
+ *   charged in parallel by {@link BillingExecutor} until the run deadline
  * - on success: marks PAID, rolls subscription, creates next invoice
  * - on repeated failures: marks subscription PAST_DUE and sends reminder
+ *   (in batches, so bookings of many members are canceled in a few statements)
  */
 @Component
 @RequiredArgsConstructor
@@ -28,124 +34,116 @@ public class BillingScheduler {
 
     private final PaymentRepository paymentRepository;
     private final SubscriptionRepository subscriptionRepository;
-    private final PaymentGateway gateway;
     private final EmailService emailService;
     private final BookingEnforcer bookingEnforcer;
-
-    @Value("${payments.max-attempts:3}")
-    private int maxAttempts;
+    private final BillingExecutor billingExecutor;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${payments.retry-backoff-minutes:60}")
     private long backoffMinutes;
 
-    /** Runs every minute (dev). In prod, consider every 5-15 minutes. */
-    @Scheduled(cron = "${payments.scheduler.cron:0 * * * * *}")
-    public void run() {
-        List<Payment> due = paymentRepository.findDuePending(Instant.now());
-        for (Payment p : due) {
-            // Honor backoff between attempts
-            if (p.getLastAttemptAt() != null &&
-                    Duration.between(p.getLastAttemptAt(), Instant.now()).toMinutes() < backoffMinutes) {
-                continue;
-            }
-            tryCharge(p);
-        }
-    }
+    @Value("${payments.scheduler.page-size:500}")
+    private int pageSize;
 
-    @Transactional
-    void tryCharge(Payment p) {
-        // Refresh for transactional consistency
-        p = paymentRepository.findById(p.getId()).orElse(null);
-        if (p == null || p.getStatus() != PaymentStatus.PENDING) return;
+    @Value("${payments.scheduler.lease-seconds:900}")
+    private long leaseSeconds;
 
-        p.setAttemptCount(p.getAttemptCount() + 1);
-        p.setLastAttemptAt(Instant.now());
+    @Value("${payments.charging.run-deadline-minutes:30}")
+    private long runDeadlineMinutes;
 
-        try {
-            var res = gateway .charge(p);
-            if (res.accepted()) {
-                p.setStatus(PaymentStatus.PAID);
-                p.setProviderRef(res.providerRef());
-                p.setPaidAt(Instant.now());
-                paymentRepository.save(p);
+    @Value("${payments.past-due.batch-size:500}")
+    private int pastDueBatchSize;
 
-                rollSubscription(p.getSubscription()); // create next invoice
-                return;
+    /**
+     * Runs every minute (dev). In prod, consider every 5-15 minutes.
+     * Every node runs it: each run claims pages of due payments under its own lease (SKIP LOCKED),
+     * so replicas drain the backlog together and a payment is charged by one run only. Heap use
+     * and statements per page stay bounded however large the backlog is (1st/15th of the month).
+     */
+    @Scheduled(cron = "${payments.scheduler.cron:0 * * * * *}")
+    public void run() {
+        Instant now = Instant.now();
+        Instant retryBefore = now.minus(Duration.ofMinutes(backoffMinutes)); // backoff between attempts
+        Instant deadline = now.plus(Duration.ofMinutes(runDeadlineMinutes));
+        long started = System.nanoTime();
+        Map<BillingExecutor.Outcome, Integer> totals = new EnumMap<>(BillingExecutor.Outcome.class);
+        String leaseOwner = UUID.randomUUID().toString();
+        List<Long> exhausted = new ArrayList<>(billingExecutor.recoverStuck(leaseOwner, leaseSeconds, pageSize));
+        List<Long> claimed;
+        do {
+            if (Instant.now().isAfter(deadline)) {
+                log.warn("Billing run reached its deadline of {} min; remaining payments wait for the next run",
+                        runDeadlineMinutes);
+                break;
             }
-        } catch (Exception e) {
-            // log and fall-through to retry branch
-            log.warn("Charge attempt failed paymentId={}", p.getId(), e);
-        }
+            claimed = paymentRepository.claimDue(now, retryBefore, leaseOwner, leaseSeconds, pageSize);
+            if (claimed.isEmpty()) break;
+            var page = paymentRepository.findClaimed(claimed);
+            var outcomes = billingExecutor.chargeAll(page, leaseOwner, leaseSeconds, deadline);
+            List<Long> deferred = new ArrayList<>();
+            for (int i = 0; i < page.size(); i++) {
+                if (outcomes.get(i) == BillingExecutor.Outcome.DEFERRED) deferred.add(page.get(i).getId());
+                totals.merge(outcomes.get(i), 1, Integer::sum);
+                if (outcomes.get(i) == BillingExecutor.Outcome.EXHAUSTED) {
+                    exhausted.add(page.get(i).getSubscription().getId());
+                }
+                if (exhausted.size() >= pastDueBatchSize) {
+                    markPastDueAndNotify(exhausted); // never throws
+                    exhausted.clear();
+                }
+            }
+            if (!deferred.isEmpty()) paymentRepository.releaseLeases(deferred, leaseOwner); // for any node
+        } while (claimed.size() == pageSize);
 
-        // Failure path with retries
-        if (p.getAttemptCount() >= maxAttempts) {
-            paymentRepository.save(p);
-            markPastDueAndNotify(p.getSubscription());
-        } else {
-            paymentRepository.save(p); // keep as PENDING for future retries
-        }
-    }
+        if (!exhausted.isEmpty()) markPastDueAndNotify(exhausted);
 
-    private void markPastDueAndNotify(Subscription sub) {
-        sub = subscriptionRepository.findById(sub.getId()).orElseThrow();
-        if (sub.getStatus() == SubscriptionStatus.ACTIVE) {
-            sub.setStatus(SubscriptionStatus.PAST_DUE);
-            subscriptionRepository.save(sub);
+        int attempted = totals.values().stream().mapToInt(Integer::intValue).sum()
+                - totals.getOrDefault(BillingExecutor.Outcome.DEFERRED, 0);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        if (attempted > 0) {
+            log.info("Billing run: charged={} in {}s ({} /s) outcomes={}",
+                    attempted, String.format("%.1f", seconds), String.format("%.1f", attempted / seconds), totals);
         }
-
-        int canceled = bookingEnforcer.enforcePastDue(sub.getUser().getId());
-        log.info("PAST_DUE enforcement: userId={} canceledBookings={}", sub.getUser().getId(), canceled);
-
-        User u = sub.getUser();
-        emailService.sendPaymentReminder(
-                u,
-                "Payment failed - Action required",
-                "Your subscription is past due and future class bookings were suspended. Please update your payment method."
-        );
     }
 
-    /** Rolls subscription period and creates next invoice when a charge succeeds. */
-    @Transactional
-    public void rollSubscription(Subscription s) {
-        s = subscriptionRepository.findById(s.getId()).orElseThrow();
-
-        // If subscriber was PAST_DUE and we got a successful charge, set back to ACTIVE
-        if (s.getStatus() == SubscriptionStatus.PAST_DUE) {
-            s.setStatus(SubscriptionStatus.ACTIVE);
+    /**
+     * Marks one chunk of subscriptions PAST_DUE and cancels the future bookings of all their
+     * members with a single bulk statement, in one transaction, then sends the reminders.
+     * Failures are logged and never leave the billing run: the payments are already settled.
+     */
+    private void markPastDueAndNotify(List<Long> subscriptionIds) {
+        PastDue pastDue;
+        try {
+            pastDue = transactionTemplate.execute(status -> {
+                List<Subscription> subs = subscriptionRepository.findAllWithUserByIdIn(subscriptionIds);
+                List<Long> userIds = new ArrayList<>(subs.size());
+                for (Subscription sub : subs) {
+                    if (sub.getStatus() == SubscriptionStatus.ACTIVE) {
+                        sub.setStatus(SubscriptionStatus.PAST_DUE); // managed: flushed on commit
+                    }
+                    userIds.add(sub.getUser().getId());
+                }
+                return new PastDue(subs, bookingEnforcer.enforcePastDue(userIds));
+            });
+        } catch (RuntimeException e) {
+            log.error("PAST_DUE enforcement failed for subscriptions {}: {}", subscriptionIds, e.getMessage(), e);
+            return;
         }
 
-        // Move window forward one month based on the stored billingDay
-        var nextPeriod = computeNextPeriodFromEnd(s, s.getCurrentPeriodEnd());
-        s.setCurrentPeriodStart(nextPeriod.start());
-        s.setCurrentPeriodEnd(nextPeriod.end());
-        s.setNextBillingAt(nextPeriod.end());
-        subscriptionRepository.save(s);
-
-        // Create next invoice (PENDING) for the new cycle
-        Payment next = Payment.builder()
-                .subscription(s)
-                .amountCents(s.getPriceCents())
-                .currency(s.getCurrency())
-                .status(PaymentStatus.PENDING)
-                .provider("MOCK")
-                .dueAt(s.getNextBillingAt())
-                .createdAt(Instant.now())
-                .attemptCount(0)      // ensure Payment entity has these fields
-                .build();
-        paymentRepository.save(next);
+        for (Subscription sub : pastDue.subscriptions()) {
+            User u = sub.getUser();
+            log.info("PAST_DUE enforcement: userId={} canceledBookings={}", u.getId(), pastDue.canceled().getOrDefault(u.getId(), 0));
+            try {
+                emailService.sendPaymentReminder(
+                        u,
+                        "Payment failed - Action required",
+                        "Your subscription is past due and future class bookings were suspended. Please update your payment method."
+                );
+            } catch (RuntimeException e) {
+                log.warn("Payment reminder not sent: userId={}: {}", u.getId(), e.getMessage());
+            }
+        }
     }
 
-    // Minimal monthly step based on billingDay stored on subscription
-    private record Period(java.time.Instant start, java.time.Instant end) {}
-    private Period computeNextPeriodFromEnd(Subscription s, Instant prevEnd) {
-        var z = prevEnd.atZone(java.time.ZoneOffset.UTC);
-        var nextStart = clampDay(z, s.getBillingDay());
-        var nextEnd = clampDay(z.plusMonths(1), s.getBillingDay());
-        return new Period(nextStart.toInstant(), nextEnd.toInstant());
-    }
-    private java.time.ZonedDateTime clampDay(java.time.ZonedDateTime base, int billingDay) {
-        int last = base.toLocalDate().lengthOfMonth();
-        int day = Math.min(billingDay, last);
-        return base.withDayOfMonth(day).withHour(0).withMinute(0).withSecond(0).withNano(0);
-    }
+    private record PastDue(List<Subscription> subscriptions, Map<Long, Integer> canceled) {}
 }
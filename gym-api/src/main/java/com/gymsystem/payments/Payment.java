@@ -47,4 +47,11 @@ public class Payment {
 
     @Column(name = "last_attempt_at")
     private Instant lastAttemptAt;
+
+    /** Billing run that claimed the payment (see PaymentRepository#claimDue); null when free. */
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
 }
@@ -1,19 +1,166 @@
 // src/main/java/com/gymsystem/payments/PaymentRepository.java
 package com.gymsystem.payments;
 
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.time.Instant;
 import org.springframework.data.jpa.repository.Query;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findBySubscriptionIdOrderByCreatedAtDesc(Long subscriptionId);
-    // Payments due and still pending (for scheduler)
-    @Query("select p from Payment p " +
-            "where p.status = com.gymsystem.payments.PaymentStatus.PENDING " +
-            "and p.dueAt <= :now " +
-            "order by p.dueAt asc")
-    List<Payment> findDuePending(Instant now);
+
+    /**
+     * Claims up to "limit" payments due and still pending (for scheduler), oldest due first, by
+     * leasing them to "owner" for "leaseSeconds" (database clock). Payments attempted at/after
+     * "retryBefore" are still backing off, and payments leased by another run are skipped;
+     * SKIP LOCKED lets concurrent runs on other nodes claim disjoint sets without waiting.
+     * Served by idx_payments_pending_due. Returns the claimed ids; commits on its own.
+     */
+    @Transactional
+    @Query(value = """
+        WITH claimable AS (
+            SELECT id
+              FROM payments
+             WHERE status = 'PENDING'
+               AND due_at <= :now
+               AND (last_attempt_at IS NULL OR last_attempt_at < :retryBefore)
+               AND (lease_until IS NULL OR lease_until < clock_timestamp())
+             ORDER BY due_at, id
+             LIMIT :limit
+               FOR UPDATE SKIP LOCKED
+        )
+        UPDATE payments p
+           SET lease_owner = :owner,
+               lease_until = clock_timestamp() + :leaseSeconds * INTERVAL '1 second'
+          FROM claimable c
+         WHERE p.id = c.id
+        RETURNING p.id
+    """, nativeQuery = true)
+    List<Long> claimDue(@Param("now") Instant now,
+                        @Param("retryBefore") Instant retryBefore,
+                        @Param("owner") String owner,
+                        @Param("leaseSeconds") long leaseSeconds,
+                        @Param("limit") int limit);
+
+    /** Claimed payments with subscription and user, in claim order. */
+    @Query("""
+        select p
+          from Payment p
+          join fetch p.subscription s
+          join fetch s.user
+         where p.id in :ids
+         order by p.dueAt asc, p.id asc
+    """)
+    List<Payment> findClaimed(@Param("ids") List<Long> ids);
+
+    /** Gives back leases of payments the run did not attempt (deadline reached). */
+    @Transactional
+    @Modifying
+    @Query("""
+        update Payment p
+           set p.leaseOwner = null,
+               p.leaseUntil = null
+         where p.id in :ids
+           and p.leaseOwner = :owner
+    """)
+    int releaseLeases(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    /**
+     * Phase 1 of a charge: moves a payment leased to "owner" from PENDING to CHARGING, counts the
+     * attempt and renews the lease for the gateway call, in its own short transaction. Only while
+     * the lease is still valid on the database clock: an expired lease may already belong to
+     * another run. Returns 0 when the payment was settled or the lease lost meanwhile.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE payments
+           SET status = 'CHARGING',
+               attempt_count = attempt_count + 1,
+               last_attempt_at = :attemptAt,
+               lease_until = clock_timestamp() + :leaseSeconds * INTERVAL '1 second'
+         WHERE id = :id
+           AND status = 'PENDING'
+           AND lease_owner = :owner
+           AND lease_until > clock_timestamp()
+    """, nativeQuery = true)
+    int startCharge(@Param("id") Long id,
+                    @Param("owner") String owner,
+                    @Param("leaseSeconds") long leaseSeconds,
+                    @Param("attemptAt") Instant attemptAt);
+
+    /**
+     * Phase 2: writes the gateway outcome (PAID, back to PENDING for a retry, or NEEDS_REVIEW when
+     * unknown) and ends the lease,
+     * only while the payment is still CHARGING under "owner" (a provider callback may have settled
+     * it meanwhile). Returns 0 in that case.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update Payment p
+           set p.status = :status,
+               p.providerRef = coalesce(:providerRef, p.providerRef),
+               p.paidAt = :paidAt,
+               p.leaseOwner = null,
+               p.leaseUntil = null
+         where p.id = :id
+           and p.status = com.gymsystem.payments.PaymentStatus.CHARGING
+           and p.leaseOwner = :owner
+    """)
+    int finishCharge(@Param("id") Long id,
+                     @Param("owner") String owner,
+                     @Param("status") PaymentStatus status,
+                     @Param("providerRef") String providerRef,
+                     @Param("paidAt") Instant paidAt);
+
+    /**
+     * Provider callback: settles a payment that is still open (PENDING, CHARGING or NEEDS_REVIEW)
+     * and ends any lease. The status check in the statement decides which of concurrent callbacks
+     * and billing writes wins; returns 0 when the payment was already settled.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update Payment p
+           set p.status = :status,
+               p.paidAt = :paidAt,
+               p.leaseOwner = null,
+               p.leaseUntil = null
+         where p.id = :id
+           and p.status in (com.gymsystem.payments.PaymentStatus.PENDING,
+                            com.gymsystem.payments.PaymentStatus.CHARGING,
+                            com.gymsystem.payments.PaymentStatus.NEEDS_REVIEW)
+    """)
+    int settleOpen(@Param("id") Long id, @Param("status") PaymentStatus status, @Param("paidAt") Instant paidAt);
+
+    /** CHARGING payments whose lease expired: the run died between the two phases. */
+    @Query("""
+        select p
+          from Payment p
+          join fetch p.subscription
+         where p.status = com.gymsystem.payments.PaymentStatus.CHARGING
+           and p.leaseUntil < :now
+         order by p.leaseUntil asc
+    """)
+    List<Payment> findStuckCharging(@Param("now") Instant now, Limit limit);
+
+    /** Takes over a stuck CHARGING payment for recovery; 0 when another run got it first. */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE payments
+           SET lease_owner = :owner,
+               lease_until = clock_timestamp() + :leaseSeconds * INTERVAL '1 second'
+         WHERE id = :id
+           AND status = 'CHARGING'
+           AND lease_until < clock_timestamp()
+    """, nativeQuery = true)
+    int takeOverStuck(@Param("id") Long id, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
 
     // Last created payment for a subscription (helps avoid duplicates)
     Payment findTopBySubscriptionIdOrderByCreatedAtDesc(Long subscriptionId);
@@ -21,4 +168,3 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     // Count pending for a subscription (avoid generating too many)
     long countBySubscriptionIdAndStatus(Long subscriptionId, PaymentStatus status);
 }
-
@@ -3,6 +3,13 @@ package com.gymsystem.payments;
 
 public enum PaymentStatus {
     PENDING,
+    /** Claimed by a billing run and sent to the gateway; the outcome is not written yet. */
+    CHARGING,
     PAID,
-    FAILED
+    FAILED,
+    /**
+     * A charge was interrupted and the gateway cannot tell whether it went through. Never charged
+     * again automatically; settled by a provider callback or by hand.
+     */
+    NEEDS_REVIEW
 }
@@ -2,8 +2,16 @@
 package com.gymsystem.payments;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     Optional<Subscription> findByUserIdAndStatusIn(Long userId, Iterable<SubscriptionStatus> statuses);
+
+    /** The given subscriptions with their user loaded, so it can be read after the transaction. */
+    @Query("select s from Subscription s join fetch s.user where s.id in :ids")
+    List<Subscription> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -3,14 +3,13 @@ package com.gymsystem.payments;
 
 import com.gymsystem.payments.dto.*;
 import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import com.gymsystem.booking.BookingEnforcer;
 import com.gymsystem.notifications.EmailService;
+import com.gymsystem.security.CurrentUser;
 import java.time.*;
 import java.util.List;
 import java.util.Set;
@@ -21,7 +20,7 @@ public class SubscriptionService {
 
     private final SubscriptionRepository subscriptionRepository;
     private final PaymentRepository paymentRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
     private final BookingEnforcer bookingEnforcer;
     private final EmailService emailService;
 
@@ -31,7 +30,7 @@ public class SubscriptionService {
     /** Creates a monthly subscription anchored on the user's createdAt day-of-month. */
     @Transactional
     public SubscriptionResponse subscribe(SubscribeRequest req) {
-        User user = getCurrentUser();
+        User user = currentUser.reference();
 
         // prevent duplicate active subscription
         var existing = subscriptionRepository.findByUserIdAndStatusIn(
@@ -76,7 +75,7 @@ public class SubscriptionService {
 
     /** Returns the current user's active/past-due subscription, if any. */
     public SubscriptionResponse getMySubscription() {
-        User user = getCurrentUser();
+        User user = currentUser.reference();
         var sub = subscriptionRepository.findByUserIdAndStatusIn(
                         user.getId(), Set.of(SubscriptionStatus.ACTIVE, SubscriptionStatus.PAST_DUE))
                 .orElseThrow(() -> new IllegalStateException("Subscription not found"));
@@ -85,7 +84,7 @@ public class SubscriptionService {
 
     /** Lists invoices of the current user's subscription. */
     public List<PaymentItem> listMyInvoices() {
-        User user = getCurrentUser();
+        User user = currentUser.reference();
         var sub = subscriptionRepository.findByUserIdAndStatusIn(
                         user.getId(), Set.of(SubscriptionStatus.ACTIVE, SubscriptionStatus.PAST_DUE))
                 .orElseThrow(() -> new IllegalStateException("Subscription not found"));
@@ -98,7 +97,7 @@ public class SubscriptionService {
     /** Cancels subscription at period end (soft-cancel); prevents new invoices. */
     @Transactional
     public void cancelMySubscription() {
-        User user = getCurrentUser();
+        User user = currentUser.reference();
         var sub = subscriptionRepository.findByUserIdAndStatusIn(
                         user.getId(), Set.of(SubscriptionStatus.ACTIVE, SubscriptionStatus.PAST_DUE))
                 .orElseThrow(() -> new IllegalStateException("Subscription not found"));
@@ -115,13 +114,15 @@ public class SubscriptionService {
         }
         Payment p = paymentRepository.findById(payload.getPaymentId())
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
-        if (p.getStatus() != PaymentStatus.PENDING) return;
-
-        if (Boolean.TRUE.equals(payload.getApproved())) {
-            p.setStatus(PaymentStatus.PAID);
-            p.setPaidAt(Instant.now());
-            paymentRepository.save(p);
+        boolean approved = Boolean.TRUE.equals(payload.getApproved());
+        // Guarded update: only one of concurrent callbacks and the billing run's own write
+        // (CHARGING) settles the payment; everyone else sees 0 and does nothing
+        if (paymentRepository.settleOpen(p.getId(), approved ? PaymentStatus.PAID : PaymentStatus.FAILED,
+                approved ? Instant.now() : null) == 0) {
+            return;
+        }
 
+        if (approved) {
             // If PAST_DUE, rollSubscription sett ACTIVE
             rollSubscription(p.getSubscription());
             var sub = subscriptionRepository.findById(p.getSubscription().getId()).orElseThrow();
@@ -133,9 +134,6 @@ public class SubscriptionService {
                 );
             }
         } else {
-            p.setStatus(PaymentStatus.FAILED);
-            paymentRepository.save(p);
-
             Subscription s = p.getSubscription();
             s.setStatus(SubscriptionStatus.PAST_DUE);
             subscriptionRepository.save(s);
@@ -199,12 +197,6 @@ public class SubscriptionService {
         return base.withDayOfMonth(day).withHour(0).withMinute(0).withSecond(0).withNano(0);
     }
 
-    private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
-    }
-
     /**
      * Rolls the subscription to the next monthly period after a successful payment
      * and creates the next pending invoice. If the subscription is canceled, it does nothing.
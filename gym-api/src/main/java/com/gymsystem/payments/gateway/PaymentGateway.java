@@ -3,11 +3,22 @@ package com.gymsystem.payments.gateway;
 
 import com.gymsystem.payments.Payment;
 
+import java.util.Optional;
+
 /** Abstraction for external providers (Stripe/Mercado Pago/etc.). */
 public interface PaymentGateway {
 
     /** Attempts to charge the given payment. Returns provider reference if created. */
     ChargeResult charge(Payment payment) throws Exception;
 
+    /**
+     * Outcome of an earlier charge of the payment, used to recover attempts interrupted before it
+     * was recorded. Empty when the provider cannot tell; the payment then goes to NEEDS_REVIEW
+     * instead of being charged again.
+     */
+    default Optional<ChargeResult> lookup(Payment payment) throws Exception {
+        return Optional.empty();
+    }
+
     record ChargeResult(boolean accepted, String providerRef) {}
 }
@@ -4,10 +4,9 @@ package com.gymsystem.profile;
 import com.gymsystem.profile.dto.ProfilePreferencesResponse;
 import com.gymsystem.profile.dto.UpdateProfilePreferencesRequest;
 import com.gymsystem.user.User;
-import com.gymsystem.user.UserRepository;
+import com.gymsystem.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -17,17 +16,17 @@ import java.time.Instant;
 public class ProfilePreferencesService {
 
     private final ProfilePreferencesRepository repository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     public ProfilePreferencesResponse getMy() {
-        User user = currentUser();
+        User user = currentUser.reference();
         var pref = repository.findByUserId(user.getId()).orElseGet(() -> defaultFor(user));
         return toResponse(pref);
     }
 
     @Transactional
     public ProfilePreferencesResponse updateMy(UpdateProfilePreferencesRequest req) {
-        User user = currentUser();
+        User user = currentUser.reference();
         var pref = repository.findByUserId(user.getId()).orElseGet(() -> defaultFor(user));
 
         if (req.getAllowRecording() != null) pref.setAllowRecording(req.getAllowRecording());
@@ -80,9 +79,4 @@ public class ProfilePreferencesService {
                 p.getUpdatedAt()
         );
     }
-
-    private User currentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email).orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
-    }
 }
@@ -0,0 +1,18 @@
+// src/main/java/com/gymsystem/security/AuthenticatedUser.java
+package com.gymsystem.security;
+
+import com.gymsystem.user.UserRole;
+
+import java.security.Principal;
+
+/**
+ * Principal built from the JWT claims: identifies the caller without loading the user row.
+ * getName() returns the email, so code reading Authentication#getName keeps working.
+ */
+public record AuthenticatedUser(Long id, String email, UserRole role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
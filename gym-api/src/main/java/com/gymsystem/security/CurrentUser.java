@@ -0,0 +1,46 @@
+// src/main/java/com/gymsystem/security/CurrentUser.java
+package com.gymsystem.security;
+
+import com.gymsystem.user.User;
+import com.gymsystem.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the authenticated caller from the security context.
+ * The id and role come from the JWT, so {@link #id()} and {@link #reference()} need no query;
+ * use {@link #load()} only when other user columns are needed.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    /** The authenticated principal; throws if the request is not authenticated with a JWT. */
+    public AuthenticatedUser principal() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw new IllegalStateException("No authenticated user in the security context");
+        }
+        return principal;
+    }
+
+    /** Id of the authenticated user. */
+    public Long id() {
+        return principal().id();
+    }
+
+    /** Lazy reference to the user row, good for associations (no SELECT is issued). */
+    public User reference() {
+        return userRepository.getReferenceById(id());
+    }
+
+    /** Loads the full user row by primary key. */
+    public User load() {
+        var id = id();
+        return userRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + id));
+    }
+}
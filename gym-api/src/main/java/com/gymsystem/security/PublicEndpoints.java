@@ -0,0 +1,38 @@
+// src/main/java/com/gymsystem/security/PublicEndpoints.java
+package com.gymsystem.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Endpoints reachable without authentication. Shared by {@link SecurityConfig} (permitAll)
+ * and the JWT filter, which does not parse tokens on these paths.
+ */
+public final class PublicEndpoints {
+
+    private static final PathPatternRequestMatcher.Builder PATH = PathPatternRequestMatcher.withDefaults();
+
+    public static final RequestMatcher MATCHER = new OrRequestMatcher(
+            // ---- public docs (Swagger/OpenAPI) ----
+            PATH.matcher("/swagger-ui.html"),
+            PATH.matcher("/swagger-ui/**"),
+            PATH.matcher("/v3/api-docs/**"),
+            // ---- auth & health ----
+            PATH.matcher(HttpMethod.POST, "/api/v1/auth/signup"),
+            PATH.matcher(HttpMethod.POST, "/api/v1/auth/login"),
+            PATH.matcher(HttpMethod.GET, "/actuator/health"),
+            PATH.matcher(HttpMethod.POST, "/api/v1/checkin/callback"),
+            PATH.matcher(HttpMethod.POST, "/api/v1/payments/callback/**"),
+            // ---- PUBLIC: classes catalog & calendar ----
+            PATH.matcher(HttpMethod.GET, "/api/v1/classes/types"),
+            PATH.matcher(HttpMethod.GET, "/api/v1/classes/calendar"),
+            PATH.matcher(HttpMethod.GET, "/api/v1/classes/calendar/live"),
+            // ---- PUBLIC: static resources ----
+            PATH.matcher(HttpMethod.GET, "/public/**")
+    );
+
+    private PublicEndpoints() {
+    }
+}
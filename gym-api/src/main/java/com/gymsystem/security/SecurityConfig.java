@@ -5,7 +5,6 @@ import com.gymsystem.security.jwt.JwtAuthFilter; // Imports our custom JWT filte
 import lombok.RequiredArgsConstructor; // Imports Lombok annotation for constructor injection
 import org.springframework.context.annotation.Bean; // Imports Bean annotation
 import org.springframework.context.annotation.Configuration; // Imports Configuration annotation
-import org.springframework.http.HttpMethod; // Imports HttpMethod enum for request method matching
 import org.springframework.security.authentication.AuthenticationManager; // AuthenticationManager interface
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration; // Provides AuthenticationManager from config
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity; // Enables method-level security
@@ -47,19 +46,8 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                // ---- public docs (Swagger/OpenAPI) ----
-                .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
-                // ---- auth & health ----
-                .requestMatchers(HttpMethod.POST, "/api/v1/auth/signup").permitAll()
-                .requestMatchers(HttpMethod.POST, "/api/v1/auth/login").permitAll()
-                .requestMatchers(HttpMethod.GET,  "/actuator/health").permitAll()
-                .requestMatchers(HttpMethod.POST, "/api/v1/checkin/callback").permitAll()
-                .requestMatchers(HttpMethod.POST, "/api/v1/payments/callback/**").permitAll()
-                // ---- PUBLIC: classes catalog & calendar ----
-                .requestMatchers(HttpMethod.GET, "/api/v1/classes/types").permitAll()
-                .requestMatchers(HttpMethod.GET, "/api/v1/classes/calendar").permitAll()
-                // ---- PUBLIC: static resources ----
-                .requestMatchers(HttpMethod.GET, "/public/**").permitAll()
+                // ---- public endpoints (docs, auth, health, callbacks, catalog & calendar, static) ----
+                .requestMatchers(PublicEndpoints.MATCHER).permitAll()
                 // ---- everything else requires auth ----
                 .anyRequest().authenticated()
             );
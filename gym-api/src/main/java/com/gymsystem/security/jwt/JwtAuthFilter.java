@@ -1,30 +1,53 @@
 // src/main/java/com/gymsystem/security/jwt/JwtAuthFilter.java
 package com.gymsystem.security.jwt;
 
-import com.gymsystem.security.userdetails.CustomUserDetailsService; 
+import com.gymsystem.security.AuthenticatedUser;
+import com.gymsystem.security.PublicEndpoints;
+import com.gymsystem.user.UserRepository;
+import com.gymsystem.user.UserRole;
 import io.jsonwebtoken.Claims; 
 import jakarta.servlet.FilterChain; 
 import jakarta.servlet.ServletException; 
 import jakarta.servlet.http.HttpServletRequest; 
 import jakarta.servlet.http.HttpServletResponse; 
 import lombok.RequiredArgsConstructor; 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder; 
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource; 
 import org.springframework.stereotype.Component; 
 import org.springframework.web.filter.OncePerRequestFilter; 
 import java.io.IOException; 
+import java.util.List;
 
 /**
  * A filter that extracts a JWT from the Authorization header, validates it,
  * and sets the authentication in the security context.
+ * The principal is an {@link AuthenticatedUser} built from the "uid" and "role" claims,
+ * so no database lookup is needed per request.
+ * <p>
+ * Without security.jwt.check-active-user the claims are trusted until the token expires: a
+ * deactivated user or a changed role only takes effect on the next login (at most
+ * security.jwt.expiration-seconds). With it, each request reads the user's active flag and
+ * current role, and the role from the database wins over the claim.
+ * A token whose role claim is not a known role is answered with 401.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService; // Service that validates and parses JWTs
-    private final CustomUserDetailsService userDetailsService; // Loads user details from DB
+    private final UserRepository userRepository; // Used only for legacy tokens and the optional active check
+
+    @Value("${security.jwt.check-active-user:false}")
+    private boolean checkActiveUser; // Opt-in: reject tokens of deactivated users (one PK lookup per request)
+
+    /** Public endpoints never need the principal, so their tokens are not parsed at all. */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PublicEndpoints.MATCHER.matches(request);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -38,17 +61,51 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7); // Extracts token by removing "Bearer " prefix
         Claims claims = jwtService.validateAndParseClaims(token); // Validates and parses JWT claims
         if (claims != null) {
-            String email = claims.getSubject();
-            var userDetails = userDetailsService.loadUserByUsername(email);
-            var authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails,
-                    null,
-                    userDetails.getAuthorities() // Granted authorities from roles
-            );
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request)); // Adds request details
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            AuthenticatedUser principal;
+            try {
+                principal = toPrincipal(claims);
+            } catch (IllegalArgumentException e) { // Unknown role claim
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            if (principal != null) {
+                var authentication = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + principal.role().name())) // Granted authority from role claim
+                );
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request)); // Adds request details
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
         }
 
         filterChain.doFilter(request, response); // Proceeds with the filter chain
     }
+
+    /**
+     * Builds the principal from the claims. Tokens issued before the "uid" claim existed fall back
+     * to one lookup by email. Returns null (request stays anonymous) for unknown or inactive users.
+     * @throws IllegalArgumentException when the role claim is not a {@link UserRole}
+     */
+    private AuthenticatedUser toPrincipal(Claims claims) {
+        String email = claims.getSubject();
+        Number uid = claims.get("uid", Number.class);
+        String role = claims.get("role", String.class);
+
+        if (uid == null || role == null) {
+            return userRepository.findByEmail(email)
+                    .filter(u -> !checkActiveUser || u.isActive())
+                    .map(u -> new AuthenticatedUser(u.getId(), u.getEmail(), u.getRole()))
+                    .orElse(null);
+        }
+
+        UserRole claimed = UserRole.valueOf(role);
+        if (checkActiveUser) {
+            return userRepository.findAccessById(uid.longValue())
+                    .filter(UserRepository.AccessView::isActive)
+                    .map(u -> new AuthenticatedUser(uid.longValue(), email, u.getRole()))
+                    .orElse(null);
+        }
+        return new AuthenticatedUser(uid.longValue(), email, claimed);
+    }
 }
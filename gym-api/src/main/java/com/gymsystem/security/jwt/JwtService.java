@@ -2,6 +2,7 @@
 package com.gymsystem.security.jwt;
 
 import io.jsonwebtoken.Claims; // Represents JWT claims
+import io.jsonwebtoken.JwtParser; // Immutable, thread-safe parser
 import io.jsonwebtoken.Jwts; // Entry point for JWT operations
 import io.jsonwebtoken.SignatureAlgorithm; // Enum for signing algorithms
 import io.jsonwebtoken.security.Keys; // Utility to create secure keys
@@ -10,8 +11,14 @@ import org.springframework.beans.factory.annotation.Value; // Injects values fro
 import org.springframework.stereotype.Service; // Marks as service component
 
 import javax.crypto.SecretKey; // SecretKey interface
+import java.nio.charset.StandardCharsets; // Token bytes for hashing
+import java.security.MessageDigest; // SHA-256 for cache keys
+import java.security.NoSuchAlgorithmException; // Checked exception of MessageDigest
 import java.time.Instant; // Java time Instant
+import java.util.Base64; // Encodes digests as map keys
 import java.util.Date; // Legacy Date used by JJWT
+import java.util.Map; // Cache contract
+import java.util.concurrent.ConcurrentHashMap; // Thread-safe cache storage
 
 /**
  * Service responsible for creating and validating JWT tokens.
@@ -25,26 +32,41 @@ public class JwtService {
     @Value("${security.jwt.expiration-seconds}") // Injects expiration from configuration
     private long expirationSeconds; // Holds the token expiration in seconds
 
+    @Value("${security.jwt.cache.max-entries:10000}") // Upper bound of the verified-token cache
+    private int cacheMaxEntries;
+
+    @Value("${security.jwt.cache.ttl-seconds:300}") // How long a verified token is trusted without re-verification
+    private long cacheTtlSeconds;
+
     private SecretKey key; // Holds the computed SecretKey used for signing
 
+    private JwtParser parser; // Single parser instance, built once (immutable and thread-safe)
+
+    /** Verified tokens by SHA-256 digest; each entry is dropped at token expiry or after the TTL. */
+    private final Map<String, CachedClaims> verified = new ConcurrentHashMap<>();
+
     @PostConstruct // Called by Spring after dependency injection
-    void init() { // Initializes the SecretKey
+    void init() { // Initializes the SecretKey and the parser
         this.key = Keys.hmacShaKeyFor(secret.getBytes()); // Builds an HMAC key from the secret bytes
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build(); // Reused by every request
     }
 
     /**
-     * Generates a JWT for a given subject (user email) and role.
+     * Generates a JWT for a given subject (user email), user id and role.
+     * The id ("uid") and role let the auth filter build the principal without a user lookup.
+     * @param userId the user's database id
      * @param subject the user identifier (email)
      * @param role the user's primary role
      * @return a signed JWT string
      */
-    public String generateToken(String subject, String role) {
+    public String generateToken(Long userId, String subject, String role) {
         Instant now = Instant.now(); // Captures current time
         Instant expiry = now.plusSeconds(expirationSeconds); // Computes expiration time
         return Jwts.builder() // Starts building the JWT
                 .setSubject(subject)
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiry))
+                .claim("uid", userId)
                 .claim("role", role)
                 .signWith(key, SignatureAlgorithm.HS256) // Signs using our secret key
                 .compact(); // Builds and compacts into the final token string
@@ -52,18 +74,56 @@ public class JwtService {
 
     /**
      * Validates a JWT and returns its claims if valid.
+     * A token verified recently is served from the cache without checking the signature again;
+     * cached entries never outlive the token's own expiration.
      * @param token the raw JWT string
      * @return the parsed Claims or null if invalid
      */
     public Claims validateAndParseClaims(String token) {
+        long nowMs = System.currentTimeMillis();
+        String digest = digest(token);
+        var cached = verified.get(digest);
+        if (cached != null) {
+            if (nowMs < cached.validUntilMs()) {
+                return cached.claims();
+            }
+            verified.remove(digest, cached); // expired entry
+        }
+
+        Claims claims;
         try {
-            return Jwts.parserBuilder() // Creates a parser builder
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token) // Parses and validates the token
-                    .getBody();
+            claims = parser.parseClaimsJws(token).getBody(); // Parses and validates the token
         } catch (Exception e) { // Catches any parsing or validation exception
             return null;
         }
+
+        long validUntilMs = nowMs + cacheTtlSeconds * 1000;
+        if (claims.getExpiration() != null) {
+            validUntilMs = Math.min(validUntilMs, claims.getExpiration().getTime());
+        }
+        if (verified.size() >= cacheMaxEntries) {
+            evictExpired(nowMs);
+        }
+        if (verified.size() < cacheMaxEntries) {
+            verified.put(digest, new CachedClaims(claims, validUntilMs));
+        }
+        return claims;
+    }
+
+    /** Drops expired entries; if none were expired the cache simply stops growing until some expire. */
+    private void evictExpired(long nowMs) {
+        verified.values().removeIf(c -> nowMs >= c.validUntilMs());
+    }
+
+    /** SHA-256 of the token, so raw tokens are never kept in memory as keys. */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
+
+    private record CachedClaims(Claims claims, long validUntilMs) {}
 }
@@ -2,9 +2,9 @@ package com.gymsystem.user;
 
 import com.gymsystem.payments.SubscriptionRepository;
 import com.gymsystem.user.dto.MeResponse;
+import com.gymsystem.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Set;
@@ -14,17 +14,16 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class MeController {
 
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
     private final SubscriptionRepository subscriptionRepository;
 
     @GetMapping
     public ResponseEntity<MeResponse> me() {
-        // Resolve current principal e-mail
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User u = userRepository.findByEmail(email).orElseThrow(() -> new IllegalStateException("Authenticated user not found: " + email));
+        // Email, id and role come from the JWT principal
+        var u = currentUser.principal();
 
         // Check for active or past-due subscription
-        var sub = subscriptionRepository.findByUserIdAndStatusIn(u.getId(), Set.of(
+        var sub = subscriptionRepository.findByUserIdAndStatusIn(u.id(), Set.of(
                 com.gymsystem.payments.SubscriptionStatus.ACTIVE,
                 com.gymsystem.payments.SubscriptionStatus.PAST_DUE
         ));
@@ -32,6 +31,6 @@ public class MeController {
         boolean hasSub = sub.isPresent();
         String status = hasSub ? sub.get().getStatus().name() : null;
 
-        return ResponseEntity.ok(new MeResponse(u.getEmail(), u.getRole().name(), hasSub, status));
+        return ResponseEntity.ok(new MeResponse(u.email(), u.role().name(), hasSub, status));
     }
 }
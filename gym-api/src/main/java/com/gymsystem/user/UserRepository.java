@@ -2,6 +2,8 @@
 package com.gymsystem.user;
 
 import org.springframework.data.jpa.repository.JpaRepository; // Imports JPA repository
+import org.springframework.data.jpa.repository.Query; // Custom JPQL queries
+import org.springframework.data.repository.query.Param; // Named query parameters
 import java.util.Optional; // Optional wrapper
 
 /**
@@ -9,4 +11,13 @@ import java.util.Optional; // Optional wrapper
  */
 public interface UserRepository extends JpaRepository<User, Long> { // Extends JpaRepository for CRUD
     Optional<User> findByEmail(String email); // Finder method to fetch user by email
+
+    @Query("select u.active as active, u.role as role from User u where u.id = :id")
+    Optional<AccessView> findAccessById(@Param("id") Long id); // Active flag and role only; used by the JWT freshness check
+
+    /** Row shape returned by {@link #findAccessById}. */
+    interface AccessView {
+        boolean isActive();
+        UserRole getRole();
+    }
 }
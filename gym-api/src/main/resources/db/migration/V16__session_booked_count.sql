@@ -0,0 +1,20 @@
+-- V16__session_booked_count.sql
+-- Denormalized number of active (BOOKED) bookings per session.
+-- Seat admission increments it with a conditional UPDATE, cancellations decrement it.
+
+ALTER TABLE class_sessions
+  ADD COLUMN IF NOT EXISTS booked_count INT NOT NULL DEFAULT 0;
+
+-- Backfill from the bookings that are active today
+UPDATE class_sessions s
+   SET booked_count = c.cnt
+  FROM (
+        SELECT session_id, COUNT(*) AS cnt
+          FROM bookings
+         WHERE status = 'BOOKED'
+         GROUP BY session_id
+       ) c
+ WHERE c.session_id = s.id;
+
+ALTER TABLE class_sessions
+  ADD CONSTRAINT ck_class_sessions_booked_count CHECK (booked_count >= 0);
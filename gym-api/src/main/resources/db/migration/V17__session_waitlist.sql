@@ -0,0 +1,25 @@
+-- V17__session_waitlist.sql
+-- Per-session FIFO waitlist. Entries are promoted to bookings by a single set-based
+-- statement whenever a cancellation frees seats.
+
+CREATE TABLE IF NOT EXISTS session_waitlist (
+    id BIGSERIAL PRIMARY KEY,
+    session_id BIGINT NOT NULL REFERENCES class_sessions(id),
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    status VARCHAR(16) NOT NULL, -- WAITING | PROMOTED | LEFT
+    created_at TIMESTAMPTZ NOT NULL,
+    resolved_at TIMESTAMPTZ,
+    booking_id BIGINT REFERENCES bookings(id)
+);
+
+-- One waiting entry per member and session
+CREATE UNIQUE INDEX IF NOT EXISTS ux_waitlist_waiting_per_user_session
+ON session_waitlist (session_id, user_id)
+WHERE status = 'WAITING';
+
+-- Queue order used by promotion and position lookups
+CREATE INDEX IF NOT EXISTS idx_waitlist_queue
+ON session_waitlist (session_id, created_at, id)
+WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS idx_waitlist_user ON session_waitlist(user_id);
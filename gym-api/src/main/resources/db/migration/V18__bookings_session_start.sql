@@ -0,0 +1,33 @@
+-- V18__bookings_session_start.sql
+-- Copies the session start into bookings so "my bookings" can be read in (start, id) order
+-- straight from one index, without joining every booking of the member to class_sessions.
+-- A session's start never changes after creation, so the copy is set once on insert.
+
+ALTER TABLE bookings
+  ADD COLUMN IF NOT EXISTS session_start_at TIMESTAMPTZ;
+
+UPDATE bookings b
+   SET session_start_at = s.start_at
+  FROM class_sessions s
+ WHERE s.id = b.session_id
+   AND b.session_start_at IS NULL;
+
+ALTER TABLE bookings
+  ALTER COLUMN session_start_at SET NOT NULL;
+
+-- Every insert path (JPA, set-based booking, waitlist promotion) gets the value from here
+CREATE OR REPLACE FUNCTION bookings_set_session_start() RETURNS trigger AS $$
+BEGIN
+  SELECT start_at INTO NEW.session_start_at FROM class_sessions WHERE id = NEW.session_id;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_bookings_session_start ON bookings;
+CREATE TRIGGER trg_bookings_session_start
+  BEFORE INSERT ON bookings
+  FOR EACH ROW EXECUTE FUNCTION bookings_set_session_start();
+
+-- Keyset order of the member's booking list; user_id prefix also serves idx_bookings_user lookups
+CREATE INDEX IF NOT EXISTS idx_bookings_user_start
+ON bookings (user_id, session_start_at, id);
@@ -0,0 +1,27 @@
+-- V19__session_templates.sql
+-- Recurring session templates. Calendar and availability expand them on read; a class_sessions
+-- row is only written for a slot when it is first booked or overridden by an admin.
+
+CREATE TABLE IF NOT EXISTS session_templates (
+    id BIGSERIAL PRIMARY KEY,
+    class_type_id BIGINT NOT NULL REFERENCES class_types(id),
+    days VARCHAR(64) NOT NULL,          -- e.g. MON-FRI or MON,WED,FRI
+    start_time TIME NOT NULL,           -- first slot start (UTC)
+    end_time TIME NOT NULL,             -- last slot must end by this time (UTC)
+    slot_minutes INT NOT NULL,
+    capacity INT NOT NULL,
+    valid_from DATE NOT NULL,
+    valid_to DATE,                      -- open-ended when null
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_by_admin_id BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT ck_session_templates_times CHECK (start_time < end_time),
+    CONSTRAINT ck_session_templates_slot CHECK (slot_minutes > 0),
+    CONSTRAINT ck_session_templates_capacity CHECK (capacity > 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_session_templates_active ON session_templates(active);
+
+-- Materialized slots remember their template (null for sessions created by hand or by the generator)
+ALTER TABLE class_sessions
+  ADD COLUMN IF NOT EXISTS template_id BIGINT REFERENCES session_templates(id);
@@ -0,0 +1,212 @@
+-- V20__partition_sessions_and_bookings.sql
+-- Monthly range partitioning: class_sessions by start_at, bookings by session_start_at (the
+-- session month, copied into bookings by V18). Queries that filter on those columns only touch
+-- the months they need, and old months can be detached into booking_archive (see
+-- archive_booking_partitions) instead of being scanned forever.
+--
+-- Postgres requires every unique key of a partitioned table to contain the partition key:
+--   * primary keys become (id, start_at) / (id, session_start_at); ids stay globally unique
+--     because they still come from the original sequences,
+--   * bookings reference sessions through (session_id, session_start_at),
+--   * session_waitlist keeps plain session_id/booking_id columns without foreign keys.
+-- The V18 trigger cannot fill a partition key (rows are routed before it runs), so the
+-- application now sets bookings.session_start_at on every insert.
+--
+-- What prunes and what does not:
+--   * Statements that carry start_at / session_start_at (a parameter, or a column of a row
+--     already read) touch one month. The seat updates, the precheck, the drift fix and the
+--     past-due cancellation all pass it.
+--   * Lookups by id alone cannot prune. JPA findById and lazy loading of a ClassSession or of
+--     Booking.session, and findById / findByIdAndUserId on bookings, probe idx_class_sessions_id /
+--     idx_bookings_id in every attached month: one small index probe per month. This is
+--     acceptable on admin and low-rate paths. Hot paths read the start from
+--     class_session_starts (V26) or from bookings.session_start_at instead.
+--   * A JPQL "join b.session s" joins on session_id only. The join does not prune unless the
+--     query adds "on s.startAt = b.sessionStartAt"; then each booking row probes one month.
+
+CREATE SCHEMA IF NOT EXISTS booking_archive;
+
+-- ---------------------------------------------------------------------------------------------
+-- Partition management
+-- ---------------------------------------------------------------------------------------------
+
+-- Creates the class_sessions and bookings partitions of the UTC month containing p_day.
+-- Cheap when they exist (catalog lookup only). Returns the number of tables created.
+CREATE OR REPLACE FUNCTION ensure_booking_partitions(p_day DATE) RETURNS INT AS $$
+DECLARE
+  m_start DATE := date_trunc('month', p_day)::date;
+  m_end   DATE := (date_trunc('month', p_day) + INTERVAL '1 month')::date;
+  suffix  TEXT := to_char(date_trunc('month', p_day), '"y"YYYY"m"MM');
+  lo      TIMESTAMPTZ := m_start::timestamp AT TIME ZONE 'UTC';
+  hi      TIMESTAMPTZ := m_end::timestamp AT TIME ZONE 'UTC';
+  created INT := 0;
+BEGIN
+  IF to_regclass('public.class_sessions_' || suffix) IS NULL THEN
+    BEGIN
+      EXECUTE format('CREATE TABLE public.%I PARTITION OF class_sessions FOR VALUES FROM (%L) TO (%L)',
+                     'class_sessions_' || suffix, lo, hi);
+      created := created + 1;
+    EXCEPTION WHEN duplicate_table THEN NULL; -- another node was faster
+    END;
+  END IF;
+  IF to_regclass('public.bookings_' || suffix) IS NULL THEN
+    BEGIN
+      EXECUTE format('CREATE TABLE public.%I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+                     'bookings_' || suffix, lo, hi);
+      created := created + 1;
+    EXCEPTION WHEN duplicate_table THEN NULL;
+    END;
+  END IF;
+  RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches every month that ends on or before p_cutoff from bookings and class_sessions and
+-- moves both tables to booking_archive (still queryable, no longer scanned by the app).
+-- Bookings go first: a session partition cannot be detached while bookings reference it.
+CREATE OR REPLACE FUNCTION archive_booking_partitions(p_cutoff DATE) RETURNS INT AS $$
+DECLARE
+  part     RECORD;
+  suffix   TEXT;
+  fk       RECORD;
+  archived INT := 0;
+BEGIN
+  FOR part IN
+    SELECT c.relname
+      FROM pg_inherits i
+      JOIN pg_class c ON c.oid = i.inhrelid
+     WHERE i.inhparent = 'public.class_sessions'::regclass
+       AND c.relname ~ '^class_sessions_y[0-9]{4}m[0-9]{2}$'
+     ORDER BY c.relname
+  LOOP
+    suffix := substring(part.relname FROM 'y[0-9]{4}m[0-9]{2}$');
+    IF (to_date(substring(suffix FROM 2 FOR 4) || substring(suffix FROM 7 FOR 2), 'YYYYMM')
+          + INTERVAL '1 month')::date > p_cutoff THEN
+      CONTINUE;
+    END IF;
+
+    IF to_regclass('public.bookings_' || suffix) IS NOT NULL THEN
+      EXECUTE format('ALTER TABLE bookings DETACH PARTITION public.%I', 'bookings_' || suffix);
+      -- the detached table keeps a copy of the foreign key to class_sessions; drop it
+      FOR fk IN
+        SELECT conname FROM pg_constraint
+         WHERE conrelid = ('public.bookings_' || suffix)::regclass AND contype = 'f'
+      LOOP
+        EXECUTE format('ALTER TABLE public.%I DROP CONSTRAINT %I', 'bookings_' || suffix, fk.conname);
+      END LOOP;
+      EXECUTE format('ALTER TABLE public.%I SET SCHEMA booking_archive', 'bookings_' || suffix);
+    END IF;
+
+    EXECUTE format('ALTER TABLE class_sessions DETACH PARTITION public.%I', part.relname);
+    EXECUTE format('ALTER TABLE public.%I SET SCHEMA booking_archive', part.relname);
+    archived := archived + 1;
+  END LOOP;
+  RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ---------------------------------------------------------------------------------------------
+-- Move the current tables aside (index names are schema-wide, so they are renamed/dropped too)
+-- ---------------------------------------------------------------------------------------------
+
+DROP TRIGGER IF EXISTS trg_bookings_session_start ON bookings;
+DROP FUNCTION IF EXISTS bookings_set_session_start();
+
+ALTER TABLE session_waitlist DROP CONSTRAINT IF EXISTS session_waitlist_session_id_fkey;
+ALTER TABLE session_waitlist DROP CONSTRAINT IF EXISTS session_waitlist_booking_id_fkey;
+
+ALTER TABLE bookings RENAME TO bookings_old;
+ALTER INDEX bookings_pkey RENAME TO bookings_old_pkey;
+DROP INDEX IF EXISTS idx_bookings_session;
+DROP INDEX IF EXISTS idx_bookings_user;
+DROP INDEX IF EXISTS idx_bookings_user_start;
+DROP INDEX IF EXISTS ux_active_booking_per_user_session;
+
+ALTER TABLE class_sessions RENAME TO class_sessions_old;
+ALTER INDEX class_sessions_pkey RENAME TO class_sessions_old_pkey;
+DROP INDEX IF EXISTS uk_class_sessions_type_start;
+
+-- ---------------------------------------------------------------------------------------------
+-- Partitioned tables
+-- ---------------------------------------------------------------------------------------------
+
+CREATE TABLE class_sessions (
+    id BIGINT NOT NULL DEFAULT nextval('class_sessions_id_seq'),
+    class_type_id BIGINT NOT NULL REFERENCES class_types(id),
+    start_at TIMESTAMPTZ NOT NULL,
+    end_at   TIMESTAMPTZ NOT NULL,
+    capacity INT NOT NULL,
+    canceled BOOLEAN NOT NULL DEFAULT FALSE,
+    notes VARCHAR(255),
+    created_by_admin_id BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    booked_count INT NOT NULL DEFAULT 0,
+    template_id BIGINT REFERENCES session_templates(id),
+    PRIMARY KEY (id, start_at),
+    CONSTRAINT ck_class_sessions_booked_count CHECK (booked_count >= 0)
+) PARTITION BY RANGE (start_at);
+
+-- evita duplicidade do mesmo tipo na mesma data/hora
+CREATE UNIQUE INDEX uk_class_sessions_type_start ON class_sessions(class_type_id, start_at);
+-- id lookups without a start (booking by session id) probe one small index per partition
+CREATE INDEX idx_class_sessions_id ON class_sessions(id);
+
+CREATE TABLE bookings (
+    id BIGINT NOT NULL DEFAULT nextval('bookings_id_seq'),
+    session_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    status VARCHAR(16) NOT NULL, -- BOOKED | CANCELED
+    created_at TIMESTAMPTZ NOT NULL,
+    canceled_at TIMESTAMPTZ,
+    session_start_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (id, session_start_at),
+    CONSTRAINT fk_bookings_session FOREIGN KEY (session_id, session_start_at)
+        REFERENCES class_sessions(id, start_at)
+) PARTITION BY RANGE (session_start_at);
+
+CREATE INDEX idx_bookings_session ON bookings(session_id);
+CREATE INDEX idx_bookings_user_start ON bookings(user_id, session_start_at, id);
+CREATE INDEX idx_bookings_id ON bookings(id);
+CREATE UNIQUE INDEX ux_active_booking_per_user_session
+ON bookings (session_id, user_id, session_start_at)
+WHERE status = 'BOOKED';
+
+-- Months from the oldest session up to a year ahead; the app keeps creating months ahead
+DO $$
+DECLARE
+  d DATE := COALESCE((SELECT date_trunc('month', MIN(start_at) AT TIME ZONE 'UTC')::date FROM class_sessions_old),
+                     date_trunc('month', NOW() AT TIME ZONE 'UTC')::date);
+  last_month DATE := GREATEST(
+      COALESCE((SELECT date_trunc('month', MAX(start_at) AT TIME ZONE 'UTC')::date FROM class_sessions_old), d),
+      (date_trunc('month', NOW() AT TIME ZONE 'UTC') + INTERVAL '12 months')::date);
+BEGIN
+  WHILE d <= last_month LOOP
+    PERFORM ensure_booking_partitions(d);
+    d := (d + INTERVAL '1 month')::date;
+  END LOOP;
+END;
+$$;
+
+-- ---------------------------------------------------------------------------------------------
+-- Copy and drop the old tables
+-- ---------------------------------------------------------------------------------------------
+
+INSERT INTO class_sessions (id, class_type_id, start_at, end_at, capacity, canceled, notes,
+                            created_by_admin_id, created_at, booked_count, template_id)
+SELECT id, class_type_id, start_at, end_at, capacity, canceled, notes,
+       created_by_admin_id, created_at, booked_count, template_id
+  FROM class_sessions_old;
+
+INSERT INTO bookings (id, session_id, user_id, status, created_at, canceled_at, session_start_at)
+SELECT id, session_id, user_id, status, created_at, canceled_at, session_start_at
+  FROM bookings_old;
+
+ALTER SEQUENCE bookings_id_seq OWNED BY NONE;
+ALTER SEQUENCE class_sessions_id_seq OWNED BY NONE;
+DROP TABLE bookings_old;
+DROP TABLE class_sessions_old;
+ALTER SEQUENCE bookings_id_seq OWNED BY bookings.id;
+ALTER SEQUENCE class_sessions_id_seq OWNED BY class_sessions.id;
+
+ANALYZE class_sessions;
+ANALYZE bookings;
@@ -0,0 +1,25 @@
+-- V21__booking_hot_path_indexes.sql
+-- Partial/composite indexes matching the predicates of the hot booking queries.
+-- Created on the partitioned parents, so every existing and future month gets them.
+-- booked_count is deliberately not indexed: it changes on every booking and would turn
+-- those updates into non-HOT updates.
+
+-- Member's active bookings by day/period: precheck one-per-day rule, series booking,
+-- waitlist promotion, past-due cancellation (user_id = ? AND status = 'BOOKED' AND session_start_at range)
+CREATE INDEX IF NOT EXISTS idx_bookings_user_active_start
+ON bookings (user_id, session_start_at)
+INCLUDE (session_id)
+WHERE status = 'BOOKED';
+
+-- Active count of one session (countActiveBySessionId, drift check): only BOOKED rows are indexed
+CREATE INDEX IF NOT EXISTS idx_bookings_session_active
+ON bookings (session_id)
+WHERE status = 'BOOKED';
+
+-- Bookable sessions in a window (findActiveSessionsBetween, availability, seat ledger preload)
+CREATE INDEX IF NOT EXISTS idx_class_sessions_open_start
+ON class_sessions (start_at)
+WHERE NOT canceled;
+
+ANALYZE bookings;
+ANALYZE class_sessions;
@@ -0,0 +1,11 @@
+-- V22__rate_limit_buckets.sql
+-- Shared token buckets for ratelimit.backend=postgres (one row per namespace and key).
+-- tat = "theoretical arrival time" of the GCRA rule; a row whose tat is in the past is a full
+-- bucket, exactly like a missing row, so rows can be deleted at any time.
+-- UNLOGGED: no WAL, not replicated, emptied after a crash. Losing it only resets the limits.
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_buckets (
+    namespace   VARCHAR(32) NOT NULL,
+    bucket_key  BIGINT      NOT NULL,
+    tat         TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (namespace, bucket_key)
+) WITH (fillfactor = 70); -- room for HOT updates of tat
@@ -0,0 +1,8 @@
+-- V23__payments_pending_due_index.sql
+-- Keyset pages of the billing run: status = 'PENDING' AND due_at <= now ORDER BY due_at, id.
+-- Partial, so PAID/FAILED history (the bulk of the table) is not indexed.
+CREATE INDEX IF NOT EXISTS idx_payments_pending_due
+ON payments (due_at, id)
+WHERE status = 'PENDING';
+
+ANALYZE payments;
@@ -0,0 +1,7 @@
+-- V24__payments_leases.sql
+-- Billing runs on every node claim due payments by leasing them (SELECT ... FOR UPDATE SKIP LOCKED).
+-- lease_owner identifies the run; a lease whose lease_until is in the past is free again
+-- (the run died or hit its deadline). Attempt writes end the lease.
+ALTER TABLE payments
+    ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(64),
+    ADD COLUMN IF NOT EXISTS lease_until TIMESTAMPTZ;
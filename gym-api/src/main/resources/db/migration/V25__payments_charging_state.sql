@@ -0,0 +1,7 @@
+-- V25__payments_charging_state.sql
+-- Two-phase charging: PENDING -> CHARGING (gateway call in flight) -> PAID | PENDING.
+-- status is a plain VARCHAR, so the new value needs no constraint change. Only the recovery
+-- sweep looks for CHARGING rows whose lease expired; they are few, so a small partial index.
+CREATE INDEX IF NOT EXISTS idx_payments_charging_lease
+ON payments (lease_until)
+WHERE status = 'CHARGING';
@@ -0,0 +1,37 @@
+-- V26__class_session_starts.sql
+-- Start of every session by id, in a plain (not partitioned) table. Entry points that only know a
+-- session id (book by id, admin cancel) read the start here first and then address class_sessions
+-- and bookings with (id, start_at), so Postgres prunes to one month instead of probing the id
+-- index of every partition (see V20).
+-- Kept in sync by a row trigger on class_sessions. Detached (archived) months keep their keys,
+-- which is harmless: the start points at a month no longer attached, so nothing is found.
+
+CREATE TABLE IF NOT EXISTS class_session_starts (
+    id BIGINT PRIMARY KEY,
+    start_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION class_session_starts_sync() RETURNS trigger AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    DELETE FROM class_session_starts WHERE id = OLD.id AND start_at = OLD.start_at;
+  ELSE
+    -- also covers an UPDATE moving the row to another month (run as DELETE + INSERT)
+    INSERT INTO class_session_starts (id, start_at) VALUES (NEW.id, NEW.start_at)
+    ON CONFLICT (id) DO UPDATE SET start_at = EXCLUDED.start_at;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Defined on the parent, so every existing and future month gets it
+DROP TRIGGER IF EXISTS trg_class_session_starts ON class_sessions;
+CREATE TRIGGER trg_class_session_starts
+AFTER INSERT OR DELETE OR UPDATE OF start_at ON class_sessions
+FOR EACH ROW EXECUTE FUNCTION class_session_starts_sync();
+
+INSERT INTO class_session_starts (id, start_at)
+SELECT id, start_at FROM class_sessions
+ON CONFLICT (id) DO NOTHING;
+
+ANALYZE class_session_starts;
@@ -0,0 +1,24 @@
+-- V27__waiting_room.sql
+-- Shared waiting room for booking.waiting-room.backend=postgres: one queue per opening window
+-- (the instant a month opens), served by every replica.
+-- Tickets take numbers from one sequence; a window remembers the sequence value it started
+-- after ("base"), so ticket and frontier numbers are relative to the window (first ticket = 1).
+-- advanced_at is the instant up to which admissions were granted; the frontier moves by
+-- admit-per-second for every whole second since, however many nodes call it.
+-- UNLOGGED: no WAL, emptied after a crash. Losing it only means members queue again.
+CREATE SEQUENCE IF NOT EXISTS waiting_room_ticket_seq;
+
+CREATE UNLOGGED TABLE IF NOT EXISTS waiting_room_windows (
+    opens_at         TIMESTAMPTZ PRIMARY KEY,
+    base             BIGINT      NOT NULL,
+    admitted_through BIGINT      NOT NULL DEFAULT 0,
+    advanced_at      TIMESTAMPTZ NOT NULL
+);
+
+CREATE UNLOGGED TABLE IF NOT EXISTS waiting_room_tickets (
+    opens_at       TIMESTAMPTZ NOT NULL,
+    user_id        BIGINT      NOT NULL,
+    number         BIGINT      NOT NULL,
+    admitted_until TIMESTAMPTZ,
+    PRIMARY KEY (opens_at, user_id)
+);
@@ -0,0 +1,11 @@
+-- V28__drop_redundant_session_active_index.sql
+-- idx_bookings_session_active (V21) duplicates indexes V20 already has on bookings:
+--   * idx_bookings_session (session_id) covers every lookup by session;
+--   * ux_active_booking_per_user_session (session_id, user_id, session_start_at) WHERE status = 'BOOKED'
+--     serves the active count of one session (countActiveBySession, drift check) from the same
+--     partial set. The query named in the V21 comment (countActiveBySessionId) no longer exists.
+-- It only added write cost to every booking and cancellation. The EXPLAIN suite
+-- (BookingQueryPlanTests.activeCountOfOneSession) keeps the count on an index without it.
+-- Dropping the partitioned parent index drops it on every month.
+
+DROP INDEX IF EXISTS idx_bookings_session_active;
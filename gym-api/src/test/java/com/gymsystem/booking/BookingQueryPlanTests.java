@@ -0,0 +1,165 @@
+// src/test/java/com/gymsystem/booking/BookingQueryPlanTests.java
+package com.gymsystem.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymsystem.support.PostgresTest;
+import com.gymsystem.support.BoundStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of the hot booking statements on a realistic volume (explain/seed.sql, rolled back
+ * with the test). Each statement is captured as the repository runs it, with its values, and run
+ * again under EXPLAIN ANALYZE. Too many blocks read by sequential scans means an index stopped
+ * matching the predicate or partitions stopped being pruned.
+ */
+@PostgresTest
+@Transactional
+class BookingQueryPlanTests {
+
+    /**
+     * Sequential reads allowed per statement: about one month of class_sessions (a month of bookings
+     * is several times larger). Scanning every month, or any bookings month, goes well past it.
+     */
+    private static final long MAX_SEQ_SCAN_BLOCKS = 32;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ClassSessionRepository classSessionRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final Instant from = YearMonth.now(ZoneOffset.UTC).plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+    private long sessionId;
+    private Instant sessionStart;
+    private long userId;
+    private long classTypeId;
+
+    @BeforeEach
+    void seed() throws IOException {
+        String run = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        var params = new MapSqlParameterSource()
+                .addValue("run", run)
+                .addValue("from", from.toString())
+                .addValue("to", from.atZone(ZoneOffset.UTC).plusMonths(12).toInstant().toString());
+        String script = new ClassPathResource("explain/seed.sql").getContentAsString(StandardCharsets.UTF_8);
+        for (String statement : script.split(";\\s*\\n")) {
+            if (!statement.isBlank()) namedJdbcTemplate.update(statement, params);
+        }
+        jdbcTemplate.execute("ANALYZE class_types, users, subscriptions, class_sessions, class_session_starts, bookings");
+
+        var row = jdbcTemplate.queryForMap("""
+                SELECT b.session_id, b.session_start_at, b.user_id, s.class_type_id
+                  FROM bookings b JOIN class_sessions s ON s.id = b.session_id AND s.start_at = b.session_start_at
+                  JOIN class_types t ON t.id = s.class_type_id
+                 WHERE t.code LIKE 'PLAN%\\_' || ? AND b.status = 'BOOKED'
+                 LIMIT 1
+                """, run);
+        sessionId = ((Number) row.get("session_id")).longValue();
+        sessionStart = ((java.sql.Timestamp) row.get("session_start_at")).toInstant();
+        userId = ((Number) row.get("user_id")).longValue();
+        classTypeId = ((Number) row.get("class_type_id")).longValue();
+    }
+
+    @Test
+    void activeCountOfOneSession() {
+        assertIndexed(() -> bookingRepository.countActiveBySession(sessionId, sessionStart));
+    }
+
+    @Test
+    void bookingPrecheck() {
+        assertIndexed(() -> bookingRepository.findBookingPrecheck(sessionId, userId, true));
+    }
+
+    @Test
+    void memberBookingsOfOneTypeAndDay() {
+        Instant day = sessionStart.truncatedTo(java.time.temporal.ChronoUnit.DAYS);
+        assertIndexed(() -> bookingRepository.countActiveForUserByTypeAndDay(userId, classTypeId, day, day.plus(Duration.ofDays(1))));
+    }
+
+    @Test
+    void memberActiveSlotsOfAMonth() {
+        assertIndexed(() -> bookingRepository.findActiveSlotsForUser(userId, from, from.plus(Duration.ofDays(31))));
+    }
+
+    @Test
+    void memberBookingsPage() {
+        var all = bookingRepository.findPageForUserAfter(userId, from, Long.MAX_VALUE, null);
+        var page = bookingRepository.findPageForUserAfter(userId, from, Long.MAX_VALUE, 5);
+        assertThat(all).hasSizeGreaterThan(5);
+        assertThat(page).extracting(BookingRepository.MyBookingRow::getBookingId)
+                .containsExactlyElementsOf(all.subList(0, 5).stream().map(BookingRepository.MyBookingRow::getBookingId).toList());
+        assertThat(all).extracting(BookingRepository.MyBookingRow::getStartAt).isSorted();
+
+        assertIndexed(() -> bookingRepository.findPageForUserAfter(userId, from, Long.MAX_VALUE, 20));
+        assertIndexed(() -> bookingRepository.findPageForUserBefore(userId, from.plus(Duration.ofDays(365)), Long.MAX_VALUE, 20));
+    }
+
+    @Test
+    void availabilityOfAWeek() {
+        assertIndexed(() -> classSessionRepository.findAvailabilityBetween(from, from.plus(Duration.ofDays(7))));
+    }
+
+    @Test
+    void calendarPatchRows() {
+        var rows = classSessionRepository.findCalendarRowsByIdIn(List.of(sessionId));
+        assertThat(rows).singleElement().satisfies(r -> assertThat(r.getStartAt()).isEqualTo(sessionStart));
+
+        assertIndexed(() -> classSessionRepository.findCalendarRowsByIdIn(List.of(sessionId)));
+    }
+
+    private void assertIndexed(Supplier<?> query) {
+        List<String> statements = BoundStatements.capture(query);
+        assertThat(statements).hasSize(1);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + statements.get(0), String.class);
+        List<String> scans = new ArrayList<>();
+        long blocks;
+        try {
+            blocks = seqScanBlocks(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        assertThat(blocks).as("blocks read by sequential scans of %s in%n%s", scans, plan).isLessThanOrEqualTo(MAX_SEQ_SCAN_BLOCKS);
+    }
+
+    /** Blocks read by the sequential scans that actually ran (runtime-pruned partitions never do). */
+    private long seqScanBlocks(JsonNode node, List<String> scans) {
+        long blocks = 0;
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && node.path("Actual Loops").asLong() > 0) {
+            scans.add(node.path("Relation Name").asText());
+            blocks += node.path("Shared Hit Blocks").asLong() + node.path("Shared Read Blocks").asLong();
+        }
+        for (JsonNode child : node.path("Plans")) blocks += seqScanBlocks(child, scans);
+        return blocks;
+    }
+}
@@ -0,0 +1,47 @@
+// src/test/java/com/gymsystem/booking/BookingServiceAvailabilityTests.java
+package com.gymsystem.booking;
+
+import com.gymsystem.booking.dto.AvailabilityItem;
+import com.gymsystem.support.PostgresTest;
+import com.gymsystem.support.StatementCounter;
+import com.gymsystem.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** getAvailability reads the whole window in one statement, however many sessions it holds. */
+@PostgresTest
+class BookingServiceAvailabilityTests {
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    TestData testData;
+
+    @Test
+    void statementCountDoesNotGrowWithSessions() {
+        Instant from = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(Duration.ofHours(2));
+        Instant to = from.plus(Duration.ofDays(2));
+
+        var few = testData.sessions(testData.classType(), from, 3, Duration.ofHours(1));
+        long statementsFew = StatementCounter.count(() -> bookingService.getAvailability(from, to));
+
+        var many = testData.sessions(testData.classType(), from, 40, Duration.ofMinutes(30));
+        @SuppressWarnings("unchecked")
+        List<AvailabilityItem>[] result = new List[1];
+        long statementsMany = StatementCounter.count(() -> result[0] = bookingService.getAvailability(from, to));
+
+        assertThat(result[0]).extracting(AvailabilityItem::getSessionId)
+                .contains(few.get(0).getId(), many.get(many.size() - 1).getId());
+        // sessions with their type and seat count, plus the active templates: fixed, not per session
+        assertThat(statementsFew).isLessThanOrEqualTo(2);
+        assertThat(statementsMany).isEqualTo(statementsFew);
+    }
+}
@@ -0,0 +1,101 @@
+// src/test/java/com/gymsystem/booking/WaitlistPromotionTests.java
+package com.gymsystem.booking;
+
+import com.gymsystem.support.PostgresTest;
+import com.gymsystem.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Sessions within the cancellation cutoff expire their queue instead of promoting it. */
+@PostgresTest
+class WaitlistPromotionTests {
+
+    private static final Duration CUTOFF = Duration.ofHours(6);
+
+    @Autowired
+    WaitlistRepository waitlistRepository;
+
+    @Autowired
+    TestData testData;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Instant now = Instant.now();
+    ClassSession soon;
+    ClassSession later;
+
+    @BeforeEach
+    void sessionsWithFreeSeats() {
+        var type = testData.classType();
+        soon = testData.sessions(type, now.plus(Duration.ofHours(2)).truncatedTo(ChronoUnit.MINUTES), 1, Duration.ZERO).get(0);
+        later = testData.sessions(type, now.plus(Duration.ofDays(3)).truncatedTo(ChronoUnit.MINUTES), 1, Duration.ZERO).get(0);
+    }
+
+    @Test
+    void promotesOnlySessionsPastTheCutoffAndExpiresTheRest() {
+        long soonEntry = queue(soon, member());
+        long laterEntry = queue(later, member());
+
+        List<Long> promoted = new TransactionTemplate(transactionManager).execute(status ->
+                waitlistRepository.promote(List.of(soon.getId(), later.getId()), now, now.plus(CUTOFF), false));
+
+        assertThat(promoted).containsExactly(later.getId());
+        assertThat(status(soonEntry)).isEqualTo("EXPIRED");
+        assertThat(status(laterEntry)).isEqualTo("PROMOTED");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE session_id = ?", Long.class, soon.getId()))
+                .as("no seat given inside the cutoff").isZero();
+    }
+
+    @Test
+    void sweepExpiresEntriesOfSessionsThatNeverFreedASeat() {
+        long soonEntry = queue(soon, member());
+        long laterEntry = queue(later, member());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                waitlistRepository.expireStartingBefore(now.plus(CUTOFF), now));
+
+        assertThat(status(soonEntry)).isEqualTo("EXPIRED");
+        assertThat(status(laterEntry)).isEqualTo("WAITING");
+    }
+
+    /** A member with an ACTIVE subscription (promotion skips the others). */
+    private long member() {
+        long userId = jdbcTemplate.queryForObject("""
+            INSERT INTO users (email, password_hash, role, active, created_at, updated_at)
+            VALUES (?, 'x', 'USER', TRUE, now(), now()) RETURNING id
+        """, Long.class, "wait_" + UUID.randomUUID() + "@example.com");
+        jdbcTemplate.update("""
+            INSERT INTO subscriptions (user_id, plan_name, price_cents, currency, billing_day, status,
+                                       current_period_start, current_period_end, next_billing_at, created_at)
+            VALUES (?, 'Plan', 10000, 'BRL', 1, 'ACTIVE', now(), now() + INTERVAL '1 month', now() + INTERVAL '1 month', now())
+        """, userId);
+        return userId;
+    }
+
+    private long queue(ClassSession session, long userId) {
+        return jdbcTemplate.queryForObject("""
+            INSERT INTO session_waitlist (session_id, user_id, status, created_at)
+            VALUES (?, ?, 'WAITING', now()) RETURNING id
+        """, Long.class, session.getId(), userId);
+    }
+
+    private String status(long entryId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM session_waitlist WHERE id = ?", String.class, entryId);
+    }
+}
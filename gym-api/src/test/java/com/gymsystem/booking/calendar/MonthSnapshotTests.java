@@ -0,0 +1,88 @@
+// src/test/java/com/gymsystem/booking/calendar/MonthSnapshotTests.java
+package com.gymsystem.booking.calendar;
+
+import com.gymsystem.booking.calendar.MonthSnapshot.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthSnapshotTests {
+
+    private static final Instant T0 = Instant.parse("2026-03-02T09:00:00Z");
+
+    @Test
+    void entriesAreOrderedByStartThenType() {
+        var snapshot = MonthSnapshot.of(List.of(
+                session(3L, "YOGA", 2), session(1L, "PILATES", 0), session(2L, "BOXING", 0)));
+
+        assertThat(snapshot.entries()).extracting(Entry::sessionId).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void sessionRowReplacesTheTemplateSlotItCameFrom() {
+        var snapshot = MonthSnapshot.of(
+                List.of(session(1L, "YOGA", 0)),
+                List.of(slot("YOGA", 0), slot("YOGA", 1)));
+
+        assertThat(snapshot.entries()).extracting(Entry::sessionId).containsExactly(1L, null);
+        assertThat(snapshot.entries().get(1).templateId()).isEqualTo(9L);
+    }
+
+    @Test
+    void patchReplacesByKeyAndKeepsTheOriginalUntouched() {
+        var original = MonthSnapshot.of(List.of(session(1L, "YOGA", 0), session(2L, "YOGA", 1)));
+        var booked = new Entry(2L, "YOGA", "Yoga", at(1), at(1).plusSeconds(3600), 10, 4, false, null);
+
+        var patched = original.patch(List.of(booked, session(3L, "YOGA", 2)));
+
+        assertThat(patched.entries()).extracting(Entry::sessionId).containsExactly(1L, 2L, 3L);
+        assertThat(patched.entries().get(1).booked()).isEqualTo(4);
+        assertThat(original.entries()).hasSize(2);
+        assertThat(original.entries().get(1).booked()).isZero();
+    }
+
+    @Test
+    void sliceIsInclusiveAndFiltersByType() {
+        var snapshot = MonthSnapshot.of(List.of(
+                session(1L, "YOGA", 0), session(2L, "PILATES", 1), session(3L, "YOGA", 2), session(4L, "YOGA", 3)));
+
+        List<Entry> all = new ArrayList<>();
+        snapshot.slice(at(1), at(2), null, all);
+        assertThat(all).extracting(Entry::sessionId).containsExactly(2L, 3L);
+
+        List<Entry> yoga = new ArrayList<>();
+        snapshot.slice(at(0).minusSeconds(1), at(3), "YOGA", yoga);
+        assertThat(yoga).extracting(Entry::sessionId).containsExactly(1L, 3L, 4L);
+
+        List<Entry> none = new ArrayList<>();
+        snapshot.slice(at(3).plusSeconds(1), at(9), null, none);
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void digestDependsOnContentOnly() {
+        var a = MonthSnapshot.of(List.of(session(1L, "YOGA", 0), session(2L, "PILATES", 1)));
+        var b = MonthSnapshot.of(List.of(session(2L, "PILATES", 1), session(1L, "YOGA", 0)));
+        var booked = a.patch(List.of(new Entry(2L, "PILATES", "PILATES", at(1), at(1).plusSeconds(3600), 10, 1, false, null)));
+
+        assertThat(b.digest()).isEqualTo(a.digest());
+        assertThat(booked.digest()).isNotEqualTo(a.digest());
+        assertThat(MonthSnapshot.digest(List.of(a, booked))).isNotEqualTo(MonthSnapshot.digest(List.of(booked, a)));
+    }
+
+    private static Instant at(int hours) {
+        return T0.plusSeconds(hours * 3600L);
+    }
+
+    private static Entry session(Long id, String type, int hours) {
+        return new Entry(id, type, type, at(hours), at(hours).plusSeconds(3600), 10, 0, false, null);
+    }
+
+    private static Entry slot(String type, int hours) {
+        return new Entry(null, type, type, at(hours), at(hours).plusSeconds(3600), 10, 0, false, 9L);
+    }
+}
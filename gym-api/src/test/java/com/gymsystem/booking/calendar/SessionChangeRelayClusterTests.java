@@ -0,0 +1,142 @@
+// src/test/java/com/gymsystem/booking/calendar/SessionChangeRelayClusterTests.java
+package com.gymsystem.booking.calendar;
+
+import com.gymsystem.GymSystemApplication;
+import com.gymsystem.booking.ClassSession;
+import com.gymsystem.booking.live.SeatFeed;
+import com.gymsystem.booking.live.SeatUpdate;
+import com.gymsystem.support.TestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts ("replicas") on one database: a seat change committed on one node reaches
+ * the read model and the seat feed of the other one long before the periodic refresh (turned off
+ * here), whether or not the other node has the month loaded. Same database as
+ * {@link com.gymsystem.support.PostgresTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "GYM_TEST_DB_URL", matches = ".+")
+class SessionChangeRelayClusterTests {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    static final Queue<SeatUpdate> seenByB = new ConcurrentLinkedQueue<>();
+    static ConfigurableApplicationContext nodeA;
+    static ConfigurableApplicationContext nodeB;
+
+    ClassSession session;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @BeforeEach
+    void session() {
+        var data = nodeA.getBean(TestData.class);
+        var start = Instant.now().plus(10, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        session = data.sessions(data.classType(), start, 1, Duration.ofHours(1)).get(0);
+        seenByB.clear();
+    }
+
+    @Test
+    void changeOnOneNodePatchesTheLoadedMonthOfTheOther() throws InterruptedException {
+        var readModel = nodeB.getBean(CalendarReadModel.class);
+        assertThat(booked(readModel)).isZero(); // month now loaded on node B
+
+        bookSeats(3);
+
+        assertThat(eventually(() -> booked(readModel) == 3)).as("patched on node B").isTrue();
+    }
+
+    @Test
+    void changeOnOneNodeReachesTheSeatFeedOfTheOtherWithoutTheMonthLoaded() throws InterruptedException {
+        bookSeats(2);
+
+        assertThat(eventually(() -> seenByB.stream().anyMatch(u -> u.sessionId().equals(session.getId()))))
+                .as("seat update on node B").isTrue();
+        assertThat(seenByB).filteredOn(u -> u.sessionId().equals(session.getId()))
+                .last().extracting(SeatUpdate::booked).isEqualTo(2);
+    }
+
+    /** What a booking does to the calendar: bump the count and publish, in one transaction on node A. */
+    private void bookSeats(int booked) {
+        new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> {
+                    nodeA.getBean(JdbcTemplate.class).update(
+                            "UPDATE class_sessions SET booked_count = ? WHERE id = ? AND start_at = ?",
+                            booked, session.getId(), Timestamp.from(session.getStartAt()));
+                    nodeA.publishEvent(SessionsChangedEvent.of(session.getId()));
+                });
+    }
+
+    private int booked(CalendarReadModel readModel) {
+        return readModel.slice(session.getStartAt(), session.getStartAt(), null).stream()
+                .filter(e -> session.getId().equals(e.sessionId()))
+                .findFirst().orElseThrow().booked();
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) return true;
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private static ConfigurableApplicationContext start(String name) {
+        var builder = new SpringApplicationBuilder(GymSystemApplication.class).profiles("test");
+        if (name.equals("node-b")) {
+            builder.initializers(ctx -> ((GenericApplicationContext) ctx).registerBean(RecordingSeatFeed.class,
+                    () -> new RecordingSeatFeed(ctx.getBean(MeterRegistry.class)), bd -> bd.setPrimary(true)));
+        }
+        return builder.run("--spring.application.name=" + name,
+                           "--server.port=0",
+                           "--booking.calendar.snapshot-refresh-ms=3600000",
+                           "--booking.live.cross-node-poll-ms=200");
+    }
+
+    /** Node B's seat feed; keeps every update it is given. */
+    static class RecordingSeatFeed extends SeatFeed {
+
+        RecordingSeatFeed(MeterRegistry meterRegistry) {
+            super(meterRegistry);
+        }
+
+        @Override
+        public void publish(Collection<SeatUpdate> updates) {
+            seenByB.addAll(List.copyOf(updates));
+            super.publish(updates);
+        }
+    }
+}
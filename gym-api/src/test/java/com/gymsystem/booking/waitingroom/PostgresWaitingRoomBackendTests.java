@@ -0,0 +1,104 @@
+// src/test/java/com/gymsystem/booking/waitingroom/PostgresWaitingRoomBackendTests.java
+package com.gymsystem.booking.waitingroom;
+
+import com.gymsystem.support.PostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Two backends ("replicas") on one database share one queue per window. */
+@PostgresTest
+class PostgresWaitingRoomBackendTests {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    PostgresWaitingRoomBackend nodeA;
+    PostgresWaitingRoomBackend nodeB;
+
+    /** A window of its own: rows of earlier runs never get in the way. */
+    Instant window = Instant.parse("2100-01-01T00:00:00Z")
+            .plus(ThreadLocalRandom.current().nextLong(1, 1_000_000), ChronoUnit.MINUTES);
+
+    @BeforeEach
+    void nodes() {
+        nodeA = node();
+        nodeB = node();
+        nodeA.open(window);
+        nodeB.open(window);
+    }
+
+    @Test
+    void ticketsAreIssuedInOneOrderAcrossNodes() {
+        assertThat(nodeA.join(window, 1, 100).number()).isEqualTo(1);
+        assertThat(nodeB.join(window, 2, 100).number()).isEqualTo(2);
+        assertThat(nodeB.join(window, 1, 100).number()).as("idempotent on another node").isEqualTo(1);
+        assertThat(nodeA.find(window, 2).number()).isEqualTo(2);
+        assertThat(nodeA.find(window, 3)).isNull();
+    }
+
+    @Test
+    void frontierAdvancesOncePerSecondForTheWholeCluster() throws InterruptedException {
+        for (long user = 1; user <= 5; user++) nodeA.join(window, user, 100);
+
+        Thread.sleep(1_100);
+        nodeA.advance(window, 2);
+        long first = nodeA.find(window, 1).admittedThrough();
+        nodeB.advance(window, 2);
+
+        assertThat(first).isIn(2L, 4L);
+        assertThat(nodeB.find(window, 1).admittedThrough()).as("same second, other node").isEqualTo(first);
+
+        Thread.sleep(2_100);
+        nodeB.advance(window, 2);
+        assertThat(nodeA.find(window, 5).admitted()).isTrue();
+        assertThat(nodeA.find(window, 5).admittedThrough()).as("never past the last ticket").isEqualTo(5);
+    }
+
+    @Test
+    void passIsStartedOnceAcrossNodes() {
+        nodeA.join(window, 1, 100);
+        var until = Instant.now().plusSeconds(600).truncatedTo(ChronoUnit.MILLIS);
+
+        assertThat(nodeA.startPass(window, 1, until)).isEqualTo(until);
+        assertThat(nodeB.startPass(window, 1, until.plusSeconds(60))).isEqualTo(until);
+        assertThat(nodeB.find(window, 1).admittedUntil()).isEqualTo(until);
+    }
+
+    @Test
+    void removeDropsOnlyTheTicketItWasGiven() {
+        long number = nodeA.join(window, 1, 100).number();
+
+        nodeB.remove(window, 1, number + 1);
+        assertThat(nodeA.find(window, 1)).isNotNull();
+
+        nodeB.remove(window, 1, number);
+        assertThat(nodeA.find(window, 1)).isNull();
+        assertThat(nodeA.join(window, 1, 100).number()).as("queues again at the back").isGreaterThan(number);
+    }
+
+    @Test
+    void fullWindowRefusesNewMembers() {
+        nodeA.join(window, 1, 1);
+
+        assertThat(nodeB.join(window, 2, 1)).isNull();
+        assertThat(nodeB.join(window, 1, 1)).isNotNull();
+    }
+
+    private PostgresWaitingRoomBackend node() {
+        var backend = new PostgresWaitingRoomBackend(jdbcTemplate, transactionManager);
+        backend.init();
+        return backend;
+    }
+}
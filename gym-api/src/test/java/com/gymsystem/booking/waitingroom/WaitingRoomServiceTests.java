@@ -0,0 +1,121 @@
+// src/test/java/com/gymsystem/booking/waitingroom/WaitingRoomServiceTests.java
+package com.gymsystem.booking.waitingroom;
+
+import com.gymsystem.booking.config.BookingSettings;
+import com.gymsystem.booking.config.BookingSettingsCache;
+import com.gymsystem.i18n.I18n;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomServiceTests {
+
+    private WaitingRoomService room;
+
+    @BeforeEach
+    void setUp() {
+        var settings = mock(BookingSettingsCache.class);
+        // the month opens on the 1st; a lead of 62 days keeps "now" inside the window
+        when(settings.get()).thenReturn(new BookingSettings(1, 0, "MON-SAT", LocalTime.of(6, 0),
+                LocalTime.of(22, 0), 0, false, null, Instant.now()));
+        room = new WaitingRoomService(settings, new I18n(new StaticMessageSource()), new InMemoryWaitingRoomBackend());
+        ReflectionTestUtils.setField(room, "enabled", true);
+        ReflectionTestUtils.setField(room, "admitPerSecond", 2);
+        ReflectionTestUtils.setField(room, "leadSeconds", 62L * 24 * 3600);
+        ReflectionTestUtils.setField(room, "activeMinutes", 30L);
+        ReflectionTestUtils.setField(room, "passTtlSeconds", 600L);
+        ReflectionTestUtils.setField(room, "maxTickets", 100);
+    }
+
+    @Test
+    void inactiveRoomDoesNotGateBooking() {
+        ReflectionTestUtils.setField(room, "enabled", false);
+        room.tick();
+
+        assertThat(room.join(1L).isActive()).isFalse();
+        assertThatCode(() -> room.assertAdmitted(1L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void admitsTicketsInOrderAtTheConfiguredRate() {
+        room.tick();
+        room.join(1L);
+        room.join(2L);
+        room.join(3L);
+
+        room.tick();
+        assertThatCode(() -> room.assertAdmitted(1L)).doesNotThrowAnyException();
+        assertThatCode(() -> room.assertAdmitted(2L)).doesNotThrowAnyException();
+        assertThat(room.status(3L).getPosition()).isEqualTo(1);
+        assertThatThrownBy(() -> room.assertAdmitted(3L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("booking.queue.waiting");
+
+        room.tick();
+        assertThat(room.status(3L).isAdmitted()).isTrue();
+    }
+
+    @Test
+    void quietQueueDoesNotBankAdmissions() {
+        for (int i = 0; i < 5; i++) room.tick();
+        room.join(1L);
+        room.join(2L);
+        room.join(3L);
+
+        assertThat(room.status(1L).isAdmitted()).isFalse();
+        room.tick();
+        assertThat(room.status(2L).isAdmitted()).isTrue();
+        assertThat(room.status(3L).isAdmitted()).isFalse();
+    }
+
+    @Test
+    void joinIsIdempotent() {
+        room.tick();
+        long first = room.join(7L).getTicket();
+
+        assertThat(room.join(7L).getTicket()).isEqualTo(first);
+        assertThat(room.join(8L).getTicket()).isEqualTo(first + 1);
+    }
+
+    @Test
+    void bookingWithoutTicketIsRefused() {
+        room.tick();
+
+        assertThatThrownBy(() -> room.assertAdmitted(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("booking.queue.required");
+    }
+
+    @Test
+    void expiredPassMustQueueAgain() {
+        ReflectionTestUtils.setField(room, "passTtlSeconds", -1L);
+        room.tick();
+        room.join(1L);
+        room.tick();
+
+        assertThatThrownBy(() -> room.assertAdmitted(1L)).hasMessage("booking.queue.required");
+        assertThat(room.status(1L).getTicket()).isNull();
+    }
+
+    @Test
+    void fullRoomRefusesNewMembers() {
+        ReflectionTestUtils.setField(room, "maxTickets", 1);
+        room.tick();
+        room.join(1L);
+
+        assertThatThrownBy(() -> room.join(2L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("booking.queue.full");
+        assertThatCode(() -> room.join(1L)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,122 @@
+// src/test/java/com/gymsystem/common/ratelimit/BucketTableTests.java
+package com.gymsystem.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BucketTableTests {
+
+    private static final long NOW = 1_000_000_000L;
+    private static final long INTERVAL = 1_000L;
+
+    private final List<int[]> evictions = new ArrayList<>();
+
+    @Test
+    void burstOfOneAllowsOneCallPerInterval() {
+        var table = table(1, 100);
+
+        assertThat(table.tryAcquire(7, NOW, INTERVAL, 0)).isTrue();
+        assertThat(table.tryAcquire(7, NOW + INTERVAL / 2, INTERVAL, 0)).isFalse();
+        assertThat(table.tryAcquire(7, NOW + INTERVAL, INTERVAL, 0)).isTrue();
+        assertThat(table.tryAcquire(8, NOW, INTERVAL, 0)).as("other key").isTrue();
+    }
+
+    @Test
+    void toleranceAllowsABurst() {
+        var table = table(1, 100);
+        long tolerance = INTERVAL * 2; // burst 3
+
+        assertThat(table.tryAcquire(7, NOW, INTERVAL, tolerance)).isTrue();
+        assertThat(table.tryAcquire(7, NOW, INTERVAL, tolerance)).isTrue();
+        assertThat(table.tryAcquire(7, NOW, INTERVAL, tolerance)).isTrue();
+        assertThat(table.tryAcquire(7, NOW, INTERVAL, tolerance)).isFalse();
+        assertThat(table.tryAcquire(7, NOW + INTERVAL, INTERVAL, tolerance)).isTrue();
+    }
+
+    @Test
+    void deletesKeepTheRestOfTheClusterReachable() {
+        for (int seed = 0; seed < 20; seed++) {
+            var table = table(1, 1_000);
+            List<Long> keys = new ArrayList<>();
+            for (long k = 1; k <= 48; k++) keys.add(k * 1_000_003L); // fills the first 64 slots to 3/4
+            for (long k : keys) table.align(k, NOW, NOW + INTERVAL);
+            Collections.shuffle(keys, new Random(seed));
+
+            var removed = keys.subList(0, 24);
+            var kept = keys.subList(24, 48);
+            for (long k : removed) table.align(k, NOW, NOW);
+
+            assertThat(table.size()).isEqualTo(24);
+            for (long k : kept) assertThat(table.tryAcquire(k, NOW, INTERVAL, 0)).as("kept %d", k).isFalse();
+            for (long k : removed) assertThat(table.tryAcquire(k, NOW, INTERVAL, 0)).as("removed %d", k).isTrue();
+        }
+    }
+
+    @Test
+    void alignMovesTheBucketForwardAndBack() {
+        var table = table(1, 100);
+        long tolerance = INTERVAL;
+
+        table.align(7, NOW, NOW + 5 * INTERVAL);
+        assertThat(table.tryAcquire(7, NOW, INTERVAL, tolerance)).isFalse();
+
+        table.align(7, NOW, NOW + 1);
+        assertThat(table.tryAcquire(7, NOW, INTERVAL, tolerance)).isTrue();
+
+        table.align(7, NOW, NOW - 1);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void stripesGrowWithoutDroppingBuckets() {
+        var table = table(1, 1_000);
+
+        for (long k = 1; k <= 500; k++) assertThat(table.tryAcquire(k, NOW, INTERVAL, 0)).isTrue();
+
+        assertThat(table.size()).isEqualTo(500);
+        assertThat(evictions).isEmpty();
+        for (long k = 1; k <= 500; k++) assertThat(table.tryAcquire(k, NOW, INTERVAL, 0)).isFalse();
+    }
+
+    @Test
+    void purgeDropsOnlyFullBucketsAndReportsThem() {
+        var table = table(4, 100);
+        for (long k = 1; k <= 10; k++) table.align(k, NOW, NOW + k * INTERVAL);
+
+        table.purgeExpired(NOW + 4 * INTERVAL);
+
+        assertThat(table.size()).isEqualTo(6);
+        assertThat(evictions).containsExactly(new int[] {4, 0});
+        assertThat(table.tryAcquire(5, NOW + 4 * INTERVAL, INTERVAL, 0)).isFalse();
+    }
+
+    @Test
+    void fullStripePurgesExpiredFirstThenEvictsTheBucketClosestToFull() {
+        var table = table(1, 4);
+        table.align(1, NOW, NOW + 1);
+        table.align(2, NOW, NOW + 30 * INTERVAL);
+        table.align(3, NOW, NOW + 10 * INTERVAL);
+        table.align(4, NOW, NOW + 20 * INTERVAL);
+
+        // key 1 has expired by now: purged, nothing evicted
+        long later = NOW + 2;
+        table.tryAcquire(5, later, INTERVAL, 0);
+        assertThat(evictions).containsExactly(new int[] {1, 0});
+
+        // no expired bucket left: key 5 (tat later + interval) is the closest to full
+        table.tryAcquire(6, later, INTERVAL, 0);
+        assertThat(evictions).last().isEqualTo(new int[] {0, 1});
+        assertThat(table.size()).isEqualTo(4);
+        assertThat(table.tryAcquire(5, later, INTERVAL, 0)).as("evicted key is not limited").isTrue();
+    }
+
+    private BucketTable table(int stripes, int maxKeys) {
+        return new BucketTable(stripes, maxKeys, (expired, capacity) -> evictions.add(new int[] {expired, capacity}));
+    }
+}
@@ -0,0 +1,101 @@
+// src/test/java/com/gymsystem/common/ratelimit/PostgresRateLimitClusterTests.java
+package com.gymsystem.common.ratelimit;
+
+import com.gymsystem.GymSystemApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts ("replicas") on one database with ratelimit.backend=postgres: a token
+ * taken on one replica is gone on the other. Same database as {@link com.gymsystem.support.PostgresTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "GYM_TEST_DB_URL", matches = ".+")
+class PostgresRateLimitClusterTests {
+
+    private static final long MINUTE_MS = 60_000;
+
+    static ConfigurableApplicationContext nodeA;
+    static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @Test
+    void tokenTakenOnOneNodeIsGoneOnTheOther() {
+        long key = freshKey();
+
+        assertThat(limiter(nodeA).tryAcquire("book", key, 1, MINUTE_MS)).isTrue();
+        assertThat(limiter(nodeB).tryAcquire("book", key, 1, MINUTE_MS)).isFalse();
+        assertThat(limiter(nodeA).tryAcquire("book", key, 1, MINUTE_MS)).isFalse();
+    }
+
+    @Test
+    void burstIsSharedByTheCluster() {
+        long key = freshKey();
+        int allowed = 0;
+        for (int i = 0; i < 6; i++) {
+            if (limiter(i % 2 == 0 ? nodeA : nodeB).tryAcquire("book", key, 3, MINUTE_MS)) allowed++;
+        }
+
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    void refusedNodeIsAlignedAndRefusesLocallyNext() {
+        long key = freshKey();
+        double before = localRejections(nodeB);
+
+        assertThat(limiter(nodeA).tryAcquire("cancel", key, 1, MINUTE_MS)).isTrue();
+        assertThat(limiter(nodeB).tryAcquire("cancel", key, 1, MINUTE_MS)).isFalse(); // database decides
+        assertThat(limiter(nodeB).tryAcquire("cancel", key, 1, MINUTE_MS)).isFalse(); // near-cache decides
+
+        assertThat(localRejections(nodeB) - before).isEqualTo(1);
+    }
+
+    @Test
+    void distinctNamespacesDoNotShareBuckets() {
+        long key = freshKey();
+
+        assertThat(limiter(nodeA).tryAcquire("book", key, 1, MINUTE_MS)).isTrue();
+        assertThat(limiter(nodeB).tryAcquire("cancel", key, 1, MINUTE_MS)).isTrue();
+    }
+
+    private static ConfigurableApplicationContext start(String name) {
+        return new SpringApplicationBuilder(GymSystemApplication.class)
+                .profiles("test")
+                .run("--spring.application.name=" + name,
+                     "--server.port=0",
+                     "--ratelimit.backend=postgres");
+    }
+
+    private static RateLimiter limiter(ConfigurableApplicationContext node) {
+        return node.getBean(RateLimiter.class);
+    }
+
+    private static double localRejections(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).counter("ratelimit.postgres.local-rejections").count();
+    }
+
+    /** Buckets outlive a run (the table is shared), so every test uses keys of its own. */
+    private static long freshKey() {
+        return ThreadLocalRandom.current().nextLong(1L << 40, Long.MAX_VALUE);
+    }
+}
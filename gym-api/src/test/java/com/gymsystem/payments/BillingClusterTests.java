@@ -0,0 +1,241 @@
+// src/test/java/com/gymsystem/payments/BillingClusterTests.java
+package com.gymsystem.payments;
+
+import com.gymsystem.GymSystemApplication;
+import com.gymsystem.payments.gateway.PaymentGateway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts ("replicas") on one database, each running two billing runs at once:
+ * every due payment reaches the gateway exactly once and is settled once. Same database as
+ * {@link com.gymsystem.support.PostgresTest}; the runs also charge any other due payment in it,
+ * so the assertions only look at the payments created here.
+ */
+@EnabledIfEnvironmentVariable(named = "GYM_TEST_DB_URL", matches = ".+")
+class BillingClusterTests {
+
+    private static final int MEMBERS = 120;
+    private static final int RUNS_PER_NODE = 2;
+
+    static final CountingGateway gateway = new CountingGateway();
+    static ConfigurableApplicationContext nodeA;
+    static ConfigurableApplicationContext nodeB;
+
+    String run;
+    List<Long> paymentIds;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @BeforeEach
+    void dueInvoices() {
+        run = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        var jdbc = nodeA.getBean(JdbcTemplate.class);
+        jdbc.update("""
+            INSERT INTO users (email, password_hash, role, active, created_at, updated_at)
+            SELECT 'bill' || n || '_' || ? || '@example.com', 'x', 'USER', TRUE, now(), now()
+              FROM generate_series(1, ?) n
+        """, run, MEMBERS);
+        jdbc.update("""
+            INSERT INTO subscriptions (user_id, plan_name, price_cents, currency, billing_day, status,
+                                       current_period_start, current_period_end, next_billing_at, created_at)
+            SELECT id, 'Plan', 10000, 'BRL', 1, 'ACTIVE',
+                   now() - INTERVAL '1 month', now() - INTERVAL '1 minute', now() - INTERVAL '1 minute', now()
+              FROM users WHERE email LIKE 'bill%\\_' || ? || '@example.com'
+        """, run);
+        paymentIds = jdbc.queryForList("""
+            INSERT INTO payments (subscription_id, amount_cents, currency, status, provider, due_at, created_at, attempt_count)
+            SELECT s.id, s.price_cents, s.currency, 'PENDING', 'MOCK', s.next_billing_at, now(), 0
+              FROM subscriptions s JOIN users u ON u.id = s.user_id
+             WHERE u.email LIKE 'bill%\\_' || ? || '@example.com'
+            RETURNING id
+        """, Long.class, run);
+        assertThat(paymentIds).hasSize(MEMBERS);
+    }
+
+    @Test
+    void concurrentRunsChargeEveryDuePaymentOnce() throws Exception {
+        gateway.accept = true;
+
+        runEverywhereAtOnce();
+
+        for (Long id : paymentIds) assertThat(gateway.calls(id)).as("charges of payment %d", id).isEqualTo(1);
+        var jdbc = nodeA.getBean(JdbcTemplate.class);
+        var perSubscription = jdbc.queryForList("""
+            SELECT s.id,
+                   COUNT(*) FILTER (WHERE p.status = 'PAID') AS paid,
+                   COUNT(*) FILTER (WHERE p.status = 'PENDING' AND p.due_at > now()) AS next,
+                   COUNT(*) AS total,
+                   MAX(p.attempt_count) FILTER (WHERE p.status = 'PAID') AS attempts
+              FROM subscriptions s
+              JOIN users u ON u.id = s.user_id
+              JOIN payments p ON p.subscription_id = s.id
+             WHERE u.email LIKE 'bill%\\_' || ? || '@example.com'
+             GROUP BY s.id
+        """, run);
+        assertThat(perSubscription).hasSize(MEMBERS).allSatisfy(row -> {
+            assertThat(row.get("paid")).isEqualTo(1L);
+            assertThat(row.get("next")).isEqualTo(1L);
+            assertThat(row.get("total")).isEqualTo(2L);
+            assertThat(row.get("attempts")).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void concurrentRunsMakeOneAttemptPerDeclinedPayment() throws Exception {
+        gateway.accept = false;
+
+        runEverywhereAtOnce();
+
+        for (Long id : paymentIds) assertThat(gateway.calls(id)).as("charges of payment %d", id).isEqualTo(1);
+        var jdbc = nodeA.getBean(JdbcTemplate.class);
+        var rows = jdbc.queryForList("""
+            SELECT status, attempt_count, lease_owner FROM payments
+             WHERE id IN (SELECT p.id FROM payments p
+                            JOIN subscriptions s ON s.id = p.subscription_id
+                            JOIN users u ON u.id = s.user_id
+                           WHERE u.email LIKE 'bill%\\_' || ? || '@example.com')
+        """, run);
+        assertThat(rows).hasSize(MEMBERS).allSatisfy(row -> {
+            assertThat(row.get("status")).isEqualTo("PENDING"); // backing off until the next attempt
+            assertThat(row.get("attempt_count")).isEqualTo(1);
+            assertThat(row.get("lease_owner")).isNull();
+        });
+    }
+
+    @Test
+    void failedCallWithUnknownOutcomeIsParkedForReview() throws Exception {
+        gateway.accept = true;
+        gateway.fail = true;
+        gateway.known = false;
+        try {
+            runEverywhereAtOnce();
+        } finally {
+            gateway.fail = false;
+        }
+
+        assertThat(statuses()).hasSize(MEMBERS).containsOnly("NEEDS_REVIEW");
+        for (Long id : paymentIds) assertThat(gateway.calls(id)).isEqualTo(1);
+
+        runEverywhereAtOnce(); // never charged again automatically
+        for (Long id : paymentIds) assertThat(gateway.calls(id)).isEqualTo(1);
+    }
+
+    @Test
+    void failedCallWithKnownOutcomeIsRecorded() throws Exception {
+        gateway.accept = true;
+        gateway.fail = true;
+        gateway.known = true;
+        try {
+            runEverywhereAtOnce();
+        } finally {
+            gateway.fail = false;
+            gateway.known = false;
+        }
+
+        assertThat(statuses()).hasSize(2 * MEMBERS).containsOnly("PAID", "PENDING"); // paid + next invoice
+        assertThat(statuses().stream().filter("PAID"::equals)).hasSize(MEMBERS);
+    }
+
+    private List<String> statuses() {
+        return nodeA.getBean(JdbcTemplate.class).queryForList("""
+            SELECT p.status FROM payments p
+              JOIN subscriptions s ON s.id = p.subscription_id
+              JOIN users u ON u.id = s.user_id
+             WHERE u.email LIKE 'bill%\\_' || ? || '@example.com'
+        """, String.class, run);
+    }
+
+    /** RUNS_PER_NODE runs on each node, released together. */
+    private static void runEverywhereAtOnce() throws Exception {
+        List<BillingScheduler> schedulers = new ArrayList<>();
+        for (int i = 0; i < RUNS_PER_NODE; i++) {
+            schedulers.add(nodeA.getBean(BillingScheduler.class));
+            schedulers.add(nodeB.getBean(BillingScheduler.class));
+        }
+        var go = new CountDownLatch(1);
+        try (var executor = Executors.newFixedThreadPool(schedulers.size())) {
+            List<Future<?>> runs = new ArrayList<>();
+            for (BillingScheduler scheduler : schedulers) {
+                runs.add(executor.submit(() -> {
+                    go.await();
+                    scheduler.run();
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> f : runs) f.get();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String name) {
+        return new SpringApplicationBuilder(GymSystemApplication.class)
+                .profiles("test")
+                .initializers(ctx -> ((GenericApplicationContext) ctx)
+                        .registerBean(CountingGateway.class, () -> gateway, bd -> bd.setPrimary(true)))
+                .run("--spring.application.name=" + name,
+                     "--server.port=0",
+                     "--payments.scheduler.page-size=10");
+    }
+
+    /**
+     * Shared by both nodes: counts the charges of each payment and answers slowly enough for runs to
+     * overlap. With "fail" every call throws after the provider took the charge; "known" decides
+     * whether lookup can tell.
+     */
+    static class CountingGateway implements PaymentGateway {
+
+        volatile boolean accept = true;
+        volatile boolean fail;
+        volatile boolean known;
+        private final Map<Long, AtomicInteger> charges = new ConcurrentHashMap<>();
+
+        @Override
+        public ChargeResult charge(Payment payment) throws Exception {
+            charges.computeIfAbsent(payment.getId(), id -> new AtomicInteger()).incrementAndGet();
+            Thread.sleep(5);
+            if (fail) throw new java.net.SocketTimeoutException("read timed out");
+            return new ChargeResult(accept, "TEST-" + payment.getId());
+        }
+
+        @Override
+        public Optional<ChargeResult> lookup(Payment payment) {
+            return known ? Optional.of(new ChargeResult(accept, "TEST-" + payment.getId())) : Optional.empty();
+        }
+
+        int calls(Long paymentId) {
+            var n = charges.get(paymentId);
+            return n == null ? 0 : n.get();
+        }
+    }
+}
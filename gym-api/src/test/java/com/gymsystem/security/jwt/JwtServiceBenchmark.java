@@ -0,0 +1,86 @@
+// src/test/java/com/gymsystem/security/jwt/JwtServiceBenchmark.java
+package com.gymsystem.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of token validation: the old code (new parser per call), the shared parser
+ * with the cache off (first sight of a token) and the cache hit (same client again).
+ * Not a unit test; run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.gymsystem.security.jwt.JwtServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private SecretKey key;
+    private String token;
+    private JwtService uncached;
+    private JwtService cached;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        uncached = service(0);
+        cached = service(10_000);
+        token = cached.generateToken(42L, "member@example.com", "USER");
+        cached.validateAndParseClaims(token); // warm the cache
+    }
+
+    /** Before: what validateAndParseClaims did on every request. */
+    @Benchmark
+    public Claims parserPerRequest() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    /** Shared parser, signature verified (cache full or token not seen yet). */
+    @Benchmark
+    public Claims sharedParser() {
+        return uncached.validateAndParseClaims(token);
+    }
+
+    /** Token verified recently: digest and map lookup only. */
+    @Benchmark
+    public Claims cacheHit() {
+        return cached.validateAndParseClaims(token);
+    }
+
+    private static JwtService service(int cacheMaxEntries) {
+        var service = new JwtService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expirationSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "cacheMaxEntries", cacheMaxEntries);
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 300L);
+        service.init();
+        return service;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+// src/test/java/com/gymsystem/support/BoundStatements.java
+package com.gymsystem.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Records the statements executed on the current thread with their bound values inlined
+ * (as rendered by the Postgres driver), so a test can EXPLAIN exactly what a repository ran.
+ * Wraps the DataSource; outside {@link #capture} it only forwards calls.
+ */
+@Component
+public class BoundStatements implements BeanPostProcessor {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    /** Statements executed on this thread while "action" ran, in order. */
+    public static List<String> capture(Supplier<?> action) {
+        var captured = new ArrayList<String>();
+        CAPTURED.set(captured);
+        try {
+            action.get();
+        } finally {
+            CAPTURED.remove();
+        }
+        return captured;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection c ? proxy(Connection.class, c, BoundStatements::onConnection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private static Object onConnection(Connection target, java.lang.reflect.Method method, Object[] args) throws Exception {
+        Object result = method.invoke(target, args);
+        return result instanceof PreparedStatement ps ? proxy(PreparedStatement.class, ps, BoundStatements::onStatement) : result;
+    }
+
+    private static Object onStatement(PreparedStatement target, java.lang.reflect.Method method, Object[] args) throws Exception {
+        var captured = CAPTURED.get();
+        if (captured != null && method.getName().startsWith("execute") && (args == null || args.length == 0)) {
+            captured.add(target.unwrap(PreparedStatement.class).toString());
+        }
+        return method.invoke(target, args);
+    }
+
+    private interface Handler<T> {
+        Object invoke(T target, java.lang.reflect.Method method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler h = (p, method, args) -> {
+            try {
+                return handler.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, h);
+    }
+}
@@ -0,0 +1,25 @@
+// src/test/java/com/gymsystem/support/PostgresTest.java
+package com.gymsystem.support;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Full application context against a real Postgres 16 database (the schema relies on
+ * partitioning, data-modifying CTEs and SKIP LOCKED, so there is no embedded stand-in).
+ * The database is GYM_TEST_DB_URL, migrated by Flyway on startup; without it the test is skipped.
+ * Tests add their own rows and must not assume an empty database.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "GYM_TEST_DB_URL", matches = ".+")
+public @interface PostgresTest {
+}
@@ -0,0 +1,28 @@
+// src/test/java/com/gymsystem/support/StatementCounter.java
+package com.gymsystem.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so background jobs of
+ * the same context do not disturb the count. Registered by the "test" profile.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /** Number of statements prepared on this thread while "action" ran. */
+    public static long count(Supplier<?> action) {
+        long before = COUNT.get()[0];
+        action.get();
+        return COUNT.get()[0] - before;
+    }
+}
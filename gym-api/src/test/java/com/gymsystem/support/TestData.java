@@ -0,0 +1,50 @@
+// src/test/java/com/gymsystem/support/TestData.java
+package com.gymsystem.support;
+
+import com.gymsystem.booking.ClassSession;
+import com.gymsystem.booking.ClassSessionRepository;
+import com.gymsystem.booking.ClassType;
+import com.gymsystem.booking.ClassTypeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/** Rows for database-backed tests; every call uses fresh keys so runs never collide. */
+@Component
+@RequiredArgsConstructor
+public class TestData {
+
+    private final ClassTypeRepository classTypeRepository;
+    private final ClassSessionRepository classSessionRepository;
+
+    public ClassType classType() {
+        String code = "T" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+        return classTypeRepository.save(ClassType.builder()
+                .code(code)
+                .name("Test " + code)
+                .active(true)
+                .build());
+    }
+
+    /** "count" one-hour sessions of the type, the first at "firstStart", then every "step". */
+    public List<ClassSession> sessions(ClassType type, Instant firstStart, int count, Duration step) {
+        List<ClassSession> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Instant start = firstStart.plus(step.multipliedBy(i));
+            sessions.add(ClassSession.builder()
+                    .classType(type)
+                    .startAt(start)
+                    .endAt(start.plus(Duration.ofHours(1)))
+                    .capacity(10)
+                    .createdByAdminId(0L)
+                    .createdAt(Instant.now())
+                    .build());
+        }
+        return classSessionRepository.saveAll(sessions);
+    }
+}
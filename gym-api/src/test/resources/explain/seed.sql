@@ -0,0 +1,35 @@
+-- Realistic volume for the query plan tests, run inside the test's transaction (rolled back).
+-- 3 class types x 7 slots a day for 12 months (about 640 sessions a month), 3000 members,
+-- 8 bookings per session (85% BOOKED), one subscription per member.
+INSERT INTO class_types (code, name, active)
+SELECT 'PLAN' || n || '_' || :run, 'Plan ' || n, TRUE FROM generate_series(1, 3) n;
+
+INSERT INTO users (email, password_hash, role, active, created_at, updated_at)
+SELECT 'plan' || n || '_' || :run || '@example.com', 'x', 'USER', TRUE, now(), now()
+  FROM generate_series(1, 3000) n;
+
+INSERT INTO subscriptions (user_id, plan_name, price_cents, currency, billing_day, status,
+                           current_period_start, current_period_end, next_billing_at, created_at)
+SELECT u.id, 'Plan', 10000, 'BRL', 1, 'ACTIVE', now(), now() + INTERVAL '1 month', now() + INTERVAL '1 month', now()
+  FROM users u WHERE u.email LIKE 'plan%\_' || :run || '@example.com';
+
+INSERT INTO class_sessions (class_type_id, start_at, end_at, capacity, canceled, created_by_admin_id, created_at)
+SELECT t.id,
+       d + make_interval(hours => 6 + 2 * h),
+       d + make_interval(hours => 7 + 2 * h),
+       12, random() < 0.02, 0, now()
+  FROM class_types t
+ CROSS JOIN generate_series(CAST(:from AS TIMESTAMPTZ), CAST(:to AS TIMESTAMPTZ) - INTERVAL '1 day', INTERVAL '1 day') d
+ CROSS JOIN generate_series(0, 6) h
+ WHERE t.code LIKE 'PLAN%\_' || :run;
+
+-- k * 2729 mod 3000 is distinct for k = 0..7, so a member books a session at most once
+INSERT INTO bookings (session_id, user_id, status, created_at, session_start_at)
+SELECT s.id,
+       u.first_id + (s.id * 7919 + k * 2729) % 3000,
+       CASE WHEN random() < 0.85 THEN 'BOOKED' ELSE 'CANCELED' END,
+       now(), s.start_at
+  FROM class_sessions s
+  JOIN class_types t ON t.id = s.class_type_id AND t.code LIKE 'PLAN%\_' || :run
+ CROSS JOIN (SELECT MIN(id) AS first_id FROM users WHERE email LIKE 'plan%\_' || :run || '@example.com') u
+ CROSS JOIN generate_series(0, 7) k;